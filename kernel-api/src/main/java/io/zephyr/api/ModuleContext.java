@@ -2,6 +2,7 @@ package io.zephyr.api;
 
 import io.zephyr.kernel.Module;
 import io.zephyr.kernel.VolatileStorage;
+import java.util.Collection;
 import java.util.List;
 import java.util.function.Predicate;
 import java.util.function.Supplier;
@@ -46,8 +47,31 @@ public interface ModuleContext extends VolatileStorage {
 
   <T> ServiceRegistration<T> register(Class<T> type, Supplier<T> factory);
 
+  /**
+   * register several services atomically, with a single {@link ServiceEvents#REGISTERED_BATCH}
+   *
+   * @param definitions the services to register
+   * @return their registrations, in order
+   */
+  List<ServiceRegistration<?>> registerAll(Collection<? extends ServiceDefinition<?>> definitions);
+
+  /**
+   * unregister several services atomically, with a single {@link
+   * ServiceEvents#UNREGISTERED_BATCH} per module that provided them
+   *
+   * @param registrations the registrations to dispose of
+   */
+  void unregisterAll(Collection<? extends ServiceRegistration<?>> registrations);
+
   <T> List<ServiceReference<T>> getReferences(Class<T> type);
 
+  /**
+   * @param type the type of the service
+   * @return a handle that caches the services providing type, re-resolving them only after the
+   *     set of registrations changes
+   */
+  <T> ServiceHandle<T> getServiceHandle(Class<T> type);
+
   List<ServiceReference<?>> getReferences(Query<ServiceDefinition<?>> query);
 
   @SuppressWarnings({"unchecked", "rawtypes"})
@@ -0,0 +1,35 @@
+package io.zephyr.api;
+
+import java.util.function.Predicate;
+import lombok.Getter;
+import lombok.NonNull;
+
+/**
+ * a query split into a service-type term the kernel can answer from its type index and a residual
+ * predicate for everything else. A candidate matches the query iff its service type is the term's
+ * and it satisfies the residual. A consumer that narrows its candidates by a non-null term may test
+ * just the residual; one that ignores it must test {@link #getPredicate()}
+ */
+public final class QueryPlan<T> {
+
+  /** the whole query */
+  @Getter private final Predicate<T> predicate;
+
+  /** the part of the query not expressed by the term */
+  @Getter private final Predicate<T> residual;
+
+  /** the fully-qualified name of the service's declared type, or null */
+  @Getter private final String serviceType;
+
+  public QueryPlan(
+      @NonNull Predicate<T> predicate, @NonNull Predicate<T> residual, String serviceType) {
+    this.predicate = predicate;
+    this.residual = residual;
+    this.serviceType = serviceType;
+  }
+
+  /** @return a plan without a term, whose residual is predicate */
+  public static <T> QueryPlan<T> unplanned(Predicate<T> predicate) {
+    return new QueryPlan<>(predicate, predicate, null);
+  }
+}
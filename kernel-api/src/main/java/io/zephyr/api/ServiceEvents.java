@@ -4,7 +4,13 @@ import io.sunshower.lang.events.EventType;
 
 public enum ServiceEvents implements EventType {
   REGISTERED,
-  UNREGISTERED;
+  UNREGISTERED,
+
+  /** services registered together. The event's target is a {@code List<ServiceReference<?>>} */
+  REGISTERED_BATCH,
+
+  /** services unregistered together. The event's target is a {@code List<ServiceReference<?>>} */
+  UNREGISTERED_BATCH;
 
   private final int id;
 
@@ -0,0 +1,36 @@
+package io.zephyr.api;
+
+import java.util.List;
+
+/**
+ * a cached view of the services that provide a type. A handle resolves its registrations once and
+ * keeps them until a service is registered or unregistered; in between, every access costs a
+ * single read of the registry's epoch. Obtain one via {@link ModuleContext#getServiceHandle(Class)}
+ * and keep it: handles are thread-safe and cheap to hold.
+ *
+ * <p>A handle follows registrations: a service is visible from its registration until it is
+ * disposed, regardless of the state of the module that registered it
+ *
+ * @param <T> the type of the service
+ */
+public interface ServiceHandle<T> {
+
+  /** @return the type this handle resolves */
+  Class<T> getType();
+
+  /** @return true if at least one registered service provides the type */
+  boolean isAvailable();
+
+  /** @return the earliest registered reference that provides the type, or null if there is none */
+  ServiceReference<T> getReference();
+
+  /** @return every reference that provides the type, in registration order */
+  List<ServiceReference<T>> getReferences();
+
+  /**
+   * @return the service of {@link #getReference()}, or null if there is none. The service is
+   *     obtained from its definition once per resolution, so factory-backed services are not
+   *     recreated on every call
+   */
+  T get();
+}
@@ -2,6 +2,8 @@ package io.zephyr.api;
 
 import io.zephyr.kernel.Module;
 import io.zephyr.kernel.core.Kernel;
+import java.util.Collection;
+import java.util.List;
 
 public interface ServiceRegistry extends AutoCloseable {
 
@@ -15,5 +17,49 @@ public interface ServiceRegistry extends AutoCloseable {
 
   <T> void unregister(ServiceRegistration<T> definition);
 
+  /**
+   * register several services at once. Lookups see either none or all of them, and a single
+   * {@link ServiceEvents#REGISTERED_BATCH} is dispatched in place of one {@link
+   * ServiceEvents#REGISTERED} per service
+   *
+   * @param module the module providing the services
+   * @param definitions the services to register
+   * @return the registrations, in the order of definitions
+   */
+  List<ServiceRegistration<?>> registerAll(
+      Module module, Collection<? extends ServiceDefinition<?>> definitions);
+
+  /**
+   * unregister several services at once. Lookups see either all or none of them, and a single
+   * {@link ServiceEvents#UNREGISTERED_BATCH} is dispatched per module that provided them.
+   * Registrations that are already disposed are ignored
+   *
+   * @param registrations the registrations to dispose of
+   * @throws IllegalArgumentException if any registration was not made by this registry, in which
+   *     case none are disposed of
+   */
+  void unregisterAll(Collection<? extends ServiceRegistration<?>> registrations);
+
   ServiceRegistrationSet getRegistrations(Module module);
+
+  /**
+   * @param type the type to look up
+   * @return every live registration that {@link ServiceRegistration#provides(Class) provides} type,
+   *     in registration order. The result is a snapshot
+   */
+  <T> List<ServiceRegistration<T>> getRegistrations(Class<T> type);
+
+  /**
+   * @param typeName the fully-qualified name of a declared service type
+   * @return every live registration whose definition declares a type of that name, in
+   *     registration order. Unlike {@link #getRegistrations(Class)}, supertypes are not consulted.
+   *     The result is a snapshot
+   */
+  List<ServiceRegistration<?>> getRegistrationsDeclaring(String typeName);
+
+  /**
+   * @return a counter that advances whenever a registration is added or removed. Lookups made
+   *     while the epoch is unchanged return the same registrations
+   */
+  long getEpoch();
 }
@@ -1,6 +1,7 @@
 package io.zephyr.api;
 
 import io.sunshower.lang.events.EventSource;
+import io.sunshower.lang.events.EventType;
 import java.util.Collection;
 import java.util.List;
 import java.util.function.Predicate;
@@ -20,4 +21,13 @@ public interface Tracker<T> extends EventSource, AutoCloseable, Startable, Stopp
   int getTrackedCount();
 
   void waitUntil(Predicate<? super Collection<T>> condition);
+
+  /**
+   * like {@link #waitUntil(Predicate)}, but the condition is only re-checked when an object is
+   * tracked with an event of the given type
+   *
+   * @param type the event type to wait for. Null waits for any type
+   * @param condition the condition to wait for
+   */
+  void waitUntil(EventType type, Predicate<? super Collection<T>> condition);
 }
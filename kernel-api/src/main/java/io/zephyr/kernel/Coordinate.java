@@ -1,5 +1,10 @@
 package io.zephyr.kernel;
 
+import java.util.ArrayList;
+import java.util.Collections;
+import java.util.List;
+import lombok.val;
+
 public interface Coordinate extends Comparable<Coordinate> {
 
   boolean isResolved();
@@ -14,5 +19,16 @@ public interface Coordinate extends Comparable<Coordinate> {
     return String.format("%s:%s:%s", getGroup(), getName(), getVersion());
   }
 
+  /** @return the group, name and version of this coordinate, in that order, skipping any null */
+  default List<String> getSegments() {
+    val result = new ArrayList<String>(3);
+    for (val segment : new Object[] {getGroup(), getName(), getVersion()}) {
+      if (segment != null) {
+        result.add(segment.toString());
+      }
+    }
+    return Collections.unmodifiableList(result);
+  }
+
   boolean satisfies(String range);
 }
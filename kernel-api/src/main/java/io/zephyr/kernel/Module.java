@@ -35,10 +35,45 @@ public interface Module extends Comparable<Module>, Originator, AutoCloseable {
     }
   }
 
+  /** the kind of thread a module's task queue runs on */
+  enum Threading {
+    /** whatever the kernel is configured to use */
+    Default,
+    /** a dedicated platform thread */
+    Platform,
+    /** a virtual thread, if the JVM supports them */
+    Virtual;
+
+    public static Threading parse(String value) {
+      if (value == null) {
+        return Default;
+      }
+      val normalized = value.trim().toLowerCase();
+      switch (normalized) {
+        case "":
+        case "default":
+          return Default;
+        case "platform":
+          return Platform;
+        case "virtual":
+          return Virtual;
+      }
+      throw new IllegalArgumentException(
+          "value '"
+              + value
+              + "' is not a valid threading mode.  Must be ['default', 'platform', 'virtual'] (case-insensitive)");
+    }
+  }
+
   ModuleClasspath getModuleClasspath();
 
   int getOrder();
 
+  /** @return the kind of thread this module's task queue should run on */
+  default Threading getThreading() {
+    return Threading.Default;
+  }
+
   /** @return the relative paths of any created library directories */
   Set<Library> getLibraries();
 
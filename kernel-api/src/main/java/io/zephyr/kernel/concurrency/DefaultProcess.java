@@ -11,7 +11,10 @@ import io.sunshower.gyre.Scope;
 import io.sunshower.gyre.StronglyConnectedComponents;
 import io.sunshower.gyre.TaskSet;
 import io.sunshower.lang.events.EventListener;
+import io.zephyr.gyre.IntGraph;
+import io.zephyr.gyre.IntGraphSolver;
 import java.util.ArrayList;
+import java.util.HashMap;
 import java.util.Iterator;
 import java.util.List;
 import lombok.Getter;
@@ -29,15 +32,32 @@ public class DefaultProcess<T> implements Process<T> {
   @Getter private final List<DefaultProcessListenerDisposable> disposers;
   @Getter private final List<Pair<TaskEventType, EventListener<Task>>> listeners;
   private Mode mode;
+  private Coordination coordination;
   private volatile Schedule<DirectedGraph.Edge<T>, io.zephyr.kernel.concurrency.Task> schedule;
 
+  /** may be null, in which case plans are compiled for this process alone */
+  private final ProcessPlanCache plans;
+
+  private volatile ProcessPlan.Binding plan;
+
   public DefaultProcess(
       String name,
       boolean coalesce,
       boolean parallel,
       Scope context,
       DirectedGraph<T, Task> graph) {
+    this(name, coalesce, parallel, context, graph, null);
+  }
+
+  public DefaultProcess(
+      String name,
+      boolean coalesce,
+      boolean parallel,
+      Scope context,
+      DirectedGraph<T, Task> graph,
+      ProcessPlanCache plans) {
     this.name = name;
+    this.plans = plans;
     this.coalesce = coalesce;
     this.context = context;
     this.graph = graph;
@@ -46,6 +66,7 @@ public class DefaultProcess<T> implements Process<T> {
     } else {
       setMode(Mode.KernelAllocated);
     }
+    this.coordination = Coordination.Staged;
     this.listeners = new ArrayList<>();
     this.disposers = new ArrayList<>();
   }
@@ -65,6 +86,16 @@ public class DefaultProcess<T> implements Process<T> {
     this.mode = mode;
   }
 
+  @Override
+  public Coordination getCoordination() {
+    return coordination;
+  }
+
+  @Override
+  public void setCoordination(@NonNull Coordination coordination) {
+    this.coordination = coordination;
+  }
+
   @Override
   public boolean coalesce() {
     return coalesce;
@@ -102,12 +133,14 @@ public class DefaultProcess<T> implements Process<T> {
       synchronized (this) {
         local = schedule;
         if (local == null) {
-          val cycles =
-              new StronglyConnectedComponents<
-                  DirectedGraph.Edge<T>, io.zephyr.kernel.concurrency.Task>();
-          val partition = cycles.apply(graph);
-          if (partition.isCyclic()) {
-            throw new IllegalStateException("Cycle detected: " + partition.getElements());
+          if (mayBeCyclic(graph)) {
+            val partition =
+                new StronglyConnectedComponents<
+                        DirectedGraph.Edge<T>, io.zephyr.kernel.concurrency.Task>()
+                    .apply(graph);
+            if (partition.isCyclic()) {
+              throw new IllegalStateException("Cycle detected: " + partition.getElements());
+            }
           }
           schedule =
               local =
@@ -119,6 +152,59 @@ public class DefaultProcess<T> implements Process<T> {
     return local.getTasks();
   }
 
+  /**
+   * if a plan was cached for a graph of this one's shape it is re-bound to this process's tasks
+   * without scheduling. Otherwise it is compiled from {@link #getTasks()} and cached
+   */
+  @Override
+  public ProcessPlan.Binding getPlan() {
+    ProcessPlan.Binding local = plan;
+    if (local == null) {
+      synchronized (this) {
+        local = plan;
+        if (local == null) {
+          val layout = ProcessPlan.layoutOf(graph);
+          ProcessPlan compiled = plans == null ? null : plans.get(layout.getShape());
+          if (compiled == null) {
+            compiled = ProcessPlan.compile(layout, getTasks());
+            if (plans != null) {
+              plans.put(layout.getShape(), compiled);
+            }
+          }
+          plan = local = compiled.bind(layout);
+        }
+      }
+    }
+    return local;
+  }
+
+  /**
+   * sorts the graph's int layout instead of partitioning the graph itself, so only a graph that may
+   * be cyclic pays for the object-keyed component search. A self-dependency is not a cycle: gyre
+   * only counts components of more than one vertex as cyclic, so self-edges are left out of the
+   * sort
+   *
+   * @return false if graph is certainly acyclic
+   */
+  private static <T> boolean mayBeCyclic(DirectedGraph<T, Task> graph) {
+    val vertices = graph.vertexSet();
+    val ids = new HashMap<Task, Integer>(vertices.size() * 2);
+    for (val vertex : vertices) {
+      ids.put(vertex, ids.size());
+    }
+    val builder = IntGraph.builder(ids.size());
+    for (val vertex : vertices) {
+      val id = ids.get(vertex);
+      for (val neighbor : graph.neighbors(vertex)) {
+        val target = ids.get(neighbor);
+        if (target != null && target.intValue() != id) {
+          builder.connect(id, target);
+        }
+      }
+    }
+    return !new IntGraphSolver().topologicalSort(builder.build(), new int[ids.size()]);
+  }
+
   @Override
   public int size() {
     return getTasks().size();
@@ -16,10 +16,22 @@ public interface Process<E> extends Schedule<DirectedGraph.Edge<E>, Task> {
     UserspaceAllocated,
   }
 
+  /** how the stages of a process are advanced */
+  enum Coordination {
+    /** every task of a stage must complete before any task of the next stage is started */
+    Staged,
+    /** a task is released as soon as all of its own predecessors have completed */
+    DependencyDriven,
+  }
+
   Mode getMode();
 
   void setMode(@NonNull Mode mode);
 
+  Coordination getCoordination();
+
+  void setCoordination(@NonNull Coordination coordination);
+
   /** if true, remove redundant edges (may improve execution time) */
   boolean coalesce();
 
@@ -31,6 +43,11 @@ public interface Process<E> extends Schedule<DirectedGraph.Edge<E>, Task> {
 
   Graph<DirectedGraph.Edge<E>, Task> getExecutionGraph();
 
+  /** @return this process's stages and the edges between its tasks, bound to its own tasks */
+  default ProcessPlan.Binding getPlan() {
+    return ProcessPlan.plan(this);
+  }
+
   /**
    * Note that listeners are automatically cleared once the process is complete
    *
@@ -0,0 +1,267 @@
+package io.zephyr.kernel.concurrency;
+
+import io.sunshower.gyre.DirectedGraph;
+import io.sunshower.gyre.Graph;
+import io.sunshower.gyre.TaskSet;
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.Collections;
+import java.util.Comparator;
+import java.util.HashMap;
+import java.util.List;
+import java.util.PriorityQueue;
+import lombok.val;
+
+/**
+ * a compiled schedule: the stage of every vertex of a task graph, by the vertex's position in the
+ * graph. It refers to no task, so one plan serves every graph of the same {@link Shape}, and
+ * {@link #bind(Layout)} re-binds it to the tasks of any of them without scheduling again
+ */
+@SuppressWarnings({"PMD.DataflowAnomalyAnalysis", "PMD.AvoidInstantiatingObjectsInLoops"})
+public final class ProcessPlan {
+
+  /** by vertex: the stage it runs in, or -1 if the schedule left it out */
+  private final int[] stages;
+
+  private final int stageCount;
+
+  private ProcessPlan(int[] stages, int stageCount) {
+    this.stages = stages;
+    this.stageCount = stageCount;
+  }
+
+  /** the order in which {@link #layoutOf(Graph)} breaks ties. Tasks are equal by name */
+  static final Comparator<Task> CANONICAL =
+      Comparator.<Task, String>comparing(task -> task.getClass().getName())
+          .thenComparing(Task::getName);
+
+  /**
+   * positions are canonical: vertices are laid out in topological order, breaking ties by {@link
+   * #CANONICAL}, and each vertex's edges by target position, so rebuilding a graph yields the same
+   * shape however its vertex set iterates. Vertices left on a cycle follow the rest
+   *
+   * @return the vertices of graph in order, with the shape they form
+   */
+  public static <T> Layout layoutOf(Graph<DirectedGraph.Edge<T>, Task> graph) {
+    val sorted = new ArrayList<Task>(graph.vertexSet());
+    sorted.sort(CANONICAL);
+    val size = sorted.size();
+    val ranks = new HashMap<Task, Integer>(size * 2);
+    for (int i = 0; i < size; i++) {
+      ranks.put(sorted.get(i), i);
+    }
+    val successors = new int[size][];
+    val degrees = new int[size];
+    for (int i = 0; i < size; i++) {
+      int[] targets = new int[4];
+      int count = 0;
+      for (val neighbor : graph.neighbors(sorted.get(i))) {
+        val target = ranks.get(neighbor);
+        if (target != null) {
+          if (count == targets.length) {
+            targets = Arrays.copyOf(targets, count << 1);
+          }
+          targets[count++] = target;
+          if (target != i) {
+            degrees[target]++;
+          }
+        }
+      }
+      successors[i] = Arrays.copyOf(targets, count);
+    }
+
+    // Kahn's algorithm, always taking the lowest-ranked ready vertex
+    val positions = new int[size];
+    Arrays.fill(positions, -1);
+    val ready = new PriorityQueue<Integer>();
+    for (int i = 0; i < size; i++) {
+      if (degrees[i] == 0) {
+        ready.add(i);
+      }
+    }
+    val order = new int[size];
+    int placed = 0;
+    while (!ready.isEmpty()) {
+      val rank = ready.poll();
+      positions[rank] = placed;
+      order[placed++] = rank;
+      for (val target : successors[rank]) {
+        if (target != rank && --degrees[target] == 0) {
+          ready.add(target);
+        }
+      }
+    }
+    for (int i = 0; i < size && placed < size; i++) {
+      if (positions[i] < 0) {
+        positions[i] = placed;
+        order[placed++] = i;
+      }
+    }
+
+    val tasks = new ArrayList<Task>(size);
+    val kinds = new Class<?>[size];
+    int[] edges = new int[size * 2];
+    int count = 0;
+    for (int position = 0; position < size; position++) {
+      val task = sorted.get(order[position]);
+      tasks.add(task);
+      kinds[position] = task.getClass();
+      val targets = successors[order[position]];
+      for (int i = 0; i < targets.length; i++) {
+        targets[i] = positions[targets[i]];
+      }
+      Arrays.sort(targets);
+      for (val target : targets) {
+        if (count == edges.length) {
+          edges = Arrays.copyOf(edges, Math.max(2, count << 1));
+        }
+        edges[count++] = position;
+        edges[count++] = target;
+      }
+    }
+    return new Layout(new Shape(kinds, Arrays.copyOf(edges, count)), tasks);
+  }
+
+  /**
+   * @param layout the layout schedule was computed for
+   * @param schedule the stages of layout's tasks
+   * @return the plan schedule follows
+   */
+  public static <T> ProcessPlan compile(
+      Layout layout, List<TaskSet<DirectedGraph.Edge<T>, Task>> schedule) {
+    val ids = new HashMap<Task, Integer>(layout.tasks.size() * 2);
+    for (int i = 0; i < layout.tasks.size(); i++) {
+      ids.put(layout.tasks.get(i), i);
+    }
+    val stages = new int[layout.tasks.size()];
+    Arrays.fill(stages, -1);
+    for (int stage = 0; stage < schedule.size(); stage++) {
+      for (val task : schedule.get(stage).getTasks()) {
+        val id = ids.get(task.getValue());
+        if (id != null) {
+          stages[id] = stage;
+        }
+      }
+    }
+    return new ProcessPlan(stages, schedule.size());
+  }
+
+  /** @return the plan of process, scheduled by the process itself */
+  public static <T> Binding plan(Process<T> process) {
+    val layout = layoutOf(process.getExecutionGraph());
+    return compile(layout, process.getTasks()).bind(layout);
+  }
+
+  /**
+   * @param layout a layout of this plan's shape
+   * @return this plan's stages, holding layout's tasks
+   */
+  public Binding bind(Layout layout) {
+    val tasks = layout.tasks;
+    val result = new ArrayList<List<Task>>(stageCount);
+    for (int i = 0; i < stageCount; i++) {
+      result.add(new ArrayList<>());
+    }
+    for (int i = 0; i < tasks.size(); i++) {
+      if (stages[i] >= 0) {
+        result.get(stages[i]).add(tasks.get(i));
+      }
+    }
+    return new Binding(this, layout, result);
+  }
+
+  /**
+   * the structure of a task graph: the class of each vertex and the edges between them, by
+   * position. Two graphs of equal shape are scheduled alike
+   */
+  public static final class Shape {
+    private final Class<?>[] kinds;
+
+    /** pairs of vertex positions, source first */
+    private final int[] edges;
+
+    private final int hash;
+
+    Shape(Class<?>[] kinds, int[] edges) {
+      this.kinds = kinds;
+      this.edges = edges;
+      this.hash = 31 * Arrays.hashCode(kinds) + Arrays.hashCode(edges);
+    }
+
+    @Override
+    public boolean equals(Object o) {
+      if (this == o) {
+        return true;
+      }
+      if (!(o instanceof Shape)) {
+        return false;
+      }
+      val that = (Shape) o;
+      return hash == that.hash
+          && Arrays.equals(kinds, that.kinds)
+          && Arrays.equals(edges, that.edges);
+    }
+
+    @Override
+    public int hashCode() {
+      return hash;
+    }
+  }
+
+  /** a task graph's vertices in order, with its shape */
+  public static final class Layout {
+    final Shape shape;
+    final List<Task> tasks;
+
+    Layout(Shape shape, List<Task> tasks) {
+      this.shape = shape;
+      this.tasks = tasks;
+    }
+
+    public Shape getShape() {
+      return shape;
+    }
+  }
+
+  /** a plan bound to the tasks of one graph */
+  public static final class Binding {
+    private final ProcessPlan plan;
+    private final Layout layout;
+    private final List<List<Task>> stages;
+
+    Binding(ProcessPlan plan, Layout layout, List<List<Task>> stages) {
+      this.plan = plan;
+      this.layout = layout;
+      this.stages = stages;
+    }
+
+    /** @return the tasks of every stage, in order. A stage may be empty */
+    public List<List<Task>> getStages() {
+      return Collections.unmodifiableList(stages);
+    }
+
+    /** @return the graph's tasks, by vertex position */
+    public List<Task> getTasks() {
+      return Collections.unmodifiableList(layout.tasks);
+    }
+
+    /** @return the stage of the vertex at position, or -1 if it is not scheduled */
+    public int getStage(int position) {
+      return plan.stages[position];
+    }
+
+    public int getEdgeCount() {
+      return layout.shape.edges.length >> 1;
+    }
+
+    /** @return the position of the i-th edge's source */
+    public int getSource(int i) {
+      return layout.shape.edges[i << 1];
+    }
+
+    /** @return the position of the i-th edge's target */
+    public int getTarget(int i) {
+      return layout.shape.edges[(i << 1) + 1];
+    }
+  }
+}
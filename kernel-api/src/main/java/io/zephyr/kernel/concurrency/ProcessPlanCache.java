@@ -0,0 +1,53 @@
+package io.zephyr.kernel.concurrency;
+
+import io.zephyr.kernel.concurrency.ProcessPlan.Shape;
+import java.util.Map;
+import java.util.concurrent.ConcurrentHashMap;
+
+/**
+ * compiled plans by the shape of the task graph they were compiled for. Task graphs are built from
+ * a dependency graph, so every plan belongs to one version of it: {@link #at(long)} retires them
+ * all once that version has passed. Past its capacity plans are compiled but not retained
+ */
+public final class ProcessPlanCache {
+
+  static final int CAPACITY = 256;
+
+  private final Map<Shape, ProcessPlan> plans;
+
+  /** the version of the dependency graph the cached plans were compiled against */
+  private long version;
+
+  public ProcessPlanCache() {
+    plans = new ConcurrentHashMap<>();
+  }
+
+  /**
+   * @param version the current version of the dependency graph
+   * @return this cache, emptied if version differs from the last one seen
+   */
+  public ProcessPlanCache at(long version) {
+    synchronized (plans) {
+      if (this.version != version) {
+        plans.clear();
+        this.version = version;
+      }
+    }
+    return this;
+  }
+
+  /** @return the plan compiled for shape, or null if there is none */
+  public ProcessPlan get(Shape shape) {
+    return plans.get(shape);
+  }
+
+  public void put(Shape shape, ProcessPlan plan) {
+    if (plans.size() < CAPACITY) {
+      plans.putIfAbsent(shape, plan);
+    }
+  }
+
+  public int size() {
+    return plans.size();
+  }
+}
@@ -40,6 +40,8 @@ public class ModuleDescriptor {
   @NonNull private final List<PathSpecification> exports;
   /** an optional description for this module */
   private final String description;
+  /** the kind of thread this module's task queue runs on */
+  @NonNull private final Module.Threading threading;
 
   public ModuleDescriptor(
       URL location,
@@ -50,6 +52,28 @@ public class ModuleDescriptor {
       List<Dependency> dependencies,
       List<PathSpecification> exports,
       String description) {
+    this(
+        location,
+        order,
+        file,
+        type,
+        coord,
+        dependencies,
+        exports,
+        description,
+        Module.Threading.Default);
+  }
+
+  public ModuleDescriptor(
+      URL location,
+      int order,
+      File file,
+      Type type,
+      Coordinate coord,
+      List<Dependency> dependencies,
+      List<PathSpecification> exports,
+      String description,
+      Module.Threading threading) {
     this.type = type;
     this.order = order;
     this.source = location;
@@ -58,6 +82,7 @@ public class ModuleDescriptor {
     this.exports = exports;
     this.description = description;
     this.dependencies = dependencies;
+    this.threading = threading;
   }
 
   public static final class Attributes {
@@ -85,5 +110,8 @@ public class ModuleDescriptor {
 
     /** corresponds to ModuleDescriptor.exports */
     public static final String EXPORTS = "exports";
+
+    /** corresponds to ModuleDescriptor.threading */
+    public static final String THREADING = "threading";
   }
 }
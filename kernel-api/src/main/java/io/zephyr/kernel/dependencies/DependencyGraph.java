@@ -55,6 +55,9 @@ public interface DependencyGraph extends Iterable<Module> {
   /** @return the size of this graph */
   int size();
 
+  /** @return a number that changes whenever a module is added to or removed from this graph */
+  long getVersion();
+
   /**
    * @param module
    * @return an unsatisified dependency set
@@ -94,6 +97,27 @@ public interface DependencyGraph extends Iterable<Module> {
    */
   Set<Module> getDependencies(Coordinate coordinate);
 
+  /**
+   * @param coordinate the coordinate to get all of the transitive dependencies for
+   * @return every coordinate that coordinate depends on, directly or not. This is read from a
+   *     maintained closure and does not traverse the graph
+   */
+  Set<Coordinate> getTransitiveDependencies(Coordinate coordinate);
+
+  /**
+   * @param coordinate the coordinate to get all of the transitive dependents for
+   * @return every coordinate that depends on coordinate, directly or not. This is read from a
+   *     maintained closure and does not traverse the graph
+   */
+  Set<Coordinate> getTransitiveDependents(Coordinate coordinate);
+
+  /**
+   * @param dependent the coordinate that may depend on dependency
+   * @param dependency the coordinate that may be depended on
+   * @return true if dependent depends on dependency, directly or not
+   */
+  boolean dependsOn(Coordinate dependent, Coordinate dependency);
+
   /**
    * @param coordinate the coordinate to check for membership in this graph
    * @return true if coordinate exists in this graph (i.e. if and only if add() has been called on
@@ -103,5 +127,11 @@ public interface DependencyGraph extends Iterable<Module> {
 
   Partition<DirectedGraph.Edge<Coordinate>, Coordinate> computeCycles();
 
+  /**
+   * @param modules the modules to check. This graph is not modified
+   * @return the cycles adding modules to this graph would create
+   */
+  Partition<DirectedGraph.Edge<Coordinate>, Coordinate> computeCycles(Collection<Module> modules);
+
   DependencyGraph clone();
 }
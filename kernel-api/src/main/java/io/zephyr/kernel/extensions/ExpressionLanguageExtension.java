@@ -1,6 +1,7 @@
 package io.zephyr.kernel.extensions;
 
 import io.zephyr.api.Query;
+import io.zephyr.api.QueryPlan;
 import java.util.function.Predicate;
 
 public interface ExpressionLanguageExtension {
@@ -8,4 +9,15 @@ public interface ExpressionLanguageExtension {
   <T> boolean supports(Query<T> query);
 
   <T> Predicate<T> createPredicate(Query<T> query);
+
+  /**
+   * split a query into a service-type term and a residual predicate. Languages that cannot extract
+   * a term need not override this
+   *
+   * @param query the query to plan
+   * @return a plan equivalent to {@link #createPredicate(Query)}
+   */
+  default <T> QueryPlan<T> createPlan(Query<T> query) {
+    return QueryPlan.unplanned(createPredicate(query));
+  }
 }
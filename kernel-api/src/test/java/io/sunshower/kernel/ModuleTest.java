@@ -42,4 +42,30 @@ class ModuleTest {
         Module.Type.Plugin,
         "module type of plugin must parse to plugin");
   }
+
+  @Test
+  void ensureMissingThreadingParsesToDefault() {
+    assertEquals(
+        Module.Threading.Default,
+        Module.Threading.parse(null),
+        "missing threading must parse to default");
+  }
+
+  @Test
+  void ensureVirtualThreadingParsesCaseInsensitively() {
+    assertEquals(
+        Module.Threading.Virtual,
+        Module.Threading.parse(" Virtual "),
+        "threading must parse case-insensitively");
+  }
+
+  @Test
+  void ensureInvalidThreadingResultsInIllegalArgumentException() {
+    assertThrows(
+        IllegalArgumentException.class,
+        () -> {
+          Module.Threading.parse("green");
+        },
+        "invalid threading must throw illegalargumentexception");
+  }
 }
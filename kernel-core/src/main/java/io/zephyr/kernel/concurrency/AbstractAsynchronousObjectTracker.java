@@ -5,6 +5,7 @@ import io.sunshower.lang.events.Event;
 import io.sunshower.lang.events.EventListener;
 import io.sunshower.lang.events.EventSource;
 import io.sunshower.lang.events.EventType;
+import io.sunshower.lang.events.Events;
 import io.zephyr.api.Tracker;
 import io.zephyr.kernel.Module;
 import io.zephyr.kernel.TaskQueue;
@@ -14,11 +15,22 @@ import java.util.BitSet;
 import java.util.Collection;
 import java.util.Collections;
 import java.util.List;
+import java.util.Map;
+import java.util.Queue;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.ConcurrentLinkedQueue;
+import java.util.concurrent.CountDownLatch;
 import java.util.function.Predicate;
 import lombok.AllArgsConstructor;
 import lombok.val;
 
-@SuppressWarnings({"PMD.DoNotUseThreads"})
+/**
+ * tracks the objects that pass a filter. Tracked objects are indexed by identity, each with the
+ * set of event types it has been seen with, so handling an event is a hash lookup rather than a
+ * scan of everything tracked. Waiters are bucketed by the event type they wait for and are only
+ * woken once their condition holds
+ */
+@SuppressWarnings({"PMD.DoNotUseThreads", "PMD.AvoidUsingVolatile"})
 public abstract class AbstractAsynchronousObjectTracker<T> implements Tracker<T>, EventListener<T> {
 
   /** immutable state */
@@ -32,7 +44,24 @@ public abstract class AbstractAsynchronousObjectTracker<T> implements Tracker<T>
 
   private final List<EventSetTracker> eventSets;
   private final Runnable existingObjectDispatchTask;
-  private final List<ObjectEventDispatchState<T>> tracked;
+
+  /** tracked objects by identity */
+  private final Map<Identity, ObjectEventDispatchState<T>> tracked;
+
+  /** the same objects, in the order they were first tracked */
+  private final Queue<ObjectEventDispatchState<T>> trackingOrder;
+
+  /** waiters by the id of the event type they wait for. Guarded by itself */
+  private final List<List<Waiter>> waiters;
+
+  /** waiters for any event type. Guarded by waiters */
+  private final List<Waiter> anyEventWaiters;
+
+  /**
+   * lets tracking skip the waiter lock while nobody waits. Written under waiters, before a new
+   * waiter tests its condition, and read after the tracked object is published
+   */
+  private volatile int waiterCount;
 
   public AbstractAsynchronousObjectTracker(
       Kernel kernel, Module host, TaskQueue taskQueue, Predicate<T> filter) {
@@ -40,7 +69,10 @@ public abstract class AbstractAsynchronousObjectTracker<T> implements Tracker<T>
     this.kernel = kernel;
     this.filter = filter;
     this.taskQueue = taskQueue;
-    this.tracked = new ArrayList<>(0);
+    this.tracked = new ConcurrentHashMap<>();
+    this.trackingOrder = new ConcurrentLinkedQueue<>();
+    this.waiters = new ArrayList<>(0);
+    this.anyEventWaiters = new ArrayList<>(0);
     this.eventSets = new ArrayList<>(0);
     this.delegatedEventSource = new ObjectThreadEventSource();
     this.existingObjectDispatchTask = createExistingObjectDispatcher();
@@ -48,9 +80,62 @@ public abstract class AbstractAsynchronousObjectTracker<T> implements Tracker<T>
 
   protected abstract Runnable createExistingObjectDispatcher();
 
+  /**
+   * runs on the publishing thread. Events for the host, for objects the filter rejects and for
+   * objects already tracked with this type are discarded here, so only events this tracker will
+   * deliver cost a hop onto its task queue
+   */
   @Override
+  @SuppressWarnings({"PMD.CompareObjectsWithEquals", "unchecked"})
   public void onEvent(EventType type, Event<T> event) {
-    taskQueue.schedule(new FilteredObjectDispatchTask(type, event));
+    val elementType = getElementType(type);
+    if (elementType != null) {
+      onBatch(elementType, (List<T>) event.getTarget());
+      return;
+    }
+    val target = event.getTarget();
+    if (isCandidate(type, target)) {
+      taskQueue.schedule(new FilteredObjectDispatchTask(type, event, true));
+    }
+  }
+
+  /**
+   * @param type an event type this tracker listens for
+   * @return the event type whose batches the kernel dispatches in place of individual events of
+   *     type, or null if there is none
+   */
+  protected EventType getBatchType(EventType type) {
+    return null;
+  }
+
+  /**
+   * @param type an event type
+   * @return the event type of each element of a batch of type, or null if type is not a batch type
+   */
+  protected EventType getElementType(EventType type) {
+    return null;
+  }
+
+  /** a batch costs a single hop onto the task queue; listeners still see one event per element */
+  @SuppressWarnings("PMD.DataflowAnomalyAnalysis")
+  private void onBatch(EventType type, List<T> targets) {
+    List<T> accepted = null;
+    for (val target : targets) {
+      if (isCandidate(type, target)) {
+        if (accepted == null) {
+          accepted = new ArrayList<>(targets.size());
+        }
+        accepted.add(target);
+      }
+    }
+    if (accepted != null) {
+      taskQueue.schedule(new BatchDispatchTask(type, accepted));
+    }
+  }
+
+  @SuppressWarnings("PMD.CompareObjectsWithEquals")
+  private boolean isCandidate(EventType type, T target) {
+    return target != host && !isTracked(type, target) && filter.test(target);
   }
 
   @Override
@@ -77,10 +162,7 @@ public abstract class AbstractAsynchronousObjectTracker<T> implements Tracker<T>
   }
 
   private void fireExistingModuleEvents() {
-    synchronized (tracked) {
-      taskQueue.schedule(existingObjectDispatchTask);
-      tracked.notifyAll();
-    }
+    taskQueue.schedule(existingObjectDispatchTask);
   }
 
   @Override
@@ -135,13 +217,11 @@ public abstract class AbstractAsynchronousObjectTracker<T> implements Tracker<T>
 
   @Override
   public List<T> getTracked() {
-    synchronized (tracked) {
-      val results = new ArrayList<T>(tracked.size());
-      for (val module : tracked) {
-        results.add(module.object);
-      }
-      return results;
+    val results = new ArrayList<T>(tracked.size());
+    for (val state : trackingOrder) {
+      results.add(state.object);
     }
+    return results;
   }
 
   @Override
@@ -151,53 +231,102 @@ public abstract class AbstractAsynchronousObjectTracker<T> implements Tracker<T>
 
   @Override
   public void waitUntil(Predicate<? super Collection<T>> condition) {
-    for (; ; ) {
-      synchronized (tracked) {
-        try {
-          while (!condition.test(getTracked())) {
-            tracked.wait();
-          }
-          return;
-        } catch (InterruptedException ex) {
-        }
+    waitUntil(null, condition);
+  }
+
+  /**
+   * conditions are evaluated by the thread that tracks an object, each time an object is tracked
+   * with an event of type (or of any type, if type is null), until one holds. The waiter is counted
+   * before the condition is first tested: an object tracked after that test sees the count and
+   * releases the waiter, and one tracked before it is in the snapshot the test sees
+   */
+  @Override
+  public void waitUntil(EventType type, Predicate<? super Collection<T>> condition) {
+    val waiter = new Waiter(condition);
+    synchronized (waiters) {
+      val bucket = bucket(type);
+      bucket.add(waiter);
+      waiterCount++;
+      if (condition.test(getTracked())) {
+        bucket.remove(waiter);
+        waiterCount--;
+        return;
       }
     }
+    waiter.await();
   }
 
-  @SuppressWarnings("PMD.DataflowAnomalyAnalysis")
-  private void track(EventType events, T object) {
-    synchronized (tracked) {
-      boolean found = false;
-      for (val trackedModule : tracked) {
-        if (trackedModule.object == object) {
-          trackedModule.set(events);
-          found = true;
-          break;
-        }
+  private void track(EventType type, T object) {
+    val key = new Identity(object);
+    ObjectEventDispatchState<T> state = tracked.get(key);
+    if (state == null) {
+      val created = new ObjectEventDispatchState<T>(object);
+      state = tracked.putIfAbsent(key, created);
+      if (state == null) {
+        state = created;
+        trackingOrder.add(created);
       }
-      if (!found) {
-        val trackedModule = new ObjectEventDispatchState<T>(object);
-        trackedModule.set(events);
-        tracked.add(trackedModule);
-      }
-      tracked.notifyAll();
+    }
+    state.set(type);
+    if (waiterCount > 0) {
+      release(type);
     }
   }
 
   private boolean isTracked(EventType type, T target) {
-    synchronized (tracked) {
-      for (val trackedObject : tracked) {
+    val state = tracked.get(new Identity(target));
+    return state != null && state.hasFired(type);
+  }
 
-        if (target == trackedObject.object && trackedObject.hasFired(type)) {
-          return true;
-        }
+  /** wake the waiters for type whose condition now holds */
+  private void release(EventType type) {
+    synchronized (waiters) {
+      val id = type.getId();
+      val typed = id < waiters.size() ? waiters.get(id) : null;
+      if ((typed == null || typed.isEmpty()) && anyEventWaiters.isEmpty()) {
+        return;
+      }
+      val snapshot = getTracked();
+      if (typed != null) {
+        release(typed, snapshot);
       }
-      return false;
+      release(anyEventWaiters, snapshot);
     }
   }
 
+  /** must hold waiters */
+  private void release(List<Waiter> bucket, List<T> snapshot) {
+    val iterator = bucket.iterator();
+    while (iterator.hasNext()) {
+      val waiter = iterator.next();
+      if (waiter.condition.test(snapshot)) {
+        iterator.remove();
+        waiterCount--;
+        waiter.latch.countDown();
+      }
+    }
+  }
+
+  /** must hold waiters */
+  private List<Waiter> bucket(EventType type) {
+    if (type == null) {
+      return anyEventWaiters;
+    }
+    val id = type.getId();
+    while (waiters.size() <= id) {
+      waiters.add(null);
+    }
+    List<Waiter> bucket = waiters.get(id);
+    if (bucket == null) {
+      bucket = new ArrayList<>(1);
+      waiters.set(id, bucket);
+    }
+    return bucket;
+  }
+
   static final class ObjectThreadEventSource extends AbstractEventSource {}
 
+  /** the events an object has been tracked with. BitSet is not thread-safe, so access is locked */
   static final class ObjectEventDispatchState<T> {
 
     final T object;
@@ -209,15 +338,71 @@ public abstract class AbstractAsynchronousObjectTracker<T> implements Tracker<T>
     }
 
     void set(EventType events) {
-      this.events.set(events.getId());
+      synchronized (this.events) {
+        this.events.set(events.getId());
+      }
     }
 
     void clear(EventType events) {
-      this.events.clear(events.getId());
+      synchronized (this.events) {
+        this.events.clear(events.getId());
+      }
     }
 
     boolean hasFired(EventType events) {
-      return this.events.get(events.getId());
+      synchronized (this.events) {
+        return this.events.get(events.getId());
+      }
+    }
+  }
+
+  /** compares the object it wraps by identity */
+  static final class Identity {
+    final Object object;
+
+    Identity(Object object) {
+      this.object = object;
+    }
+
+    @Override
+    public int hashCode() {
+      return System.identityHashCode(object);
+    }
+
+    @Override
+    @SuppressWarnings("PMD.CompareObjectsWithEquals")
+    public boolean equals(Object o) {
+      return o instanceof Identity && ((Identity) o).object == object;
+    }
+  }
+
+  final class Waiter {
+    final Predicate<? super Collection<T>> condition;
+    final CountDownLatch latch;
+
+    Waiter(Predicate<? super Collection<T>> condition) {
+      this.condition = condition;
+      this.latch = new CountDownLatch(1);
+    }
+
+    /** waits uninterruptibly, as waitUntil always has, but preserves the interrupt */
+    @SuppressWarnings("PMD.EmptyCatchBlock")
+    void await() {
+      boolean interrupted = false;
+      try {
+        for (; ; ) {
+          try {
+            latch.await();
+            return;
+          } catch (InterruptedException ex) {
+            interrupted = true;
+          }
+        }
+      } finally {
+        if (interrupted) {
+          Thread.currentThread().interrupt();
+        }
+      }
     }
   }
 
@@ -230,7 +415,19 @@ public abstract class AbstractAsynchronousObjectTracker<T> implements Tracker<T>
 
     void start() {
       delegatedEventSource.addEventListener(listener, options, types);
-      kernel.addEventListener(AbstractAsynchronousObjectTracker.this, types);
+      kernel.addEventListener(AbstractAsynchronousObjectTracker.this, withBatchTypes());
+    }
+
+    private EventType[] withBatchTypes() {
+      val result = new ArrayList<EventType>(types.length * 2);
+      for (val type : types) {
+        result.add(type);
+        val batchType = getBatchType(type);
+        if (batchType != null) {
+          result.add(batchType);
+        }
+      }
+      return result.toArray(new EventType[0]);
     }
 
     void stop() {
@@ -245,9 +442,17 @@ public abstract class AbstractAsynchronousObjectTracker<T> implements Tracker<T>
     final EventType type;
     final Event<T> event;
 
+    /** true if the publisher already applied the filter */
+    final boolean filtered;
+
     FilteredObjectDispatchTask(EventType type, Event<T> event) {
+      this(type, event, false);
+    }
+
+    FilteredObjectDispatchTask(EventType type, Event<T> event, boolean filtered) {
       this.type = type;
       this.event = event;
+      this.filtered = filtered;
     }
 
     @Override
@@ -255,11 +460,32 @@ public abstract class AbstractAsynchronousObjectTracker<T> implements Tracker<T>
     public void run() {
       val target = event.getTarget();
       if (!(target == host || isTracked(type, target))) {
-        if (filter.test(target)) {
+        if (filtered || filter.test(target)) {
           track(type, target);
           dispatchEvent(type, event);
         }
       }
     }
   }
+
+  final class BatchDispatchTask implements Runnable {
+
+    final EventType type;
+    final List<T> targets;
+
+    BatchDispatchTask(EventType type, List<T> targets) {
+      this.type = type;
+      this.targets = targets;
+    }
+
+    @Override
+    public void run() {
+      for (val target : targets) {
+        if (!isTracked(type, target)) {
+          track(type, target);
+          dispatchEvent(type, Events.create(target));
+        }
+      }
+    }
+  }
 }
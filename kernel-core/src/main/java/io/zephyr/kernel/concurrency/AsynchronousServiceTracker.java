@@ -1,6 +1,7 @@
 package io.zephyr.kernel.concurrency;
 
 import io.sunshower.lang.events.EventListener;
+import io.sunshower.lang.events.EventType;
 import io.sunshower.lang.events.Events;
 import io.zephyr.api.ServiceEvents;
 import io.zephyr.api.ServiceReference;
@@ -12,9 +13,7 @@ import io.zephyr.kernel.core.Kernel;
 import java.util.function.Predicate;
 import lombok.val;
 
-@SuppressWarnings({
-  "PMD.DoNotUseThreads",
-})
+@SuppressWarnings({"PMD.DoNotUseThreads", "PMD.CompareObjectsWithEquals"})
 public class AsynchronousServiceTracker
     extends AbstractAsynchronousObjectTracker<ServiceReference<?>>
     implements ServiceTracker, EventListener<ServiceReference<?>> {
@@ -24,6 +23,28 @@ public class AsynchronousServiceTracker
     super(kernel, host, taskQueue, filter);
   }
 
+  @Override
+  protected EventType getBatchType(EventType type) {
+    if (type == ServiceEvents.REGISTERED) {
+      return ServiceEvents.REGISTERED_BATCH;
+    }
+    if (type == ServiceEvents.UNREGISTERED) {
+      return ServiceEvents.UNREGISTERED_BATCH;
+    }
+    return null;
+  }
+
+  @Override
+  protected EventType getElementType(EventType type) {
+    if (type == ServiceEvents.REGISTERED_BATCH) {
+      return ServiceEvents.REGISTERED;
+    }
+    if (type == ServiceEvents.UNREGISTERED_BATCH) {
+      return ServiceEvents.UNREGISTERED;
+    }
+    return null;
+  }
+
   @Override
   protected Runnable createExistingObjectDispatcher() {
     return new ExistingModuleScanningDispatcher();
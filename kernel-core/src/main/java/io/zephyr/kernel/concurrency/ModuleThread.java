@@ -19,14 +19,16 @@ import io.zephyr.kernel.status.Status;
 import io.zephyr.kernel.status.StatusType;
 import java.util.Map;
 import java.util.ServiceConfigurationError;
-import java.util.concurrent.BlockingQueue;
 import java.util.concurrent.Callable;
 import java.util.concurrent.CompletableFuture;
 import java.util.concurrent.CompletionStage;
 import java.util.concurrent.ConcurrentHashMap;
-import java.util.concurrent.LinkedBlockingQueue;
+import java.util.concurrent.CountDownLatch;
+import java.util.concurrent.RejectedExecutionException;
 import java.util.concurrent.atomic.AtomicBoolean;
 import java.util.concurrent.atomic.AtomicReference;
+import java.util.concurrent.locks.Lock;
+import java.util.concurrent.locks.ReentrantLock;
 import java.util.logging.Level;
 import java.util.logging.Logger;
 import lombok.val;
@@ -44,25 +46,49 @@ public class ModuleThread implements Startable, Stoppable, TaskQueue, Runnable,
   static final Logger log = Logger.getLogger("ModuleThread");
   static final String FAILURE_TEMPLATE = "Failed to start plugin ''{0}''.  Reason: ''{1}''";
 
+  /** the maximum number of tasks run between checks of the running flag */
+  static final int DRAIN_BATCH_SIZE = 64;
+
   final Module module;
 
   final Kernel kernel;
 
   final AtomicBoolean running;
-  final BlockingQueue<Runnable> taskQueue;
+  final MpscTaskQueue<Runnable> taskQueue;
   final AtomicReference<Thread> moduleThread;
   final InheritableThreadLocal<Map<Object, Object>> context;
-  final Object queueLock = new Object();
-  final Object moduleLock = new Object();
+  /**
+   * serializes consumers of the task queue--producers never take it. Neither this nor the start
+   * handshake uses a monitor, so a module running on a virtual thread never pins its carrier while
+   * it runs module code
+   */
+  final Lock drainLock = new ReentrantLock();
+
+  final AtomicReference<CountDownLatch> started;
 
   public ModuleThread(final Module module, final Kernel kernel) {
+    this(module, kernel, Integer.MAX_VALUE, MpscTaskQueue.Overflow.Block);
+  }
+
+  /**
+   * @param module the module to run
+   * @param kernel the kernel
+   * @param capacity the maximum number of outstanding tasks
+   * @param overflow what to do with tasks scheduled while the queue is full
+   */
+  public ModuleThread(
+      final Module module,
+      final Kernel kernel,
+      final int capacity,
+      final MpscTaskQueue.Overflow overflow) {
     if (module.getType() == Module.Type.KernelModule) {
       throw new IllegalStateException("Error: cannot create a module thread for a kernel module");
     }
     this.kernel = kernel;
     this.module = module;
     this.moduleThread = new AtomicReference<>();
-    this.taskQueue = new LinkedBlockingQueue<>();
+    this.started = new AtomicReference<>();
+    this.taskQueue = new MpscTaskQueue<>(capacity, overflow, ModuleThread::reject);
     this.running = new AtomicBoolean(false);
     this.context = new InheritableThreadLocal<>();
     context.set(new ConcurrentHashMap<>());
@@ -75,21 +101,10 @@ public class ModuleThread implements Startable, Stoppable, TaskQueue, Runnable,
       log.log(Level.INFO, "Module thread {0} is not running", Thread.currentThread().getName());
       return;
     }
-    synchronized (queueLock) {
-      running.set(false);
-      queueLock.notifyAll();
-      while (running.get()) {
-        try {
-          synchronized (moduleLock) {
-            moduleLock.wait();
-          }
-        } catch (InterruptedException ex) {
-          log.log(Level.INFO, "interrupted", ex);
-          break;
-        }
-      }
-      doStop();
-    }
+    running.set(false);
+    taskQueue.close();
+    taskQueue.wake();
+    doStop();
     log.log(
         Level.INFO, "Successfully stopped module thread: {0}", Thread.currentThread().getName());
   }
@@ -100,18 +115,27 @@ public class ModuleThread implements Startable, Stoppable, TaskQueue, Runnable,
       log.info("Module thread {0} is already running");
       return;
     }
-    synchronized (moduleLock) {
-      val thread = new Thread(this, "module-" + module.getCoordinate().toCanonicalForm());
-      moduleThread.set(thread);
-      thread.start();
-      try {
-        moduleLock.wait();
-      } catch (InterruptedException ex) {
-        log.log(Level.INFO, "module thread interrupted", ex);
-      }
+    val latch = new CountDownLatch(1);
+    started.set(latch);
+    val thread = newThread(this, "module-" + module.getCoordinate().toCanonicalForm());
+    moduleThread.set(thread);
+    thread.start();
+    try {
+      latch.await();
+    } catch (InterruptedException ex) {
+      log.log(Level.INFO, "module thread interrupted", ex);
     }
   }
 
+  /**
+   * @param task the module's run loop
+   * @param name the name of the module's thread
+   * @return the unstarted thread the module runs on
+   */
+  protected Thread newThread(Runnable task, String name) {
+    return new Thread(task, name);
+  }
+
   @Override
   public int getOutstandingTasks() {
     return taskQueue.size();
@@ -119,65 +143,65 @@ public class ModuleThread implements Startable, Stoppable, TaskQueue, Runnable,
 
   @Override
   public <T> CompletionStage<T> schedule(Callable<T> task) {
-    synchronized (queueLock) {
-      val result = new TaskQueueCallable<>(task);
-      taskQueue.offer(result);
-      queueLock.notifyAll();
-      return result;
-    }
+    final TaskQueueCallable<T> result = new TaskQueueCallable<>(task);
+    enqueue(result, result);
+    return result;
   }
 
   @Override
   public CompletionStage<Void> schedule(Runnable task) {
-    synchronized (queueLock) {
-      val result = new TaskQueueRunnable(task);
-      taskQueue.offer(task);
-      queueLock.notifyAll();
-
-      if (!(running.get() || hasAllowedSchedulingState())) {
-        log.log(
-            Level.WARNING,
-            "Attempting to schedule a task on a {0} module.  Draining immediately",
-            module.getLifecycle().getState());
-        drainQueue();
-      }
-      return result;
+    val result = new TaskQueueRunnable(task);
+    if (enqueue(result, result) && !(running.get() || hasAllowedSchedulingState())) {
+      log.log(
+          Level.WARNING,
+          "Attempting to schedule a task on a {0} module.  Draining immediately",
+          module.getLifecycle().getState());
+      drainQueue();
     }
+    return result;
   }
 
   @Override
   public void run() {
+    taskQueue.bind(Thread.currentThread());
     performStart();
     while (running.get()) {
+      drainLock.lock();
       try {
-        while (!taskQueue.isEmpty()) {
-          val runnable = taskQueue.take();
-          runnable.run();
-        }
-        synchronized (queueLock) {
-          queueLock.wait();
+        taskQueue.drain(ModuleThread::runTask, DRAIN_BATCH_SIZE);
+      } finally {
+        drainLock.unlock();
+      }
+      if (running.get()) {
+        taskQueue.await();
+        if (Thread.interrupted()) {
+          log.log(Level.INFO, "module interrupted");
         }
-      } catch (InterruptedException ex) {
-        log.log(Level.INFO, "module interrupted", ex);
       }
     }
     finalizeModule();
   }
 
-  private void finalizeModule() {
-    synchronized (moduleLock) {
-      moduleLock.notifyAll();
+  private boolean enqueue(Runnable task, CompletableFuture<?> result) {
+    try {
+      taskQueue.offer(task);
+      return true;
+    } catch (RejectedExecutionException ex) {
+      result.completeExceptionally(ex);
+      return false;
     }
   }
 
+  private void finalizeModule() {
+    started.get().countDown();
+  }
+
   private void performStart() {
-    synchronized (moduleLock) {
-      running.set(true);
-      try {
-        doStart();
-      } finally { // don't hang if an exception is thrown
-        moduleLock.notifyAll();
-      }
+    running.set(true);
+    try {
+      doStart();
+    } finally { // don't hang if an exception is thrown
+      started.get().countDown();
     }
   }
 
@@ -318,11 +342,28 @@ public class ModuleThread implements Startable, Stoppable, TaskQueue, Runnable,
   }
 
   private void drainQueue() {
-    synchronized (queueLock) {
-      while (!taskQueue.isEmpty()) {
-        val task = taskQueue.poll();
-        task.run();
-      }
+    drainLock.lock();
+    try {
+      taskQueue.drain(ModuleThread::runTask, Integer.MAX_VALUE);
+    } finally {
+      drainLock.unlock();
+    }
+  }
+
+  private static void runTask(Runnable task) {
+    try {
+      task.run();
+    } catch (Throwable ex) {
+      log.log(Level.WARNING, "Module task failed: {0}", ex.getMessage());
+      log.log(Level.FINE, "Reason: ", ex);
+    }
+  }
+
+  private static void reject(Runnable task) {
+    if (task instanceof CompletableFuture) {
+      ((CompletableFuture<?>) task)
+          .completeExceptionally(
+              new RejectedExecutionException("Task dropped: module task queue overflowed"));
     }
   }
 
@@ -348,8 +389,13 @@ public class ModuleThread implements Startable, Stoppable, TaskQueue, Runnable,
 
     @Override
     public void run() {
-      delegate.run();
-      complete(null);
+      try {
+        delegate.run();
+        complete(null);
+      } catch (RuntimeException ex) {
+        completeExceptionally(ex);
+        throw ex;
+      }
     }
   }
 
@@ -374,6 +420,7 @@ public class ModuleThread implements Startable, Stoppable, TaskQueue, Runnable,
       try {
         call();
       } catch (Exception ex) {
+        completeExceptionally(ex);
         throw new RuntimeException(ex);
       }
     }
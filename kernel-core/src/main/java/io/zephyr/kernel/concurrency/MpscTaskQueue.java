@@ -0,0 +1,254 @@
+package io.zephyr.kernel.concurrency;
+
+import java.util.concurrent.RejectedExecutionException;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicInteger;
+import java.util.concurrent.atomic.AtomicReference;
+import java.util.concurrent.locks.LockSupport;
+import java.util.function.Consumer;
+import lombok.NonNull;
+import lombok.val;
+
+/**
+ * lock-free, optionally bounded, multi-producer single-consumer queue (an intrusive linked queue in
+ * the style of Vyukov). Producers only ever swap the tail; the consumer owns the head, drains in
+ * batches and parks while the queue is empty. Producers unpark the consumer only if it is actually
+ * waiting, so a busy queue costs no signalling at all.
+ *
+ * <p>Only one thread may consume at a time. Callers that hand consumption between threads are
+ * responsible for serializing it
+ */
+@SuppressWarnings({"PMD.DoNotUseThreads", "PMD.AvoidUsingVolatile"})
+public final class MpscTaskQueue<E> {
+
+  /** what a producer does when the queue is at capacity */
+  public enum Overflow {
+    /**
+     * wait for the consumer to make room. The bound consumer itself never blocks, and once the
+     * queue is closed producers are rejected instead of waiting for a consumer that is gone
+     */
+    Block,
+    /**
+     * accept the element and discard the oldest queued element. This is a soft bound: producers
+     * never touch the consumer's end of the queue, so the discarded elements stay queued (and
+     * counted by {@link #size()}) until the consumer next polls and drops them. Once it has, at
+     * most capacity of the elements offered so far remain
+     */
+    DropOldest,
+    /** reject the element with a {@link RejectedExecutionException} */
+    Fail
+  }
+
+  static final long BLOCK_BACKOFF_NANOS = TimeUnit.MICROSECONDS.toNanos(50);
+
+  private final int capacity;
+  private final Overflow overflow;
+  private final Consumer<? super E> onDrop;
+
+  private final AtomicInteger size;
+  private final AtomicInteger drops;
+  private final AtomicReference<Node<E>> tail;
+
+  /** consumer-owned */
+  private Node<E> head;
+
+  /** the consuming thread, recorded by {@link #bind(Thread)} before it runs anything */
+  private volatile Thread consumer;
+
+  private volatile boolean waiting;
+
+  /** set once the consumer has stopped. A full queue then rejects under every policy */
+  private volatile boolean closed;
+
+  /** create an unbounded queue */
+  public MpscTaskQueue() {
+    this(Integer.MAX_VALUE, Overflow.Block, e -> {});
+  }
+
+  /**
+   * @param capacity the maximum number of queued elements
+   * @param overflow what to do when a producer finds the queue full
+   * @param onDrop invoked (on the consumer) with each element discarded under {@link
+   *     Overflow#DropOldest}
+   */
+  public MpscTaskQueue(
+      int capacity, @NonNull Overflow overflow, @NonNull Consumer<? super E> onDrop) {
+    if (capacity <= 0) {
+      throw new IllegalArgumentException("Capacity must be positive, not " + capacity);
+    }
+    this.capacity = capacity;
+    this.overflow = overflow;
+    this.onDrop = onDrop;
+    this.size = new AtomicInteger();
+    this.drops = new AtomicInteger();
+    this.head = new Node<>(null);
+    this.tail = new AtomicReference<>(head);
+  }
+
+  /**
+   * bind this queue to the thread that consumes it, reopening it if it was closed. Call this on
+   * the consumer before it runs anything that may offer to the queue, so that the consumer never
+   * waits on itself
+   */
+  public void bind(@NonNull Thread consumer) {
+    this.consumer = consumer;
+    closed = false;
+  }
+
+  /**
+   * stop consuming. Producers that find the queue full from now on are rejected rather than
+   * blocked, since nothing may ever make room
+   */
+  public void close() {
+    closed = true;
+  }
+
+  /**
+   * enqueue an element, applying the overflow policy if the queue is full
+   *
+   * @param element the element
+   * @throws RejectedExecutionException if the queue is full and either the policy is {@link
+   *     Overflow#Fail} or the queue is closed, or if a producer blocked under {@link
+   *     Overflow#Block} is interrupted
+   */
+  public void offer(@NonNull E element) {
+    reserve();
+    final Node<E> node = new Node<>(element);
+    tail.getAndSet(node).next = node;
+    if (waiting) {
+      LockSupport.unpark(consumer);
+    }
+  }
+
+  /** @return the next element, or null if the queue is empty. Consumer only */
+  public E poll() {
+    discardDropped();
+    val next = head.next;
+    if (next == null) {
+      return null;
+    }
+    return take(next);
+  }
+
+  /**
+   * hand at most limit elements to the sink, in FIFO order. Consumer only
+   *
+   * @return the number of elements drained
+   */
+  public int drain(Consumer<? super E> sink, int limit) {
+    int count = 0;
+    E next;
+    while (count < limit && (next = poll()) != null) {
+      sink.accept(next);
+      count++;
+    }
+    return count;
+  }
+
+  /**
+   * park the calling (consumer) thread until an element is offered, {@link #wake()} is called, or
+   * the thread is interrupted. Returns immediately if the queue is not empty
+   */
+  public void await() {
+    consumer = Thread.currentThread();
+    waiting = true;
+    try {
+      if (isEmpty()) {
+        LockSupport.park(this);
+      }
+    } finally {
+      waiting = false;
+    }
+  }
+
+  /** wake the consumer if it is parked in {@link #await()} */
+  public void wake() {
+    val current = consumer;
+    if (current != null) {
+      LockSupport.unpark(current);
+    }
+  }
+
+  /**
+   * @return the number of queued elements, including any awaiting discard under {@link
+   *     Overflow#DropOldest}. Never blocks
+   */
+  public int size() {
+    return Math.max(0, size.get());
+  }
+
+  public boolean isEmpty() {
+    return head.next == null;
+  }
+
+  private void reserve() {
+    switch (overflow) {
+      case DropOldest:
+        if (size.incrementAndGet() > capacity) {
+          drops.incrementAndGet();
+        }
+        return;
+      case Fail:
+        if (!tryReserve()) {
+          throw new RejectedExecutionException("Task queue is full (capacity: " + capacity + ")");
+        }
+        return;
+      default:
+        while (!tryReserve()) {
+          if (Thread.currentThread() == consumer) {
+            // the consumer can't wait on itself
+            size.incrementAndGet();
+            return;
+          }
+          if (closed) {
+            throw new RejectedExecutionException("Task queue is closed");
+          }
+          LockSupport.parkNanos(this, BLOCK_BACKOFF_NANOS);
+          if (Thread.interrupted()) {
+            Thread.currentThread().interrupt();
+            throw new RejectedExecutionException("Interrupted waiting for room in task queue");
+          }
+        }
+    }
+  }
+
+  private boolean tryReserve() {
+    for (; ; ) {
+      val current = size.get();
+      if (current >= capacity) {
+        return false;
+      }
+      if (size.compareAndSet(current, current + 1)) {
+        return true;
+      }
+    }
+  }
+
+  private void discardDropped() {
+    while (drops.get() > 0) {
+      val next = head.next;
+      if (next == null) {
+        return;
+      }
+      drops.decrementAndGet();
+      onDrop.accept(take(next));
+    }
+  }
+
+  private E take(Node<E> next) {
+    val result = next.value;
+    next.value = null;
+    head = next;
+    size.decrementAndGet();
+    return result;
+  }
+
+  static final class Node<E> {
+    E value;
+    volatile Node<E> next;
+
+    Node(E value) {
+      this.value = value;
+    }
+  }
+}
@@ -1,15 +1,22 @@
 package io.zephyr.kernel.concurrency;
 
-import java.util.concurrent.CountDownLatch;
+import java.util.concurrent.atomic.AtomicInteger;
 
+/**
+ * non-blocking latch over a single stage of a process. Nothing waits on this latch: the thread that
+ * completes the last task of the stage dispatches the phase-completion event and then runs the
+ * release action, which is responsible for advancing the process
+ */
 public class NotifyingLatch<K> {
 
-  final CountDownLatch latch;
+  final Runnable onRelease;
+  final AtomicInteger remaining;
   final TaskEventDispatcher<K> dispatcher;
 
-  public NotifyingLatch(TaskEventDispatcher<K> dispatcher, int size) {
+  public NotifyingLatch(TaskEventDispatcher<K> dispatcher, int size, Runnable onRelease) {
     this.dispatcher = dispatcher;
-    this.latch = new CountDownLatch(size);
+    this.onRelease = onRelease;
+    this.remaining = new AtomicInteger(size);
   }
 
   void start(Task task) {
@@ -26,21 +33,23 @@ public class NotifyingLatch<K> {
 
   /** should be called between beforeTask() and afterTask() */
   void decrement(Task task) {
-    latch.countDown();
     dispatcher.dispatch(TaskEvents.TASK_COMPLETE, new TaskPhaseEvent(task));
+    countDown();
   }
 
-  void await() throws InterruptedException {
-    try {
-      latch.await();
-    } catch (InterruptedException ex) {
-
-    } finally {
-      dispatcher.dispatch(TaskEvents.TASK_PHASE_COMPLETE, new TaskPhaseEvent(null));
-    }
+  /** count a task that will never run (e.g. it could not be submitted) */
+  void skip() {
+    countDown();
   }
 
   public void onTaskError(Task taskDef, TaskException ex) {
     dispatcher.dispatch(TaskEvents.TASK_ERROR, new TaskPhaseEvent(taskDef, ex));
   }
+
+  private void countDown() {
+    if (remaining.decrementAndGet() == 0) {
+      dispatcher.dispatch(TaskEvents.TASK_PHASE_COMPLETE, new TaskPhaseEvent(null));
+      onRelease.run();
+    }
+  }
 }
@@ -21,6 +21,7 @@ public class ProcessBuilder {
   boolean parallel;
 
   boolean coalesce;
+  boolean dependencyDriven;
   Scope context;
 
   /** mutable state */
@@ -40,6 +41,15 @@ public class ProcessBuilder {
     return this;
   }
 
+  /**
+   * release each task as soon as its own dependencies complete instead of waiting for the whole
+   * preceding stage
+   */
+  public ProcessBuilder dependencyDriven() {
+    this.dependencyDriven = true;
+    return this;
+  }
+
   public ProcessBuilder withContext(Scope ctx) {
     this.context = ctx;
     return this;
@@ -72,10 +82,7 @@ public class ProcessBuilder {
       val deps = dependencies.get(task.name);
       if (deps != null) {
         for (val dependency : deps) {
-          graph.connect(
-              task,
-              dependency,
-              DirectedGraph.incoming(String.format("%s dependsOn %s", task, dependency)));
+          graph.connect(task, dependency, DirectedGraph.incoming(dependency.name));
         }
       }
     }
@@ -85,7 +92,12 @@ public class ProcessBuilder {
     } else {
       context = Scope.root();
     }
-    return new DefaultProcess<>(name, coalesce, parallel, context, graph);
+    final DefaultProcess<String> process =
+        new DefaultProcess<>(name, coalesce, parallel, context, graph);
+    if (dependencyDriven) {
+      process.setCoordination(Process.Coordination.DependencyDriven);
+    }
+    return process;
   }
 
   public TaskBuilder task() {
@@ -0,0 +1,278 @@
+package io.zephyr.kernel.concurrency;
+
+import io.sunshower.lang.events.Event;
+import io.sunshower.lang.events.EventListener;
+import io.sunshower.lang.events.EventSource;
+import io.sunshower.lang.events.EventType;
+import io.zephyr.kernel.events.IndexedEventSource;
+import io.zephyr.kernel.log.Logging;
+import java.util.List;
+import java.util.concurrent.Executor;
+import java.util.concurrent.RejectedExecutionException;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicBoolean;
+import java.util.concurrent.atomic.AtomicLong;
+import java.util.concurrent.atomic.AtomicLongArray;
+import java.util.concurrent.locks.LockSupport;
+import java.util.logging.Level;
+import java.util.logging.Logger;
+import lombok.NonNull;
+import lombok.val;
+
+/**
+ * asynchronous event source backed by a pre-allocated ring buffer.
+ *
+ * <p>Producers claim a sequence with a single compare-and-set on the write cursor, fill the slot
+ * and publish it by advancing that slot's sequence; they never take a lock and never wait on
+ * listeners. A single consumer delivers published events in sequence order, in batches, on a
+ * thread borrowed from the executor: a drain is scheduled only when the buffer goes from idle to
+ * busy, and the consumer gives its thread back once the buffer is empty. Because there is exactly
+ * one consumer and it follows the sequence, events are delivered in dispatch order--in particular,
+ * the order of events of any one type is preserved.
+ *
+ * <p>What a producer does when the buffer is full is governed by {@link Backpressure}. A listener
+ * that dispatches into a full buffer from the consumer thread would wait on itself, so such events
+ * are delivered inline instead, whatever the policy. This is the one exception to dispatch order:
+ * an event delivered inline overtakes every event still buffered, including events of its own
+ * type that were dispatched before it
+ */
+@SuppressWarnings({
+  "PMD.DoNotUseThreads",
+  "PMD.AvoidUsingVolatile",
+  "PMD.DataflowAnomalyAnalysis",
+  "PMD.AvoidFieldNameMatchingMethodName"
+})
+public class RingBufferEventSource implements EventSource {
+
+  static final Logger log = Logging.get(RingBufferEventSource.class, "Concurrency");
+
+  /** the maximum number of events delivered per batch before slots are released to producers */
+  static final int DRAIN_BATCH_SIZE = 256;
+
+  static final long BLOCK_BACKOFF_NANOS = TimeUnit.MICROSECONDS.toNanos(50);
+
+  /**
+   * what a producer does when the buffer is full. Listeners dispatching from the consumer thread
+   * are exempt: their events are delivered inline, ahead of the buffered ones
+   */
+  public enum Backpressure {
+    /** wait for the consumer to make room */
+    Block,
+    /** discard the event being dispatched */
+    Drop,
+    /** reject the event being dispatched with a {@link RejectedExecutionException} */
+    Fail
+  }
+
+  private final int mask;
+  private final Executor executor;
+  private final Backpressure backpressure;
+  private final QueuedEventSource source;
+
+  /**
+   * slot i may be written by the producer holding sequence s iff sequences[i] == s, and read by the
+   * consumer at sequence s iff sequences[i] == s + 1
+   */
+  private final AtomicLongArray sequences;
+
+  private final EventType[] types;
+  private final Event<?>[] events;
+
+  private final AtomicLong cursor;
+  private final AtomicLong dropped;
+  private final AtomicBoolean scheduled;
+  private final Runnable drain;
+
+  /** consumer-owned */
+  private long next;
+
+  private volatile Thread consumer;
+
+  /**
+   * @param executor the executor that lends the consumer its thread
+   * @param capacity the minimum number of buffered events. Rounded up to a power of two, and to at
+   *     least two: a single slot's published sequence would equal its next writable one
+   * @param backpressure what to do with events dispatched while the buffer is full
+   */
+  public RingBufferEventSource(
+      @NonNull Executor executor, int capacity, @NonNull Backpressure backpressure) {
+    if (capacity <= 0 || capacity > 1 << 30) {
+      throw new IllegalArgumentException("Capacity must be in (0, 2^30], not " + capacity);
+    }
+    val size = ceilingPowerOfTwo(Math.max(2, capacity));
+    this.mask = size - 1;
+    this.executor = executor;
+    this.backpressure = backpressure;
+    this.source = new QueuedEventSource();
+    this.types = new EventType[size];
+    this.events = new Event<?>[size];
+    this.sequences = new AtomicLongArray(size);
+    for (int i = 0; i < size; i++) {
+      sequences.set(i, i);
+    }
+    this.cursor = new AtomicLong();
+    this.dropped = new AtomicLong();
+    this.scheduled = new AtomicBoolean();
+    this.drain = this::drain;
+  }
+
+  /** @return the number of slots in the buffer */
+  public int getCapacity() {
+    return mask + 1;
+  }
+
+  /** @return the number of events discarded under {@link Backpressure#Drop} */
+  public long getDroppedEventCount() {
+    return dropped.get();
+  }
+
+  @Override
+  public int getListenerCount() {
+    return source.getListenerCount();
+  }
+
+  @Override
+  public boolean listensFor(EventType... types) {
+    return source.listensFor(types);
+  }
+
+  @Override
+  public <T> void addEventListener(EventListener<T> listener, EventType... types) {
+    addEventListener(listener, EventListener.Options.NONE, types);
+  }
+
+  @Override
+  public <T> void addEventListener(EventListener<T> listener, int options, EventType... types) {
+    source.addEventListener(listener, options, types);
+  }
+
+  @Override
+  public <T> void removeEventListener(EventListener<T> listener) {
+    source.removeEventListener(listener);
+  }
+
+  @Override
+  public List<EventListener<?>> getListeners() {
+    return source.getListeners();
+  }
+
+  /**
+   * enqueue an event for delivery. Never runs listeners on the calling thread, except for an event
+   * dispatched by a listener into a full buffer
+   *
+   * @throws RejectedExecutionException if the buffer is full and the policy is {@link
+   *     Backpressure#Fail}, or if a producer blocked under {@link Backpressure#Block} is
+   *     interrupted
+   */
+  @Override
+  public <T> void dispatchEvent(EventType type, Event<T> event) {
+    for (; ; ) {
+      val sequence = cursor.get();
+      val index = (int) sequence & mask;
+      val available = sequences.get(index) - sequence;
+      if (available == 0) {
+        if (cursor.compareAndSet(sequence, sequence + 1)) {
+          types[index] = type;
+          events[index] = event;
+          // a full store: it must not be reordered with the read of scheduled in signal()
+          sequences.set(index, sequence + 1);
+          signal();
+          return;
+        }
+      } else if (available < 0 && !onFull(type, event)) {
+        return;
+      }
+    }
+  }
+
+  /** @return true if the producer should retry */
+  private <T> boolean onFull(EventType type, Event<T> event) {
+    if (Thread.currentThread() == consumer) {
+      source.deliver(type, event);
+      return false;
+    }
+    switch (backpressure) {
+      case Drop:
+        dropped.incrementAndGet();
+        log.log(Level.FINE, "Event buffer is full--dropping event of type {0}", type);
+        return false;
+      case Fail:
+        throw new RejectedExecutionException(
+            "Event buffer is full (capacity: " + getCapacity() + ")");
+      default:
+        LockSupport.parkNanos(this, BLOCK_BACKOFF_NANOS);
+        if (Thread.interrupted()) {
+          Thread.currentThread().interrupt();
+          throw new RejectedExecutionException("Interrupted waiting for room in event buffer");
+        }
+        return true;
+    }
+  }
+
+  private void signal() {
+    if (!scheduled.get() && scheduled.compareAndSet(false, true)) {
+      try {
+        executor.execute(drain);
+      } catch (RejectedExecutionException ex) {
+        log.log(Level.WARNING, "Event executor rejected drain--delivering inline");
+        drain();
+      }
+    }
+  }
+
+  /**
+   * the consumer. Runs while scheduled is held, so at most one instance runs at a time. The
+   * consumer thread is recorded only while scheduled is held: once it is released another drain
+   * may start and record its own
+   */
+  private void drain() {
+    long last;
+    do {
+      consumer = Thread.currentThread();
+      try {
+        while (deliverBatch() > 0) {
+          // keep delivering
+        }
+      } finally {
+        consumer = null;
+      }
+      last = next;
+      scheduled.set(false);
+    } while (isPublished(last) && scheduled.compareAndSet(false, true));
+  }
+
+  private int deliverBatch() {
+    int count = 0;
+    while (count < DRAIN_BATCH_SIZE && isPublished(next)) {
+      val index = (int) next & mask;
+      val type = types[index];
+      val event = events[index];
+      types[index] = null;
+      events[index] = null;
+      sequences.lazySet(index, next + mask + 1);
+      next++;
+      count++;
+      try {
+        source.deliver(type, event);
+      } catch (Throwable ex) {
+        log.log(Level.WARNING, "Event listener failed: {0}", ex.getMessage());
+        log.log(Level.FINE, "Reason: ", ex);
+      }
+    }
+    return count;
+  }
+
+  private boolean isPublished(long sequence) {
+    return sequences.get((int) sequence & mask) == sequence + 1;
+  }
+
+  static int ceilingPowerOfTwo(int value) {
+    return value == 1 ? 1 : Integer.highestOneBit(value - 1) << 1;
+  }
+
+  static final class QueuedEventSource extends IndexedEventSource {
+    <T> void deliver(EventType type, Event<T> event) {
+      dispatchEvent(type, event);
+    }
+  }
+}
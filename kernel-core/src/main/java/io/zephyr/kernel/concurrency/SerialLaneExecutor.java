@@ -0,0 +1,137 @@
+package io.zephyr.kernel.concurrency;
+
+import io.zephyr.kernel.log.Logging;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.Queue;
+import java.util.concurrent.AbstractExecutorService;
+import java.util.concurrent.ConcurrentLinkedQueue;
+import java.util.concurrent.CountDownLatch;
+import java.util.concurrent.Executor;
+import java.util.concurrent.RejectedExecutionException;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicInteger;
+import java.util.logging.Level;
+import java.util.logging.Logger;
+import lombok.NonNull;
+import lombok.val;
+
+/**
+ * an executor that runs its tasks one at a time, in submission order, on threads borrowed from a
+ * shared executor. A lane owns no thread: while it has work exactly one drain task is scheduled on
+ * the shared executor, and when it runs dry it holds nothing. Lanes are cheap enough to create one
+ * per serial process
+ */
+@SuppressWarnings({"PMD.DoNotUseThreads", "PMD.AvoidUsingVolatile"})
+public final class SerialLaneExecutor extends AbstractExecutorService {
+
+  static final Logger log = Logging.get(SerialLaneExecutor.class, "Concurrency");
+
+  private final Executor delegate;
+  private final Queue<Runnable> tasks;
+  private final Runnable drain;
+
+  /** the number of tasks accepted but not yet run. The lane is scheduled iff this is nonzero */
+  private final AtomicInteger pending;
+
+  private final CountDownLatch terminated;
+  private volatile boolean shutdown;
+
+  /**
+   * orders submissions against shutdown: a task is either enqueued before the lane shuts down, and
+   * counted before termination is decided, or rejected
+   */
+  private final Object lock;
+
+  public SerialLaneExecutor(@NonNull Executor delegate) {
+    this.delegate = delegate;
+    this.drain = this::drain;
+    this.pending = new AtomicInteger();
+    this.terminated = new CountDownLatch(1);
+    this.tasks = new ConcurrentLinkedQueue<>();
+    this.lock = new Object();
+  }
+
+  @Override
+  public void execute(@NonNull Runnable command) {
+    final boolean schedule;
+    synchronized (lock) {
+      if (shutdown) {
+        throw new RejectedExecutionException("Lane has been shut down");
+      }
+      tasks.offer(command);
+      schedule = pending.getAndIncrement() == 0;
+    }
+    if (schedule) {
+      try {
+        delegate.execute(drain);
+      } catch (RejectedExecutionException ex) {
+        tasks.clear();
+        pending.set(0);
+        throw ex;
+      }
+    }
+  }
+
+  @Override
+  public void shutdown() {
+    synchronized (lock) {
+      shutdown = true;
+      terminateIfIdle();
+    }
+  }
+
+  @Override
+  public List<Runnable> shutdownNow() {
+    shutdown();
+    val result = new ArrayList<Runnable>(tasks.size());
+    Runnable next;
+    while ((next = tasks.poll()) != null) {
+      result.add(next);
+    }
+    return result;
+  }
+
+  @Override
+  public boolean isShutdown() {
+    return shutdown;
+  }
+
+  @Override
+  public boolean isTerminated() {
+    return terminated.getCount() == 0;
+  }
+
+  @Override
+  public boolean awaitTermination(long timeout, TimeUnit unit) throws InterruptedException {
+    return terminated.await(timeout, unit);
+  }
+
+  /**
+   * every increment of pending is preceded by an offer, so each iteration either runs the next task
+   * or accounts for one drained by shutdownNow()
+   */
+  private void drain() {
+    do {
+      val next = tasks.poll();
+      if (next != null) {
+        try {
+          next.run();
+        } catch (Throwable ex) {
+          log.log(Level.WARNING, "Task on serial lane failed: {0}", ex.getMessage());
+        }
+      }
+    } while (pending.decrementAndGet() != 0);
+
+    synchronized (lock) {
+      terminateIfIdle();
+    }
+  }
+
+  /** must hold lock, so that no task is accepted between the two reads */
+  private void terminateIfIdle() {
+    if (shutdown && pending.get() == 0) {
+      terminated.countDown();
+    }
+  }
+}
@@ -36,10 +36,7 @@ public class TaskBuilder {
       val deps = processBuilder.dependencies.get(task.name);
       if (deps != null) {
         for (val dependency : deps) {
-          graph.connect(
-              task,
-              dependency,
-              DirectedGraph.incoming(String.format("%s dependsOn %s", task, dependency)));
+          graph.connect(task, dependency, DirectedGraph.incoming(dependency.name));
         }
       }
     }
@@ -49,8 +46,13 @@ public class TaskBuilder {
     } else {
       context = Scope.root();
     }
-    return new DefaultProcess<>(
-        processBuilder.name, processBuilder.coalesce, processBuilder.parallel, context, graph);
+    final DefaultProcess<String> process =
+        new DefaultProcess<>(
+            processBuilder.name, processBuilder.coalesce, processBuilder.parallel, context, graph);
+    if (processBuilder.dependencyDriven) {
+      process.setCoordination(Process.Coordination.DependencyDriven);
+    }
+    return process;
   }
 
   public TaskBuilder dependsOn(Task task) {
@@ -1,14 +1,22 @@
 package io.zephyr.kernel.concurrency;
 
 import io.sunshower.checks.SuppressFBWarnings;
-import io.sunshower.gyre.DirectedGraph;
 import io.sunshower.gyre.Scope;
 import io.zephyr.kernel.concurrency.Process.Mode;
 import io.zephyr.kernel.log.Logging;
+import java.util.ArrayDeque;
 import java.util.ArrayList;
+import java.util.HashMap;
+import java.util.IdentityHashMap;
+import java.util.LinkedHashSet;
+import java.util.List;
+import java.util.Map;
+import java.util.Set;
 import java.util.concurrent.Callable;
+import java.util.concurrent.ConcurrentHashMap;
 import java.util.concurrent.ExecutorService;
-import java.util.concurrent.Executors;
+import java.util.concurrent.atomic.AtomicBoolean;
+import java.util.concurrent.atomic.AtomicInteger;
 import java.util.logging.Level;
 import java.util.logging.Logger;
 import lombok.val;
@@ -29,7 +37,9 @@ public class TopologyAwareParallelScheduler<K> {
   }
 
   /**
-   * this method does not block
+   * this method does not block, and no thread is held on behalf of the process while its tasks
+   * run: stages are advanced by the thread that completes the last task of the preceding stage,
+   * and the returned tracker completes on the thread that completes the last task
    *
    * @param process process to submit
    * @param context
@@ -37,7 +47,12 @@ public class TopologyAwareParallelScheduler<K> {
    */
   public TaskTracker<K> submit(Process<K> process, Scope context) {
     log.log(Level.INFO, "parallel.scheduler.schedulingtask", process);
-    val result = new StagedScheduleEnqueuer(process, context);
+    final ProcessEnqueuer result;
+    if (process.getCoordination() == Process.Coordination.DependencyDriven) {
+      result = new DependencyDrivenEnqueuer(process, context);
+    } else {
+      result = new StagedScheduleEnqueuer(process, context);
+    }
     workerPool.submit(
         () -> {
           result.run();
@@ -48,28 +63,23 @@ public class TopologyAwareParallelScheduler<K> {
     return result;
   }
 
-  private static class NotifyingTask<K> implements Callable<Object>, Scope {
+  private static class NotifyingTask<K> implements Callable<Object> {
 
     private final Scope scope;
     private final NotifyingLatch<K> latch;
-    private final io.sunshower.gyre.Task<DirectedGraph.Edge<K>, Task> task;
+    private final Task task;
 
-    public NotifyingTask(
-        io.sunshower.gyre.Task<DirectedGraph.Edge<K>, Task> task,
-        NotifyingLatch<K> latch,
-        final Scope scope) {
+    public NotifyingTask(Task task, NotifyingLatch<K> latch, final Scope scope) {
       this.task = task;
       this.latch = latch;
       this.scope = scope;
     }
 
     @Override
-    @SuppressWarnings("unchecked")
     public Object call() throws Exception {
-      val taskDef = task.getValue();
       try {
-        latch.beforeTask(taskDef);
-        val result = task.getValue().run(this);
+        latch.beforeTask(task);
+        val result = task.run(scope);
         if (result != null) {
           return result.value;
         }
@@ -77,55 +87,37 @@ public class TopologyAwareParallelScheduler<K> {
       } catch (TaskException ex) {
 
         if (ex.getStatus() == TaskStatus.UNRECOVERABLE) {
-          task.getValue().setState(Task.State.Failed);
+          task.setState(Task.State.Failed);
         } else {
-          task.getValue().setState(Task.State.Warning);
+          task.setState(Task.State.Warning);
         }
-        latch.onTaskError(taskDef, ex);
+        latch.onTaskError(task, ex);
         return null;
       } catch (Throwable ex) {
         if (log.isLoggable(Level.INFO)) {
-          log.log(Level.INFO, "Error processing task " + task.getValue().getName(), ex);
+          log.log(Level.INFO, "Error processing task " + task.getName(), ex);
         }
         return null;
       } finally {
-        latch.afterTask(taskDef);
-        latch.decrement(taskDef);
-      }
-    }
-
-    @Override
-    public <T> void set(String name, T value) {
-      val tscope = task.getScope();
-      tscope.set(name, value);
-    }
-
-    @Override
-    @SuppressWarnings("unchecked")
-    public <T> T get(String name) {
-      val tscope = task.getScope();
-      val result = tscope.get(name);
-      if (result == null) {
-        return scope.get(name);
+        latch.afterTask(task);
+        latch.decrement(task);
+        afterCompletion(task);
       }
-      return (T) result;
     }
 
-    @Override
-    public <E> E computeIfAbsent(String scannedPlugins, E o) {
-      return task.getScope().computeIfAbsent(scannedPlugins, o);
-    }
+    /** called once the task has run and every task event for it has been dispatched */
+    protected void afterCompletion(Task taskDef) {}
   }
 
-  final class StagedScheduleEnqueuer extends DefaultTaskEventDispatcher<K> implements Runnable {
+  abstract class ProcessEnqueuer extends DefaultTaskEventDispatcher<K> implements Runnable {
 
     final Scope context;
     final Process.Mode mode;
     final Process<K> process;
-    private final ExecutorService executor;
+    final ExecutorService executor;
 
     @SuppressWarnings({"unchecked", "rawtypes"})
-    public StagedScheduleEnqueuer(Process<K> process, Scope context) {
+    protected ProcessEnqueuer(Process<K> process, Scope context) {
       this.context = context;
       this.process = process;
       this.mode = process.getMode();
@@ -135,7 +127,7 @@ public class TopologyAwareParallelScheduler<K> {
 
     private ExecutorService getExecutor() {
       if (mode == Mode.SingleThreaded) {
-        return Executors.newSingleThreadExecutor();
+        return new SerialLaneExecutor(workerPool.getKernelExecutor());
       } else if (mode == Mode.UserspaceAllocated) {
         return workerPool.getUserspaceExecutor();
       } else {
@@ -143,48 +135,343 @@ public class TopologyAwareParallelScheduler<K> {
       }
     }
 
+    void attachListeners() {
+      if (process instanceof DefaultProcess) {
+        val proc = (DefaultProcess<K>) process;
+        for (val listener : proc.getListeners()) {
+          addEventListener(listener.fst, listener.snd);
+        }
+        for (val disposer : proc.getDisposers()) {
+          disposer.set(this);
+        }
+      }
+    }
+  }
+
+  /**
+   * a task's own values. A lookup the task cannot answer falls through to the scopes of the tasks
+   * that ran before it, whose outputs are its inputs, and then to the process's. Only names some
+   * task of the process has set are searched for among those tasks; any other name goes straight to
+   * the process's scope
+   */
+  @SuppressWarnings("PMD.AvoidUsingVolatile")
+  private static final class TaskScope implements Scope {
+
+    private final Scope context;
+    private final Map<String, Object> values;
+    private final List<TaskScope> predecessors;
+
+    /** the names set by any task of the process, shared by all of its scopes */
+    private final Set<String> produced;
+
+    /** the transitive predecessors, nearest first. Computed by the first lookup that needs them */
+    private volatile TaskScope[] ancestors;
+
+    TaskScope(Scope context, Set<String> produced) {
+      this.context = context;
+      this.produced = produced;
+      this.values = new HashMap<>();
+      this.predecessors = new ArrayList<>(1);
+    }
+
+    /**
+     * @param plan the plan to run
+     * @param context the process's scope
+     * @return a scope for every task of plan, by its position
+     */
+    static TaskScope[] of(ProcessPlan.Binding plan, Scope context) {
+      val result = new TaskScope[plan.getTasks().size()];
+      final Set<String> produced = ConcurrentHashMap.newKeySet();
+      for (int i = 0; i < result.length; i++) {
+        result[i] = new TaskScope(context, produced);
+      }
+      for (int i = 0; i < plan.getEdgeCount(); i++) {
+        val source = plan.getSource(i);
+        val target = plan.getTarget(i);
+        val sourceStage = plan.getStage(source);
+        val targetStage = plan.getStage(target);
+        if (sourceStage < targetStage) {
+          result[target].predecessors.add(result[source]);
+        } else if (targetStage < sourceStage) {
+          result[source].predecessors.add(result[target]);
+        }
+      }
+      return result;
+    }
+
     @Override
-    public void run() {
-      outer:
-      for (val taskSet : process.getTasks()) {
-        val latch = new NotifyingLatch<K>(this, taskSet.size());
-        val results = new ArrayList<Task>();
-        try {
-          for (val task : taskSet.getTasks()) {
-            val ntask = new NotifyingTask<>(task, latch, context);
-            executor.submit(ntask);
-            //            ntask.call();
-            results.add(task.getValue());
+    public <T> void set(String name, T value) {
+      produced.add(name);
+      synchronized (values) {
+        values.put(name, value);
+      }
+    }
+
+    @Override
+    @SuppressWarnings("unchecked")
+    public <T> T get(String name) {
+      val own = valueOf(name);
+      if (own != null) {
+        return (T) own;
+      }
+      if (produced.contains(name)) {
+        for (val ancestor : ancestors()) {
+          val result = ancestor.valueOf(name);
+          if (result != null) {
+            return (T) result;
           }
-          try {
-            latch.await();
-            for (val task : results) {
-              if (task.getState() == Task.State.Failed) {
-                log.log(Level.WARNING, "Task {0} failed--not continuing ", task.getName());
-                break outer;
-              }
-            }
-
-          } catch (InterruptedException e) {
+        }
+      }
+      return context.get(name);
+    }
+
+    @Override
+    @SuppressWarnings("unchecked")
+    public <E> E computeIfAbsent(String name, E value) {
+      produced.add(name);
+      synchronized (values) {
+        val existing = values.putIfAbsent(name, value);
+        return existing == null ? value : (E) existing;
+      }
+    }
+
+    private Object valueOf(String name) {
+      synchronized (values) {
+        return values.get(name);
+      }
+    }
+
+    private TaskScope[] ancestors() {
+      TaskScope[] result = ancestors;
+      if (result == null) {
+        val visited = new LinkedHashSet<TaskScope>();
+        val pending = new ArrayDeque<TaskScope>(predecessors);
+        while (!pending.isEmpty()) {
+          val current = pending.poll();
+          if (visited.add(current)) {
+            pending.addAll(current.predecessors);
           }
+        }
+        ancestors = result = visited.toArray(new TaskScope[0]);
+      }
+      return result;
+    }
+  }
+
+  /**
+   * runs a process one stage at a time. No thread waits on a stage: whichever thread completes the
+   * last task of a stage either halts the process (if a task in the stage failed) or submits the
+   * next stage
+   */
+  final class StagedScheduleEnqueuer extends ProcessEnqueuer {
+
+    private List<List<Task>> stages;
+    private Map<Task, TaskScope> scopes;
+
+    public StagedScheduleEnqueuer(Process<K> process, Scope context) {
+      super(process, context);
+    }
+
+    @Override
+    public void run() {
+      try {
+        val plan = process.getPlan();
+        stages = plan.getStages();
+        scopes = new IdentityHashMap<>(plan.getTasks().size());
+        val byPosition = TaskScope.of(plan, context);
+        for (int i = 0; i < byPosition.length; i++) {
+          scopes.put(plan.getTasks().get(i), byPosition[i]);
+        }
+      } catch (Throwable ex) {
+        log.log(Level.SEVERE, "Encountered exception {0}", ex.getMessage());
+        log.log(Level.SEVERE, "Detail:", ex);
+        complete(process);
+        return;
+      }
+      advance(0);
+    }
+
+    private void advance(int index) {
+      int i = index;
+      while (i < stages.size() && stages.get(i).size() == 0) {
+        i++;
+      }
+      if (i >= stages.size()) {
+        complete(process);
+        return;
+      }
+
+      val stage = stages.get(i);
+      val next = i + 1;
+
+      final NotifyingLatch<K> latch =
+          new NotifyingLatch<>(this, stage.size(), () -> onStageComplete(next, stage));
+      for (val task : stage) {
+        try {
+          executor.submit(new NotifyingTask<>(task, latch, scopes.get(task)));
         } catch (Throwable ex) {
           log.log(Level.SEVERE, "Encountered exception {0}", ex.getMessage());
           log.log(Level.SEVERE, "Detail:", ex);
+          latch.skip();
         }
       }
-      complete(process);
     }
 
-    void attachListeners() {
-      if (process instanceof DefaultProcess) {
-        val proc = (DefaultProcess<K>) process;
-        for (val listener : proc.getListeners()) {
-          addEventListener(listener.fst, listener.snd);
+    private void onStageComplete(int next, List<Task> results) {
+      for (val task : results) {
+        if (task.getState() == Task.State.Failed) {
+          log.log(Level.WARNING, "Task {0} failed--not continuing ", task.getName());
+          complete(process);
+          return;
         }
-        for (val disposer : proc.getDisposers()) {
-          disposer.set(this);
+      }
+      advance(next);
+    }
+  }
+
+  /**
+   * releases every task as soon as all of its own predecessors have completed. The in-degree of
+   * each task is computed once from the edges of the process's plan; its stages are only used to
+   * orient edges and to report phase completion. A failed task halts the process: nothing further
+   * is released and the tracker completes once the tasks already in flight are done
+   */
+  final class DependencyDrivenEnqueuer extends ProcessEnqueuer {
+
+    private final AtomicInteger inFlight;
+    private final AtomicBoolean completed;
+    private volatile boolean halted;
+
+    public DependencyDrivenEnqueuer(Process<K> process, Scope context) {
+      super(process, context);
+      this.inFlight = new AtomicInteger();
+      this.completed = new AtomicBoolean();
+    }
+
+    @Override
+    public void run() {
+      final List<DependentTask> roots;
+      try {
+        roots = plan();
+      } catch (Throwable ex) {
+        log.log(Level.SEVERE, "Encountered exception {0}", ex.getMessage());
+        log.log(Level.SEVERE, "Detail:", ex);
+        finish();
+        return;
+      }
+
+      if (roots.isEmpty()) {
+        finish();
+        return;
+      }
+      inFlight.addAndGet(roots.size());
+      for (val root : roots) {
+        enqueue(root);
+      }
+    }
+
+    private List<DependentTask> plan() {
+      val plan = process.getPlan();
+      val stages = plan.getStages();
+      val latches = new ArrayList<NotifyingLatch<K>>(stages.size());
+      for (val stage : stages) {
+        latches.add(new NotifyingLatch<>(this, stage.size(), () -> {}));
+      }
+      val tasks = plan.getTasks();
+      val scopes = TaskScope.of(plan, context);
+      val nodes = new ArrayList<DependentTask>(tasks.size());
+      for (int i = 0; i < tasks.size(); i++) {
+        val stage = plan.getStage(i);
+        nodes.add(
+            stage < 0
+                ? null
+                : new DependentTask(tasks.get(i), latches.get(stage), stage, scopes[i]));
+      }
+
+      for (int i = 0; i < plan.getEdgeCount(); i++) {
+        val node = nodes.get(plan.getSource(i));
+        val other = nodes.get(plan.getTarget(i));
+        if (node == null || other == null || other.stage == node.stage) {
+          continue;
+        }
+        if (node.stage < other.stage) {
+          node.precede(other);
+        } else {
+          other.precede(node);
+        }
+      }
+
+      val roots = new ArrayList<DependentTask>();
+      for (val node : nodes) {
+        if (node != null && node.pending.get() == 0) {
+          roots.add(node);
+        }
+      }
+      return roots;
+    }
+
+    /** precondition: inFlight has already been incremented for this task */
+    private void enqueue(DependentTask task) {
+      try {
+        executor.submit(task);
+      } catch (Throwable ex) {
+        log.log(Level.SEVERE, "Encountered exception {0}", ex.getMessage());
+        log.log(Level.SEVERE, "Detail:", ex);
+        halted = true;
+        release();
+      }
+    }
+
+    private void onCompletion(DependentTask node, Task taskDef) {
+      if (taskDef.getState() == Task.State.Failed) {
+        log.log(Level.WARNING, "Task {0} failed--not continuing ", taskDef.getName());
+        halted = true;
+      }
+
+      if (!halted) {
+        for (val successor : node.successors) {
+          if (successor.pending.decrementAndGet() == 0) {
+            inFlight.incrementAndGet();
+            enqueue(successor);
+          }
         }
       }
+      release();
+    }
+
+    private void release() {
+      if (inFlight.decrementAndGet() == 0) {
+        finish();
+      }
+    }
+
+    private void finish() {
+      if (completed.compareAndSet(false, true)) {
+        complete(process);
+      }
+    }
+
+    final class DependentTask extends NotifyingTask<K> {
+      final int stage;
+      final AtomicInteger pending;
+      final Set<DependentTask> successors;
+
+      DependentTask(Task task, NotifyingLatch<K> latch, int stage, Scope scope) {
+        super(task, latch, scope);
+        this.stage = stage;
+        this.pending = new AtomicInteger();
+        this.successors = new LinkedHashSet<>();
+      }
+
+      void precede(DependentTask successor) {
+        if (successors.add(successor)) {
+          successor.pending.incrementAndGet();
+        }
+      }
+
+      @Override
+      protected void afterCompletion(Task taskDef) {
+        onCompletion(this, taskDef);
+      }
     }
   }
 }
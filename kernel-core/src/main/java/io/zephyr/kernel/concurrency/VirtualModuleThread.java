@@ -0,0 +1,34 @@
+package io.zephyr.kernel.concurrency;
+
+import io.zephyr.kernel.Module;
+import io.zephyr.kernel.core.Kernel;
+
+/**
+ * a module thread that runs on a virtual thread. Ordering is unchanged: the activator still starts
+ * and stops on the module thread with the module's context classloader, tasks still run one at a
+ * time in submission order, and stopping still drains the queue. While the module is idle its
+ * thread is parked in the task queue and holds no carrier, so dense deployments pay for neither a
+ * platform thread nor its stack per module.
+ *
+ * <p>Falls back to a platform thread on JVMs without virtual threads
+ */
+@SuppressWarnings("PMD.DoNotUseThreads")
+public class VirtualModuleThread extends ModuleThread {
+
+  public VirtualModuleThread(final Module module, final Kernel kernel) {
+    super(module, kernel);
+  }
+
+  public VirtualModuleThread(
+      final Module module,
+      final Kernel kernel,
+      final int capacity,
+      final MpscTaskQueue.Overflow overflow) {
+    super(module, kernel, capacity, overflow);
+  }
+
+  @Override
+  protected Thread newThread(Runnable task, String name) {
+    return VirtualThreadWorkerPool.newThread(name, task);
+  }
+}
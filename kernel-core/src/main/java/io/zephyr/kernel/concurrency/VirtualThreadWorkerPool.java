@@ -0,0 +1,120 @@
+package io.zephyr.kernel.concurrency;
+
+import io.zephyr.kernel.log.Logging;
+import java.lang.reflect.Method;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.ThreadFactory;
+import java.util.logging.Level;
+import java.util.logging.Logger;
+import lombok.val;
+
+/**
+ * worker pool whose kernel and userspace executors start one virtual thread per task. Blocking
+ * work (downloads, file transfers, archive extraction) then costs no platform thread while it
+ * waits, so neither executor needs to be sized.
+ *
+ * <p>The kernel is compiled against a release without virtual threads, so they are resolved
+ * reflectively. On a JVM that does not provide them this pool falls back to cached platform-thread
+ * executors, which is exactly what the kernel uses by default
+ */
+@SuppressWarnings("PMD.DoNotUseThreads")
+public class VirtualThreadWorkerPool extends ExecutorWorkerPool {
+
+  static final Logger log = Logging.get(VirtualThreadWorkerPool.class, "Concurrency");
+
+  public VirtualThreadWorkerPool() {
+    super(newExecutor("module"), newExecutor("kernel"));
+    if (!isSupported()) {
+      log.log(
+          Level.WARNING,
+          "Virtual threads are not supported by this JVM; using platform threads instead");
+    }
+  }
+
+  /** @return true if the running JVM can start virtual threads */
+  public static boolean isSupported() {
+    return Support.factoryMethod != null;
+  }
+
+  /**
+   * @param name the prefix for the names of threads started by the resulting executor
+   * @return an executor that starts a new virtual thread for every task, or a cached thread pool if
+   *     virtual threads are not supported
+   */
+  public static ExecutorService newExecutor(String name) {
+    if (isSupported()) {
+      try {
+        return (ExecutorService) Support.factoryMethod.invoke(null, Support.factory(name));
+      } catch (ReflectiveOperationException ex) {
+        log.log(Level.WARNING, "Failed to create virtual thread executor: {0}", ex.getMessage());
+      }
+    }
+    return Executors.newCachedThreadPool(new NamedThreadFactory(name));
+  }
+
+  /**
+   * @param name the name of the thread
+   * @param task the task the thread runs
+   * @return an unstarted virtual thread, or an unstarted platform thread if virtual threads are not
+   *     supported
+   */
+  public static Thread newThread(String name, Runnable task) {
+    if (isSupported()) {
+      try {
+        return Support.unstarted(name, task);
+      } catch (ReflectiveOperationException ex) {
+        log.log(Level.WARNING, "Failed to create virtual thread: {0}", ex.getMessage());
+      }
+    }
+    return new Thread(task, name);
+  }
+
+  /** lazily resolves the virtual-thread API */
+  static final class Support {
+    static final Method ofVirtual;
+    static final Method builderName;
+    static final Method builderExactName;
+    static final Method builderUnstarted;
+    static final Method builderFactory;
+    static final Method factoryMethod;
+
+    static {
+      Method ov = null;
+      Method nm = null;
+      Method en = null;
+      Method us = null;
+      Method fc = null;
+      Method fm = null;
+      try {
+        val builderType = Class.forName("java.lang.Thread$Builder");
+        ov = Thread.class.getMethod("ofVirtual");
+        nm = builderType.getMethod("name", String.class, long.class);
+        en = builderType.getMethod("name", String.class);
+        us = builderType.getMethod("unstarted", Runnable.class);
+        fc = builderType.getMethod("factory");
+        fm = Executors.class.getMethod("newThreadPerTaskExecutor", ThreadFactory.class);
+      } catch (ReflectiveOperationException ex) {
+        log.log(Level.FINE, "Virtual threads are not supported by this JVM");
+      }
+      ofVirtual = ov;
+      builderName = nm;
+      builderExactName = en;
+      builderUnstarted = us;
+      builderFactory = fc;
+      factoryMethod = fm;
+    }
+
+    private Support() {}
+
+    static ThreadFactory factory(String prefix) throws ReflectiveOperationException {
+      val builder = builderName.invoke(ofVirtual.invoke(null), prefix + "-virtual-", 0L);
+      return (ThreadFactory) builderFactory.invoke(builder);
+    }
+
+    static Thread unstarted(String name, Runnable task) throws ReflectiveOperationException {
+      val builder = builderExactName.invoke(ofVirtual.invoke(null), name);
+      return (Thread) builderUnstarted.invoke(builder, task);
+    }
+  }
+}
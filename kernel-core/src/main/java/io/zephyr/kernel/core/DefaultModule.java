@@ -52,6 +52,7 @@ public final class DefaultModule extends AbstractModule
   private Coordinate coordinate;
   private FileSystem fileSystem;
   private Lifecycle lifecycle;
+  private Threading threading = Threading.Default;
 
   private ModuleActivator activator;
   private ModuleClasspath moduleClasspath;
@@ -127,6 +128,15 @@ public final class DefaultModule extends AbstractModule
     this.order = order;
   }
 
+  @Override
+  public Threading getThreading() {
+    return threading;
+  }
+
+  public void setThreading(Threading threading) {
+    this.threading = threading;
+  }
+
   @Override
   public Type getType() {
     return type;
@@ -230,8 +240,19 @@ public final class DefaultModule extends AbstractModule
     return moduleClasspath.getClassLoader();
   }
 
+  /** transitive dependencies are read from the kernel dependency graph's closure */
   @Override
   public boolean dependsOn(Coordinate m, Transitivity transitivity) {
+    if (transitivity == Transitivity.Transitive && kernel != null) {
+      return kernel.getModuleManager().getDependencyGraph().dependsOn(coordinate, m);
+    }
+    if (dependencies != null) {
+      for (val dependency : dependencies) {
+        if (m.equals(dependency.getCoordinate())) {
+          return true;
+        }
+      }
+    }
     return false;
   }
 
@@ -281,6 +302,7 @@ public final class DefaultModule extends AbstractModule
   public void restore(Memento memento) {
     this.order = Integer.parseInt(memento.read("order", String.class));
     this.type = Type.parse(memento.read("type", String.class));
+    this.threading = Threading.parse(memento.read("threading", String.class));
     this.source = new ModuleSource(URI.create(memento.read("source", String.class)));
 
     readCoordinate(memento);
@@ -297,6 +319,7 @@ public final class DefaultModule extends AbstractModule
 
     result.write("order", order);
     result.write("type", type);
+    result.write("threading", threading);
     result.write("source", source.getLocation());
     writeCoordinate(result, coordinate);
     writeAssembly(result);
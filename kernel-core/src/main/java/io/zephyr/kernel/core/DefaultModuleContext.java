@@ -11,7 +11,9 @@ import io.zephyr.kernel.concurrency.ModuleThread;
 import io.zephyr.kernel.extensions.ExpressionLanguageExtension;
 import io.zephyr.kernel.log.Logging;
 import io.zephyr.kernel.service.DefaultServiceDefinition;
+import io.zephyr.kernel.service.DefaultServiceHandle;
 import java.util.ArrayList;
+import java.util.Collection;
 import java.util.List;
 import java.util.Map;
 import java.util.ServiceLoader;
@@ -31,7 +33,6 @@ public class DefaultModuleContext implements ModuleContext {
   final VolatileStorage delegate;
   final Map<Object, Object> context;
 
-  static final Object lock = new Object();
   static final Logger log = Logging.get(DefaultModuleContext.class);
 
   public DefaultModuleContext(
@@ -68,6 +69,10 @@ public class DefaultModuleContext implements ModuleContext {
    */
   @Override
   public <T> Predicate<T> createFilter(Query<T> query) {
+    return resolveExpressionLanguageExtension(query).createPredicate(query);
+  }
+
+  private <T> ExpressionLanguageExtension resolveExpressionLanguageExtension(Query<T> query) {
     var ext = resolveModuleExpressionLanguageExtension(query);
     if (ext == null) {
       ext = resolveKernelModuleExpressionLanguageExtension(query);
@@ -76,7 +81,7 @@ public class DefaultModuleContext implements ModuleContext {
       throw new ModuleException(
           "Unable to locate extension for expression language: " + query.getLanguage());
     }
-    return ext.createPredicate(query);
+    return ext;
   }
 
   @Override
@@ -142,44 +147,68 @@ public class DefaultModuleContext implements ModuleContext {
   }
 
   @Override
-  @SuppressWarnings({"unchecked", "PMD.DataflowAnomalyAnalysis"})
+  public List<ServiceRegistration<?>> registerAll(
+      Collection<? extends ServiceDefinition<?>> definitions) {
+    return kernel.getServiceRegistry().registerAll(module, definitions);
+  }
+
+  @Override
+  public void unregisterAll(Collection<? extends ServiceRegistration<?>> registrations) {
+    kernel.getServiceRegistry().unregisterAll(registrations);
+  }
+
+  @Override
   public <T> List<ServiceReference<T>> getReferences(Class<T> type) {
-    synchronized (lock) {
-      val moduleManager = kernel.getModuleManager();
-      val serviceRegistry = kernel.getServiceRegistry();
-      val result = new ArrayList<ServiceReference<T>>();
-      for (val module : moduleManager.getModules(Lifecycle.State.Active)) {
-        val set = serviceRegistry.getRegistrations(module);
-        if (set != null) {
-          for (val registration : set) {
-            if (registration.provides(type)) {
-              result.add((ServiceReference<T>) registration.getReference());
-            }
-          }
-        }
+    val registrations = kernel.getServiceRegistry().getRegistrations(type);
+    val result = new ArrayList<ServiceReference<T>>(registrations.size());
+    for (val registration : registrations) {
+      val reference = registration.getReference();
+      if (reference.getModule().getLifecycle().getState() == Lifecycle.State.Active) {
+        result.add(reference);
       }
-      return result;
     }
+    return result;
   }
 
+  @Override
+  public <T> ServiceHandle<T> getServiceHandle(Class<T> type) {
+    return new DefaultServiceHandle<>(kernel.getServiceRegistry(), type);
+  }
+
+  /**
+   * a query that pins the service type is answered from the registry's type index, so its cost
+   * tracks the registrations of that type rather than every registration
+   */
   @Override
   @SuppressWarnings({"PMD.DataflowAnomalyAnalysis"})
   public List<ServiceReference<?>> getReferences(Query<ServiceDefinition<?>> query) {
-    synchronized (lock) {
-      val predicate = createFilter(query);
-      val moduleManager = kernel.getModuleManager();
-      val serviceRegistry = kernel.getServiceRegistry();
-      val result = new ArrayList<ServiceReference<?>>();
-      for (val module : moduleManager.getModules(Lifecycle.State.Active)) {
-        for (val registration : serviceRegistry.getRegistrations(module)) {
+    val plan = resolveExpressionLanguageExtension(query).createPlan(query);
+    val serviceRegistry = kernel.getServiceRegistry();
+    val result = new ArrayList<ServiceReference<?>>();
+    if (plan.getServiceType() != null) {
+      val predicate = plan.getResidual();
+      for (val registration : serviceRegistry.getRegistrationsDeclaring(plan.getServiceType())) {
+        val ref = registration.getReference();
+        if (ref.getModule().getLifecycle().getState() == Lifecycle.State.Active
+            && predicate.test(ref.getDefinition())) {
+          result.add(ref);
+        }
+      }
+      return result;
+    }
+    val predicate = plan.getPredicate();
+    for (val module : kernel.getModuleManager().getModules(Lifecycle.State.Active)) {
+      val set = serviceRegistry.getRegistrations(module);
+      if (set != null) {
+        for (val registration : set) {
           val ref = registration.getReference();
           if (predicate.test(ref.getDefinition())) {
-            result.add(registration.getReference());
+            result.add(ref);
           }
         }
       }
-      return result;
     }
+    return result;
   }
 
   @Override
@@ -73,6 +73,7 @@ final class DefaultModuleInstallationStatusGroup implements ModuleInstallationSt
         procBuilder
             .parallel()
             .coalesce()
+            .dependencyDriven()
             .register(new KernelModuleListReadPhase("module:list:read"));
     addIntermediates(taskBuilder, toInstall);
     this.process = taskBuilder.create();
@@ -4,6 +4,7 @@ import io.sunshower.lang.events.EventSource;
 import io.zephyr.kernel.Coordinate;
 import io.zephyr.kernel.Lifecycle;
 import io.zephyr.kernel.Module;
+import io.zephyr.kernel.concurrency.ProcessPlanCache;
 import io.zephyr.kernel.dependencies.DependencyGraph;
 import io.zephyr.kernel.log.Logging;
 import io.zephyr.kernel.module.ModuleInstallationGroup;
@@ -33,9 +34,13 @@ public class DefaultModuleManager implements ModuleManager, EventSource {
   @Delegate private Kernel kernel;
   final DependencyGraph dependencyGraph;
 
+  /** lifecycle plans by task graph shape, for the current version of the dependency graph */
+  final ProcessPlanCache plans;
+
   @Inject
   public DefaultModuleManager(DependencyGraph graph) {
     this.dependencyGraph = graph;
+    this.plans = new ProcessPlanCache();
   }
 
   @Override
@@ -52,7 +57,8 @@ public class DefaultModuleManager implements ModuleManager, EventSource {
   @Override
   public ModuleLifecycleStatusGroup prepare(ModuleLifecycleChangeGroup group) {
     check();
-    return new DefaultModuleLifecycleStatusChangeGroup(kernel, this, group);
+    return new DefaultModuleLifecycleStatusChangeGroup(
+        kernel, this, group, plans.at(dependencyGraph.getVersion()));
   }
 
   @Override
@@ -118,7 +124,9 @@ public class DefaultModuleManager implements ModuleManager, EventSource {
     for (val module : dependencyGraph.getGraph().vertexSet()) {
       group.addRequest(new ModuleLifecycleChangeRequest(module, Actions.Stop));
     }
-    val moduleLifecycleChange = new DefaultModuleLifecycleStatusChangeGroup(kernel, this, group);
+    val moduleLifecycleChange =
+        new DefaultModuleLifecycleStatusChangeGroup(
+            kernel, this, group, plans.at(dependencyGraph.getVersion()));
     kernel.getScheduler().submit(moduleLifecycleChange.getProcess()).toCompletableFuture().get();
   }
 }
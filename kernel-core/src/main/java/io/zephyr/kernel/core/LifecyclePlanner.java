@@ -0,0 +1,131 @@
+package io.zephyr.kernel.core;
+
+import io.sunshower.gyre.DirectedGraph;
+import io.sunshower.gyre.EdgeFilters;
+import io.sunshower.gyre.Graph;
+import io.zephyr.kernel.Coordinate;
+import io.zephyr.kernel.concurrency.Task;
+import io.zephyr.kernel.concurrency.TaskGraph;
+import java.util.ArrayDeque;
+import java.util.ArrayList;
+import java.util.Collection;
+import java.util.HashSet;
+import java.util.LinkedHashMap;
+import java.util.LinkedHashSet;
+import java.util.Map;
+import java.util.function.Function;
+import lombok.val;
+
+/**
+ * plans every request of a lifecycle group in one pass over the dependency graph. The coordinates
+ * to stop (or start) are found by a single traversal from all the requested coordinates at once,
+ * so one shared by many requests is visited and tasked once. Tasks are connected along the direct
+ * edges between planned coordinates only: the planned set is closed under the traversal, so these
+ * order it as the transitive edges would, with one edge per dependency instead of one per pair.
+ *
+ * <p>Unresolved coordinates get no task, but the traversal passes through them: a task is connected
+ * to the nearest resolved coordinates beyond them, so they neither hide what lies behind them nor
+ * break its order
+ */
+@SuppressWarnings({"PMD.DataflowAnomalyAnalysis", "PMD.AvoidInstantiatingObjectsInLoops"})
+final class LifecyclePlanner {
+
+  private final Graph<DirectedGraph.Edge<Coordinate>, Coordinate> graph;
+  private final TaskGraph<String> tasks;
+
+  /**
+   * @param graph the dependency graph to plan against. It is not modified
+   * @param tasks the task graph to add planned tasks to
+   */
+  LifecyclePlanner(
+      Graph<DirectedGraph.Edge<Coordinate>, Coordinate> graph, TaskGraph<String> tasks) {
+    this.graph = graph;
+    this.tasks = tasks;
+  }
+
+  /**
+   * plans stopping roots and everything depending on them. A task runs once the tasks of its
+   * dependents have
+   *
+   * @return the planned tasks, by coordinate
+   */
+  Map<Coordinate, Task> stop(Collection<Coordinate> roots, Function<Coordinate, Task> ctor) {
+    return plan(roots, ctor, false);
+  }
+
+  /**
+   * plans starting roots and everything they depend on. A task runs once the tasks of its
+   * dependencies have
+   *
+   * @return the planned tasks, by coordinate
+   */
+  Map<Coordinate, Task> start(Collection<Coordinate> roots, Function<Coordinate, Task> ctor) {
+    return plan(roots, ctor, true);
+  }
+
+  private Map<Coordinate, Task> plan(
+      Collection<Coordinate> roots, Function<Coordinate, Task> ctor, boolean followDependencies) {
+    val planned = new LinkedHashMap<Coordinate, Task>();
+    val queue = new ArrayDeque<Coordinate>();
+    for (val root : roots) {
+      visit(root, planned, queue, ctor);
+    }
+
+    while (!queue.isEmpty()) {
+      val coordinate = queue.poll();
+      val task = planned.get(coordinate);
+      for (val next : resolvedAdjacent(coordinate, followDependencies)) {
+        val target = visit(next, planned, queue, ctor);
+        tasks.connect(task, target, DirectedGraph.incoming(target.getName()));
+      }
+    }
+    return planned;
+  }
+
+  private Task visit(
+      Coordinate coordinate,
+      Map<Coordinate, Task> planned,
+      ArrayDeque<Coordinate> queue,
+      Function<Coordinate, Task> ctor) {
+    val existing = planned.get(coordinate);
+    if (existing != null) {
+      return existing;
+    }
+    val task = ctor.apply(coordinate);
+    tasks.add(task);
+    planned.put(coordinate, task);
+    queue.add(coordinate);
+    return task;
+  }
+
+  /** @return the resolved coordinates adjacent to coordinate, looking through unresolved ones */
+  private Collection<Coordinate> resolvedAdjacent(
+      Coordinate coordinate, boolean followDependencies) {
+    val result = new LinkedHashSet<Coordinate>();
+    val passed = new HashSet<Coordinate>();
+    val pending = new ArrayDeque<Coordinate>(adjacent(coordinate, followDependencies));
+    while (!pending.isEmpty()) {
+      val next = pending.poll();
+      if (next.equals(coordinate)) {
+        continue;
+      }
+      if (next.isResolved()) {
+        result.add(next);
+      } else if (passed.add(next)) {
+        pending.addAll(adjacent(next, followDependencies));
+      }
+    }
+    return result;
+  }
+
+  private Collection<Coordinate> adjacent(Coordinate coordinate, boolean followDependencies) {
+    if (followDependencies) {
+      return graph.neighbors(coordinate);
+    }
+    val result = new ArrayList<Coordinate>();
+    for (val edge : graph.getDependents(coordinate, EdgeFilters.acceptAll())) {
+      result.add(graph.getSource(edge));
+    }
+    return result;
+  }
+}
@@ -11,12 +11,14 @@ import io.zephyr.kernel.Coordinate;
 import io.zephyr.kernel.Lifecycle;
 import io.zephyr.kernel.Module;
 import io.zephyr.kernel.concurrency.ModuleThread;
+import io.zephyr.kernel.concurrency.VirtualModuleThread;
 import io.zephyr.kernel.core.actions.ModuleInstallationCompletionPhase;
 import io.zephyr.kernel.core.actions.ModulePhaseEvents;
 import io.zephyr.kernel.core.actions.WritePluginDescriptorPhase;
 import io.zephyr.kernel.dependencies.CyclicDependencyException;
 import io.zephyr.kernel.dependencies.DependencyGraph;
 import io.zephyr.kernel.dependencies.UnresolvedDependencyException;
+import io.zephyr.kernel.launch.KernelOptions;
 import io.zephyr.kernel.log.Logging;
 import java.io.IOException;
 import java.net.URI;
@@ -206,9 +208,7 @@ public class Modules {
 
   private static void checkForCyclicDependencies(
       Kernel kernel, DependencyGraph dependencyGraph, Set<Module> installedPlugins) {
-    val prospective = dependencyGraph.clone();
-    prospective.addAll(installedPlugins);
-    val partition = prospective.computeCycles();
+    val partition = dependencyGraph.computeCycles(installedPlugins);
     if (partition.isCyclic()) {
       val ex = new CyclicDependencyException();
       for (val cycle : partition.getElements()) {
@@ -349,11 +349,26 @@ public class Modules {
   public static void start(Module toStart, Kernel kernel) throws IOException {
     if (toStart instanceof DefaultModule) {
       val module = (DefaultModule) toStart;
-      val taskQueue = new ModuleThread(module, kernel);
+      val taskQueue = createTaskQueue(module, kernel, SunshowerKernel.getKernelOptions());
       module.setTaskQueue(taskQueue);
       taskQueue.start();
       kernel.getModuleManager().getModuleLoader().install(module);
       module.setFileSystem(getFileSystem(module.getCoordinate(), kernel).snd);
     }
   }
+
+  static ModuleThread createTaskQueue(Module module, Kernel kernel, KernelOptions options) {
+    val capacity = options.getModuleQueueCapacity();
+    val overflow = options.getModuleQueueOverflow();
+    switch (module.getThreading()) {
+      case Virtual:
+        return new VirtualModuleThread(module, kernel, capacity, overflow);
+      case Platform:
+        return new ModuleThread(module, kernel, capacity, overflow);
+      default:
+        return options.isVirtualModuleThreads()
+            ? new VirtualModuleThread(module, kernel, capacity, overflow)
+            : new ModuleThread(module, kernel, capacity, overflow);
+    }
+  }
 }
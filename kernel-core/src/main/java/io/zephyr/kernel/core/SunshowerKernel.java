@@ -1,6 +1,5 @@
 package io.zephyr.kernel.core;
 
-import io.sunshower.lang.events.AbstractEventSource;
 import io.sunshower.lang.events.Event;
 import io.sunshower.lang.events.EventListener;
 import io.sunshower.lang.events.EventSource;
@@ -20,6 +19,7 @@ import io.zephyr.kernel.concurrency.Tasks;
 import io.zephyr.kernel.core.actions.ModuleInstallationCompletionPhase;
 import io.zephyr.kernel.core.actions.WritePluginDescriptorPhase;
 import io.zephyr.kernel.core.lifecycle.DefaultKernelLifecycle;
+import io.zephyr.kernel.events.IndexedEventSource;
 import io.zephyr.kernel.launch.KernelOptions;
 import io.zephyr.kernel.log.Logging;
 import io.zephyr.kernel.memento.Memento;
@@ -82,12 +82,25 @@ public class SunshowerKernel implements Kernel, EventSource {
       ServiceRegistry registry,
       Scheduler<String> scheduler,
       ClassLoader parentClassloader) {
+    this(moduleManager, registry, scheduler, parentClassloader, new IndexedEventSource());
+  }
+
+  /**
+   * @param eventDispatcher the source every kernel and module event is dispatched through. Defaults
+   *     to synchronous delivery on the dispatching thread
+   */
+  public SunshowerKernel(
+      ModuleManager moduleManager,
+      ServiceRegistry registry,
+      Scheduler<String> scheduler,
+      ClassLoader parentClassloader,
+      EventSource eventDispatcher) {
     this.scheduler = scheduler;
     this.serviceRegistry = registry;
     this.moduleManager = moduleManager;
+    this.eventDispatcher = eventDispatcher;
     this.storage = new ConcurrentVolatileStorage();
     this.lifecycle = new DefaultKernelLifecycle(this, scheduler, parentClassloader);
-    this.eventDispatcher = new AbstractEventSource() {};
   }
 
   public SunshowerKernel(
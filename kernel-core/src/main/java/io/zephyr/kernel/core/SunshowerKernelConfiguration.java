@@ -4,6 +4,7 @@ import dagger.BindsInstance;
 import dagger.Component;
 import io.zephyr.kernel.concurrency.ExecutorWorkerPool;
 import io.zephyr.kernel.concurrency.NamedThreadFactory;
+import io.zephyr.kernel.concurrency.VirtualThreadWorkerPool;
 import io.zephyr.kernel.concurrency.WorkerPool;
 import io.zephyr.kernel.dependencies.DependencyGraph;
 import io.zephyr.kernel.launch.KernelOptions;
@@ -26,6 +27,9 @@ public interface SunshowerKernelConfiguration {
 
     default SunshowerKernelConfiguration create(
         KernelOptions options, ClassLoader bootstrapClassloader) {
+      if (options.isVirtualThreads()) {
+        return create(options, bootstrapClassloader, new VirtualThreadWorkerPool());
+      }
       return create(
           options,
           bootstrapClassloader,
@@ -2,12 +2,15 @@ package io.zephyr.kernel.core;
 
 import dagger.Module;
 import dagger.Provides;
+import io.sunshower.lang.events.EventSource;
 import io.zephyr.api.ServiceRegistry;
 import io.zephyr.kernel.concurrency.KernelScheduler;
+import io.zephyr.kernel.concurrency.RingBufferEventSource;
 import io.zephyr.kernel.concurrency.Scheduler;
 import io.zephyr.kernel.concurrency.WorkerPool;
 import io.zephyr.kernel.dependencies.DefaultDependencyGraph;
 import io.zephyr.kernel.dependencies.DependencyGraph;
+import io.zephyr.kernel.events.IndexedEventSource;
 import io.zephyr.kernel.launch.KernelOptions;
 import io.zephyr.kernel.service.KernelServiceRegistry;
 import javax.inject.Singleton;
@@ -43,9 +46,12 @@ public class SunshowerKernelInjectionModule {
       KernelOptions options,
       ServiceRegistry registry,
       ClassLoader classLoader,
-      Scheduler<String> scheduler) {
+      Scheduler<String> scheduler,
+      WorkerPool pool) {
     SunshowerKernel.setKernelOptions(options);
-    val kernel = new SunshowerKernel(moduleManager, registry, scheduler, classLoader);
+    val kernel =
+        new SunshowerKernel(
+            moduleManager, registry, scheduler, classLoader, eventDispatcher(options, pool));
     val classpathManager = Modules.moduleClasspathManager(graph, classLoader, kernel);
     kernel.setModuleClasspathManager(classpathManager);
     moduleManager.initialize(kernel);
@@ -53,6 +59,15 @@ public class SunshowerKernelInjectionModule {
     return kernel;
   }
 
+  static EventSource eventDispatcher(KernelOptions options, WorkerPool pool) {
+    val bufferSize = options.getEventBufferSize();
+    if (bufferSize == null || bufferSize <= 0) {
+      return new IndexedEventSource();
+    }
+    return new RingBufferEventSource(
+        pool.getKernelExecutor(), bufferSize, options.getEventBackpressure());
+  }
+
   @Provides
   @Singleton
   public ModuleManager pluginManager(DependencyGraph dependencyGraph) {
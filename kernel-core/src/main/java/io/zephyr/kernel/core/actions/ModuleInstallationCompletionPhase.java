@@ -71,6 +71,7 @@ public class ModuleInstallationCompletionPhase extends Task {
               assembly.getLibraries(),
               getDependencies(descriptor.getDependencies()));
 
+      module.setThreading(descriptor.getThreading());
       val lifecycle = createLifecycle(module);
       module.setLifecycle(lifecycle);
 
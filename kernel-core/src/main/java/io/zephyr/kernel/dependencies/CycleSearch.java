@@ -0,0 +1,100 @@
+package io.zephyr.kernel.dependencies;
+
+import io.sunshower.gyre.AbstractDirectedGraph;
+import io.sunshower.gyre.DirectedGraph;
+import io.sunshower.gyre.Graph;
+import io.sunshower.gyre.Partition;
+import io.sunshower.gyre.StronglyConnectedComponents;
+import io.zephyr.gyre.IntGraph;
+import io.zephyr.gyre.IntGraphSolver;
+import io.zephyr.kernel.Coordinate;
+import io.zephyr.kernel.Module;
+import java.util.ArrayList;
+import java.util.Collection;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+import lombok.val;
+
+/**
+ * searches a graph and the edges of modules it does not contain yet for cycles, without copying the
+ * graph. Both are laid out as an {@link IntGraph} whose components are found in one pass over int
+ * arrays, and only the edges within cyclic components are handed to gyre to build the partition.
+ * Like {@link TopologicalOrder}, this ignores self-dependencies
+ */
+@SuppressWarnings({"PMD.DataflowAnomalyAnalysis", "PMD.AvoidInstantiatingObjectsInLoops"})
+final class CycleSearch {
+
+  private final Map<Coordinate, Integer> ids;
+  private final List<Coordinate> vertices;
+
+  private CycleSearch() {
+    ids = new HashMap<>();
+    vertices = new ArrayList<>();
+  }
+
+  /**
+   * @param graph the graph to search. It is not modified
+   * @param modules the modules whose edges to search along with graph's
+   * @return a partition with one cyclic component per cycle, or an acyclic one
+   */
+  static Partition<DirectedGraph.Edge<Coordinate>, Coordinate> search(
+      Graph<DirectedGraph.Edge<Coordinate>, Coordinate> graph, Collection<Module> modules) {
+    return new CycleSearch().run(graph, modules);
+  }
+
+  private Partition<DirectedGraph.Edge<Coordinate>, Coordinate> run(
+      Graph<DirectedGraph.Edge<Coordinate>, Coordinate> graph, Collection<Module> modules) {
+    val sources = new ArrayList<Integer>();
+    val targets = new ArrayList<Integer>();
+    for (val vertex : graph.vertexSet()) {
+      val source = idOf(vertex);
+      for (val neighbor : graph.neighbors(vertex)) {
+        sources.add(source);
+        targets.add(idOf(neighbor));
+      }
+    }
+    for (val module : modules) {
+      val source = idOf(module.getCoordinate());
+      for (val dependency : module.getDependencies()) {
+        sources.add(source);
+        targets.add(idOf(dependency.getCoordinate()));
+      }
+    }
+
+    val builder = IntGraph.builder(vertices.size());
+    for (int i = 0; i < sources.size(); i++) {
+      if (!sources.get(i).equals(targets.get(i))) {
+        builder.connect(sources.get(i), targets.get(i));
+      }
+    }
+    val layout = builder.build();
+    val components = new int[layout.size()];
+    new IntGraphSolver().components(layout, components);
+
+    final Graph<DirectedGraph.Edge<Coordinate>, Coordinate> cycles =
+        new AbstractDirectedGraph<>();
+    for (int vertex = 0; vertex < layout.size(); vertex++) {
+      for (int i = 0, n = layout.successorCount(vertex); i < n; i++) {
+        val next = layout.successor(vertex, i);
+        if (components[next] == components[vertex]) {
+          val target = vertices.get(next);
+          cycles.connect(vertices.get(vertex), target, DirectedGraph.outgoing(target));
+        }
+      }
+    }
+    return new StronglyConnectedComponents<DirectedGraph.Edge<Coordinate>, Coordinate>()
+        .apply(cycles);
+  }
+
+  private int idOf(Coordinate coordinate) {
+    val existing = ids.get(coordinate);
+    if (existing != null) {
+      return existing;
+    }
+    val id = vertices.size();
+    ids.put(coordinate, id);
+    vertices.add(coordinate);
+    return id;
+  }
+}
@@ -14,23 +14,25 @@ import io.zephyr.kernel.Dependency;
 import io.zephyr.kernel.Module;
 import io.zephyr.kernel.core.ModuleCoordinate;
 import io.zephyr.kernel.log.Logging;
+import java.util.ArrayList;
 import java.util.Collection;
 import java.util.Collections;
 import java.util.Comparator;
-import java.util.HashMap;
 import java.util.HashSet;
 import java.util.Iterator;
 import java.util.LinkedHashSet;
 import java.util.List;
-import java.util.Map;
-import java.util.Objects;
 import java.util.Set;
 import java.util.logging.Level;
 import java.util.logging.Logger;
-import java.util.stream.Collectors;
 import lombok.NonNull;
 import lombok.val;
 
+/**
+ * readers never lock: every read works against the snapshot current when it began. Writers
+ * serialize on a lock, apply their changes to a copy of the current snapshot and publish the copy
+ * as the next version, so a snapshot is never modified once it is visible
+ */
 @SuppressWarnings({
   "PMD.DataflowAnomalyAnalysis",
   "PMD.AvoidInstantiatingObjectsInLoops",
@@ -39,24 +41,36 @@ import lombok.val;
 public final class DefaultDependencyGraph implements DependencyGraph, Cloneable {
 
   static final Logger log = Logging.get(DependencyGraph.class);
-  final TrieMap<Coordinate, Module> modules;
-  final Graph<DirectedGraph.Edge<Coordinate>, Coordinate> dependencyGraph;
 
+  /** held by writers only */
   final Object lock = new Object();
 
+  private volatile Snapshot current;
+
   public DefaultDependencyGraph() {
-    dependencyGraph = new AbstractDirectedGraph<>();
-    modules = new CompactTrieMap<>(new CoordinateAnalyzer());
+    current =
+        new Snapshot(
+            0,
+            new CompactTrieMap<>(new CoordinateAnalyzer()),
+            new AbstractDirectedGraph<>(),
+            new VersionIndex(),
+            new TopologicalOrder(),
+            new TransitiveClosure());
   }
 
   private DefaultDependencyGraph(DefaultDependencyGraph graph) {
-    dependencyGraph = graph.dependencyGraph.clone();
-    modules = new CompactTrieMap<>(new CoordinateAnalyzer(), graph.modules);
+    current = graph.current;
   }
 
+  /** @return the current snapshot's graph. It must not be modified */
   @Override
   public Graph<DirectedGraph.Edge<Coordinate>, Coordinate> getGraph() {
-    return dependencyGraph;
+    return current.dependencyGraph;
+  }
+
+  @Override
+  public long getVersion() {
+    return current.version;
   }
 
   @Override
@@ -82,9 +96,7 @@ public final class DefaultDependencyGraph implements DependencyGraph, Cloneable
 
   @Override
   public List<Module> getModules(Coordinate coordinate) {
-    synchronized (lock) {
-      return modules.level(coordinate);
-    }
+    return current.modules.level(coordinate);
   }
 
   @Override
@@ -94,95 +106,92 @@ public final class DefaultDependencyGraph implements DependencyGraph, Cloneable
 
   @Override
   public int size() {
-    synchronized (lock) {
-      return dependencyGraph.size();
-    }
+    return current.dependencyGraph.size();
   }
 
   @Override
   public UnsatisfiedDependencySet getUnresolvedDependencies(@NonNull Module module) {
-    synchronized (lock) {
-      val coordinate = module.getCoordinate();
+    val snapshot = current;
+    val coordinate = module.getCoordinate();
 
-      val dependencies = module.getDependencies();
+    val dependencies = module.getDependencies();
 
-      val result = new LinkedHashSet<Coordinate>();
-      for (val dependency : dependencies) {
-        val depcoord = dependency.getCoordinate();
-        if (!modules.containsKey(depcoord)) {
-          result.add(depcoord);
-        }
-      }
-      if (result.isEmpty()) {
-        return new UnsatisfiedDependencySet(coordinate, Collections.emptySet());
-      } else {
-        return new UnsatisfiedDependencySet(coordinate, result);
+    val result = new LinkedHashSet<Coordinate>();
+    for (val dependency : dependencies) {
+      val depcoord = dependency.getCoordinate();
+      if (!snapshot.modules.containsKey(depcoord)) {
+        result.add(depcoord);
       }
     }
+    if (result.isEmpty()) {
+      return new UnsatisfiedDependencySet(coordinate, Collections.emptySet());
+    } else {
+      return new UnsatisfiedDependencySet(coordinate, result);
+    }
   }
 
   @Override
   public @NonNull Set<UnsatisfiedDependencySet> resolveDependencies(Collection<Module> modules) {
-    synchronized (lock) {
-      val results = new HashSet<UnsatisfiedDependencySet>();
-      val installationGroupModules = resolveInstallationGroupModules(modules);
-      for (val module : modules) {
-        resolveDependenciesFor(module, results, installationGroupModules);
-      }
-      return results;
+    val snapshot = current;
+    val results = new HashSet<UnsatisfiedDependencySet>();
+    val installationGroup = VersionIndex.of(modules);
+    for (val module : modules) {
+      resolveDependenciesFor(snapshot, module, results, installationGroup);
     }
+    return results;
   }
 
   @Override
   public Set<UnsatisfiedDependencySet> getUnresolvedDependencies(Collection<Module> modules) {
-    synchronized (lock) {
-      val prospective = resolveInstallationGroupModules(modules);
-      val results = new LinkedHashSet<UnsatisfiedDependencySet>();
-      for (val module : modules) {
-        val unsatisfied = new LinkedHashSet<Coordinate>();
-        for (val dependency : module.getDependencies()) {
-          val depcoord = dependency.getCoordinate();
-          if (!(prospective.containsKey(depcoord))) {
-            unsatisfied.add(depcoord);
-          }
+    val snapshot = current;
+    val prospective = coordinatesOf(modules);
+    val results = new LinkedHashSet<UnsatisfiedDependencySet>();
+    for (val module : modules) {
+      val unsatisfied = new LinkedHashSet<Coordinate>();
+      for (val dependency : module.getDependencies()) {
+        val depcoord = dependency.getCoordinate();
+        if (!(prospective.contains(depcoord) || snapshot.modules.containsKey(depcoord))) {
+          unsatisfied.add(depcoord);
         }
+      }
 
-        if (unsatisfied.isEmpty()) {
-          results.add(new UnsatisfiedDependencySet(module.getCoordinate(), Collections.emptySet()));
-        } else {
-          results.add(new UnsatisfiedDependencySet(module.getCoordinate(), unsatisfied));
-        }
+      if (unsatisfied.isEmpty()) {
+        results.add(new UnsatisfiedDependencySet(module.getCoordinate(), Collections.emptySet()));
+      } else {
+        results.add(new UnsatisfiedDependencySet(module.getCoordinate(), unsatisfied));
       }
-      return results;
     }
+    return results;
   }
 
+  /** all of modules are applied to a single copy, which is published once */
   @Override
   public Set<UnsatisfiedDependencySet> addAll(Collection<Module> modules) {
     synchronized (lock) {
-      val prospective = resolveInstallationGroupModules(modules);
+      val snapshot = current;
+      val prospective = coordinatesOf(modules);
       val results = new LinkedHashSet<UnsatisfiedDependencySet>();
+      val accepted = new ArrayList<Module>(modules.size());
       for (val module : modules) {
         val unsatisfied = new LinkedHashSet<Coordinate>();
         for (val dependency : module.getDependencies()) {
           val depcoord = dependency.getCoordinate();
-          if (!(prospective.containsKey(depcoord) || dependency.isOptional())) {
+          if (!(prospective.contains(depcoord)
+              || snapshot.modules.containsKey(depcoord)
+              || dependency.isOptional())) {
             unsatisfied.add(depcoord);
           }
         }
         if (unsatisfied.isEmpty()) {
           results.add(new UnsatisfiedDependencySet(module.getCoordinate(), Collections.emptySet()));
-          val coordinate = module.getCoordinate();
-          this.modules.put(coordinate, module);
-          dependencyGraph.add(coordinate);
-          for (val dep : module.getDependencies()) {
-            dependencyGraph.connect(
-                coordinate, dep.getCoordinate(), DirectedGraph.outgoing(dep.getCoordinate()));
-          }
+          accepted.add(module);
         } else {
           results.add(new UnsatisfiedDependencySet(module.getCoordinate(), unsatisfied));
         }
       }
+      if (!accepted.isEmpty()) {
+        current = snapshot.with(accepted);
+      }
       return results;
     }
   }
@@ -191,167 +200,241 @@ public final class DefaultDependencyGraph implements DependencyGraph, Cloneable
   public void remove(Module module) {
     synchronized (lock) {
       val coord = module.getCoordinate();
-      dependencyGraph.remove(coord);
-      modules.remove(coord);
+      val snapshot = current;
+      val order = snapshot.order == null ? null : snapshot.order.without(coord);
+      val closure = snapshot.closure.without(coord, snapshot.dependencyGraph);
+      val next = snapshot.copy(order, closure);
+      next.dependencyGraph.remove(coord);
+      next.modules.remove(coord);
+      next.versions.remove(coord);
+      current = next;
     }
   }
 
   @Override
   public Module get(Coordinate coordinate) {
-    synchronized (lock) {
-      return modules.get(coordinate);
-    }
+    return current.modules.get(coordinate);
   }
 
   @Override
   public Collection<Module> getDependents(Coordinate coordinate) {
-    synchronized (lock) {
-      val module = modules.get(coordinate);
-      if (module == null) {
-        return Collections.emptySet();
-      }
-      val dependents = dependencyGraph.getDependents(coordinate, EdgeFilters.acceptAll());
-      val results = new LinkedHashSet<Module>();
-      for (val dependent : dependents) {
-        results.add(modules.get(dependencyGraph.getSource(dependent)));
-      }
-      return results;
+    val snapshot = current;
+    val module = snapshot.modules.get(coordinate);
+    if (module == null) {
+      return Collections.emptySet();
+    }
+    val graph = snapshot.dependencyGraph;
+    val dependents = graph.getDependents(coordinate, EdgeFilters.acceptAll());
+    val results = new LinkedHashSet<Module>();
+    for (val dependent : dependents) {
+      results.add(snapshot.modules.get(graph.getSource(dependent)));
     }
+    return results;
   }
 
   @Override
   public Set<Module> getDependencies(Coordinate coordinate) {
-    synchronized (lock) {
-      val neighbors = dependencyGraph.neighbors(coordinate);
-      val result = new LinkedHashSet<Module>(neighbors.size());
-      for (val neighbor : neighbors) {
-        result.add(modules.get(neighbor));
-      }
-      return result;
+    val snapshot = current;
+    val neighbors = snapshot.dependencyGraph.neighbors(coordinate);
+    val result = new LinkedHashSet<Module>(neighbors.size());
+    for (val neighbor : neighbors) {
+      result.add(snapshot.modules.get(neighbor));
     }
+    return result;
+  }
+
+  @Override
+  public Set<Coordinate> getTransitiveDependencies(Coordinate coordinate) {
+    return current.closure.getDependencies(coordinate);
+  }
+
+  @Override
+  public Set<Coordinate> getTransitiveDependents(Coordinate coordinate) {
+    return current.closure.getDependents(coordinate);
+  }
+
+  @Override
+  public boolean dependsOn(Coordinate dependent, Coordinate dependency) {
+    return current.closure.dependsOn(dependent, dependency);
   }
 
   @Override
   public boolean contains(Coordinate coordinate) {
-    synchronized (lock) {
-      return modules.containsKey(coordinate);
-    }
+    return current.modules.containsKey(coordinate);
   }
 
   @Override
   public Partition<DirectedGraph.Edge<Coordinate>, Coordinate> computeCycles() {
-    synchronized (lock) {
+    return new StronglyConnectedComponents<DirectedGraph.Edge<Coordinate>, Coordinate>()
+        .apply(current.dependencyGraph);
+  }
+
+  /**
+   * inserts only the edges modules add into the snapshot's topological order, searching just the
+   * vertices between their endpoints. That settles the common, acyclic case. If an edge closes a
+   * cycle, or a cycle was ever added to this graph and there is no order to maintain, the
+   * snapshot's graph is searched whole, along with modules' edges, so that every cycle is reported
+   */
+  @Override
+  public Partition<DirectedGraph.Edge<Coordinate>, Coordinate> computeCycles(
+      Collection<Module> modules) {
+    val snapshot = current;
+    if (snapshot.order != null
+        && !snapshot.order.insert(snapshot.dependencyGraph, modules).isCyclic()) {
       return new StronglyConnectedComponents<DirectedGraph.Edge<Coordinate>, Coordinate>()
-          .apply(dependencyGraph);
+          .apply(new AbstractDirectedGraph<>());
     }
+    return CycleSearch.search(snapshot.dependencyGraph, modules);
   }
 
+  /** snapshots are immutable, so the clone shares this graph's until either is written to */
   @Override
   @SuppressWarnings({"PMD.ProperCloneImplementation", "CloneMethodReturnTypeMustMatchClassName"})
   public DefaultDependencyGraph clone() {
-    synchronized (lock) {
-      return new DefaultDependencyGraph(this);
-    }
+    return new DefaultDependencyGraph(this);
   }
 
   @Override
   public Iterator<Module> iterator() {
-    synchronized (lock) {
-      return modules.values().iterator();
-    }
+    return Collections.unmodifiableCollection(current.modules.values()).iterator();
   }
 
   @Override
   public String toString() {
-    return new GraphWriter<DirectedGraph.Edge<Coordinate>, Coordinate>().write(dependencyGraph);
+    return new GraphWriter<DirectedGraph.Edge<Coordinate>, Coordinate>()
+        .write(current.dependencyGraph);
   }
 
-  private Map<Coordinate, Module> resolveInstallationGroupModules(Collection<Module> modules) {
-    synchronized (lock) {
-      val prospective = new HashMap<>(this.modules);
-      for (val module : modules) {
-        prospective.put(module.getCoordinate(), module);
-      }
-      return prospective;
+  private static Set<Coordinate> coordinatesOf(Collection<Module> modules) {
+    val result = new HashSet<Coordinate>(modules.size());
+    for (val module : modules) {
+      result.add(module.getCoordinate());
     }
+    return result;
   }
 
   private void resolveDependenciesFor(
+      Snapshot snapshot,
       Module module,
       Set<UnsatisfiedDependencySet> results,
-      Map<Coordinate, Module> installationGroupModules) {
-    synchronized (lock) {
-      val unsatisfied = new HashSet<Coordinate>();
-      val unsatisifiedDependencySet =
-          new UnsatisfiedDependencySet(module.getCoordinate(), unsatisfied);
-      for (val dependency : module.getDependencies()) {
-        resolveDependency(module, dependency, unsatisfied, installationGroupModules);
-        if (!unsatisfied.isEmpty()) {
-          results.add(unsatisifiedDependencySet);
-        }
+      VersionIndex installationGroup) {
+    val unsatisfied = new HashSet<Coordinate>();
+    val unsatisifiedDependencySet =
+        new UnsatisfiedDependencySet(module.getCoordinate(), unsatisfied);
+    for (val dependency : module.getDependencies()) {
+      resolveDependency(snapshot, module, dependency, unsatisfied, installationGroup);
+      if (!unsatisfied.isEmpty()) {
+        results.add(unsatisifiedDependencySet);
       }
     }
   }
 
   private void resolveDependency(
+      Snapshot snapshot,
       Module module,
       Dependency dependency,
       Set<Coordinate> results,
-      Map<Coordinate, Module> installationGroupModules) {
-    synchronized (lock) {
-      val matching = collectMatchingFrom(dependency, installationGroupModules);
-      if (matching.isEmpty() && !dependency.isOptional()) {
-        results.add(new UnvalidatedCoordinate(dependency.getCoordinateSpecification()));
-      } else if (dependency.isOptional() && matching.isEmpty()) {
-        dependency.setCoordinate(
-            ModuleCoordinate.createUnresolvedCoordinate(dependency.getCoordinateSpecification()));
-      } else if (!matching.isEmpty()) {
-        Collections.sort(matching);
-        val fst = matching.get(matching.size() - 1);
-        if (log.isLoggable(Level.INFO)) {
-          log.log(
-              Level.INFO,
-              "dependency.graph.selected.module.prelude",
-              new Object[] {dependency, module.getCoordinate().toCanonicalForm()});
-          for (val dep : matching) {
-            log.log(Level.INFO, "dependency.graph.selected.module.node", dep.getCoordinate());
-          }
-        }
-        dependency.setCoordinate(fst.getCoordinate());
+      VersionIndex installationGroup) {
+    val match = bestMatch(snapshot, dependency, installationGroup);
+    if (match == null && !dependency.isOptional()) {
+      results.add(new UnvalidatedCoordinate(dependency.getCoordinateSpecification()));
+    } else if (match == null) {
+      dependency.setCoordinate(
+          ModuleCoordinate.createUnresolvedCoordinate(dependency.getCoordinateSpecification()));
+    } else {
+      if (log.isLoggable(Level.INFO)) {
+        log.log(
+            Level.INFO,
+            "dependency.graph.selected.module.prelude",
+            new Object[] {dependency, module.getCoordinate().toCanonicalForm()});
+        log.log(Level.INFO, "dependency.graph.selected.module.node", match.getCoordinate());
       }
+      dependency.setCoordinate(match.getCoordinate());
     }
   }
 
   /**
-   * process:
-   *
-   * <p>1. Search through existing modules. Add to list 2. Search through installation group
-   * modules, add to list 3. If not empty, sort coordinate ascending 4. Pick first as resolution 5.
-   * If empty, add unresolved dependency to dependency set
-   *
+   * @param snapshot the snapshot holding the installed modules
    * @param dependency the dependency to resolve
-   * @param installationGroupModules the current installation group
-   * @return a list of matching dependencies ordered version ascending
+   * @param installationGroup the modules being installed alongside the dependent
+   * @return the greatest version satisfying dependency among both, preferring the installation
+   *     group's module on a tie, or null if neither has one
    */
-  private List<Module> collectMatchingFrom(
-      Dependency dependency, Map<Coordinate, Module> installationGroupModules) {
-    synchronized (lock) {
-      val spec = dependency.getCoordinateSpecification();
-      val query = ModuleCoordinate.group(spec.getGroup()).name(spec.getName());
-      val existing =
-          getModules(query).stream()
-              .filter(f -> f.getCoordinate().satisfies(spec.getVersionSpecification()))
-              .collect(Collectors.toList());
-
-      for (val module : installationGroupModules.values()) {
+  private static Module bestMatch(
+      Snapshot snapshot, Dependency dependency, VersionIndex installationGroup) {
+    val spec = dependency.getCoordinateSpecification();
+    val installed = snapshot.versions.bestMatch(spec);
+    val installing = installationGroup.bestMatch(spec);
+    if (installed == null) {
+      return installing;
+    }
+    if (installing == null) {
+      return installed;
+    }
+    val order =
+        installed.getCoordinate().getVersion().compareTo(installing.getCoordinate().getVersion());
+    return order > 0 ? installed : installing;
+  }
+
+  /** an immutable version of the graph. Only writers holding the lock touch an unpublished copy */
+  static final class Snapshot {
+    final long version;
+    final TrieMap<Coordinate, Module> modules;
+    final Graph<DirectedGraph.Edge<Coordinate>, Coordinate> dependencyGraph;
+    final VersionIndex versions;
+
+    /** a topological order of dependencyGraph, or null if it is cyclic */
+    final TopologicalOrder order;
+
+    final TransitiveClosure closure;
+
+    Snapshot(
+        long version,
+        TrieMap<Coordinate, Module> modules,
+        Graph<DirectedGraph.Edge<Coordinate>, Coordinate> dependencyGraph,
+        VersionIndex versions,
+        TopologicalOrder order,
+        TransitiveClosure closure) {
+      this.version = version;
+      this.modules = modules;
+      this.dependencyGraph = dependencyGraph;
+      this.versions = versions;
+      this.order = order;
+      this.closure = closure;
+    }
+
+    /** @return the next version of this snapshot, with modules added */
+    Snapshot with(Collection<Module> modules) {
+      TopologicalOrder nextOrder = null;
+      if (order != null) {
+        val insertion = order.insert(dependencyGraph, modules);
+        if (!insertion.isCyclic()) {
+          nextOrder = insertion.apply();
+        }
+      }
+      val next = copy(nextOrder, closure.with(modules));
+      for (val module : modules) {
         val coordinate = module.getCoordinate();
-        if (Objects.equals(coordinate.getGroup(), spec.getGroup())
-            && Objects.equals(coordinate.getName(), spec.getName())
-            && coordinate.satisfies(spec.getVersionSpecification())) {
-          existing.add(module);
+        next.modules.put(coordinate, module);
+        next.versions.put(module);
+        next.dependencyGraph.add(coordinate);
+        for (val dep : module.getDependencies()) {
+          next.dependencyGraph.connect(
+              coordinate, dep.getCoordinate(), DirectedGraph.outgoing(dep.getCoordinate()));
         }
       }
-      return existing;
+      return next;
+    }
+
+    /** @return a modifiable copy of this snapshot, versioned after it */
+    Snapshot copy(TopologicalOrder order, TransitiveClosure closure) {
+      return new Snapshot(
+          version + 1,
+          new CompactTrieMap<>(new CoordinateAnalyzer(), modules),
+          dependencyGraph.clone(),
+          versions.copy(),
+          order,
+          closure);
     }
   }
 }
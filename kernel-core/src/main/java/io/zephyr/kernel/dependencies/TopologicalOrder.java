@@ -0,0 +1,235 @@
+package io.zephyr.kernel.dependencies;
+
+import io.sunshower.gyre.DirectedGraph;
+import io.sunshower.gyre.EdgeFilters;
+import io.sunshower.gyre.Graph;
+import io.zephyr.kernel.Coordinate;
+import io.zephyr.kernel.Module;
+import java.util.ArrayDeque;
+import java.util.ArrayList;
+import java.util.Collection;
+import java.util.Collections;
+import java.util.Comparator;
+import java.util.HashMap;
+import java.util.HashSet;
+import java.util.List;
+import java.util.Map;
+import java.util.Set;
+import lombok.val;
+
+/**
+ * a topological order of a dependency graph, maintained incrementally (Pearce-Kelly). Every edge
+ * runs from a dependent at a lower position to its dependency at a higher one. Inserting an edge
+ * that runs against the order searches only the vertices positioned between its endpoints: if the
+ * dependent is reachable from the dependency among them the edge closes a cycle, otherwise they
+ * are reordered.
+ *
+ * <p>An order is never modified once published. An {@link Insertion} records its moves aside and
+ * {@link Insertion#apply()} writes them to a copy. Self-dependencies are not cycles
+ */
+@SuppressWarnings({"PMD.DataflowAnomalyAnalysis", "PMD.AvoidInstantiatingObjectsInLoops"})
+final class TopologicalOrder {
+
+  private final Map<Coordinate, Integer> positions;
+
+  /** new dependents are positioned below lowest, new dependencies above highest */
+  private final int lowest;
+
+  private final int highest;
+
+  TopologicalOrder() {
+    this(new HashMap<>(), 0, 0);
+  }
+
+  private TopologicalOrder(Map<Coordinate, Integer> positions, int lowest, int highest) {
+    this.positions = positions;
+    this.lowest = lowest;
+    this.highest = highest;
+  }
+
+  /** @return a copy of this order without coordinate. Removing a vertex never invalidates it */
+  TopologicalOrder without(Coordinate coordinate) {
+    if (!positions.containsKey(coordinate)) {
+      return this;
+    }
+    val result = new HashMap<>(positions);
+    result.remove(coordinate);
+    return new TopologicalOrder(result, lowest, highest);
+  }
+
+  /**
+   * @param graph the graph this order is for. It must not contain modules' edges yet
+   * @param modules the modules whose edges to insert
+   * @return the insertion, stopped at the first cycle if there is one. Only whether there is a
+   *     cycle is known then, not which: {@link CycleSearch} finds them all
+   */
+  Insertion insert(
+      Graph<DirectedGraph.Edge<Coordinate>, Coordinate> graph, Collection<Module> modules) {
+    val insertion = new Insertion(graph);
+    for (val module : modules) {
+      insertion.placeDependent(module.getCoordinate());
+    }
+    for (val module : modules) {
+      val coordinate = module.getCoordinate();
+      for (val dependency : module.getDependencies()) {
+        if (!insertion.connect(coordinate, dependency.getCoordinate())) {
+          return insertion;
+        }
+      }
+    }
+    return insertion;
+  }
+
+  final class Insertion {
+    final Graph<DirectedGraph.Edge<Coordinate>, Coordinate> graph;
+
+    /** the positions changed by this insertion */
+    final Map<Coordinate, Integer> moved;
+
+    /** the edges inserted so far, in both directions */
+    final Map<Coordinate, List<Coordinate>> dependencies;
+
+    final Map<Coordinate, List<Coordinate>> dependents;
+
+    int low;
+    int high;
+
+    /** true once an edge closed a cycle */
+    boolean cyclic;
+
+    Insertion(Graph<DirectedGraph.Edge<Coordinate>, Coordinate> graph) {
+      this.graph = graph;
+      this.moved = new HashMap<>();
+      this.dependencies = new HashMap<>();
+      this.dependents = new HashMap<>();
+      this.low = lowest;
+      this.high = highest;
+    }
+
+    boolean isCyclic() {
+      return cyclic;
+    }
+
+    /** @return a copy of the order with this insertion's moves. Only valid if not cyclic */
+    TopologicalOrder apply() {
+      val result = new HashMap<>(positions);
+      result.putAll(moved);
+      return new TopologicalOrder(result, low, high);
+    }
+
+    void placeDependent(Coordinate coordinate) {
+      if (position(coordinate) == null) {
+        moved.put(coordinate, --low);
+      }
+    }
+
+    /** @return false if the edge from dependent to dependency closes a cycle */
+    boolean connect(Coordinate dependent, Coordinate dependency) {
+      if (dependent.equals(dependency)) {
+        return true;
+      }
+      if (position(dependency) == null) {
+        moved.put(dependency, ++high);
+      }
+      val upper = position(dependent);
+      val lower = position(dependency);
+      if (lower < upper) {
+        val forward = new HashSet<Coordinate>();
+        if (!searchDependencies(dependency, dependent, upper, forward)) {
+          cyclic = true;
+          return false;
+        }
+        val backward = new HashSet<Coordinate>();
+        searchDependents(dependent, lower, backward);
+        reorder(backward, forward);
+      }
+      dependencies.computeIfAbsent(dependent, k -> new ArrayList<>()).add(dependency);
+      dependents.computeIfAbsent(dependency, k -> new ArrayList<>()).add(dependent);
+      return true;
+    }
+
+    /**
+     * collect the vertices reachable from start positioned below bound
+     *
+     * @return false if target was reached
+     */
+    private boolean searchDependencies(
+        Coordinate start, Coordinate target, int bound, Set<Coordinate> visited) {
+      val stack = new ArrayDeque<Coordinate>();
+      visited.add(start);
+      stack.push(start);
+      while (!stack.isEmpty()) {
+        val current = stack.pop();
+        for (val next : dependenciesOf(current)) {
+          if (next.equals(target)) {
+            return false;
+          }
+          if (position(next) < bound && visited.add(next)) {
+            stack.push(next);
+          }
+        }
+      }
+      return true;
+    }
+
+    /** collect the vertices start is reachable from positioned above bound */
+    private void searchDependents(Coordinate start, int bound, Set<Coordinate> visited) {
+      val stack = new ArrayDeque<Coordinate>();
+      visited.add(start);
+      stack.push(start);
+      while (!stack.isEmpty()) {
+        val current = stack.pop();
+        for (val next : dependentsOf(current)) {
+          if (position(next) > bound && visited.add(next)) {
+            stack.push(next);
+          }
+        }
+      }
+    }
+
+    /** move the dependents ahead of the dependencies, reusing the positions they occupy */
+    private void reorder(Collection<Coordinate> backward, Collection<Coordinate> forward) {
+      val byPosition = Comparator.comparing(this::position);
+      val vertices = new ArrayList<Coordinate>(backward.size() + forward.size());
+      vertices.addAll(backward);
+      vertices.sort(byPosition);
+      val dependencyStart = vertices.size();
+      vertices.addAll(forward);
+      vertices.subList(dependencyStart, vertices.size()).sort(byPosition);
+
+      val slots = new ArrayList<Integer>(vertices.size());
+      for (val vertex : vertices) {
+        slots.add(position(vertex));
+      }
+      Collections.sort(slots);
+      for (int i = 0; i < vertices.size(); i++) {
+        moved.put(vertices.get(i), slots.get(i));
+      }
+    }
+
+    private Integer position(Coordinate coordinate) {
+      val result = moved.get(coordinate);
+      return result == null ? positions.get(coordinate) : result;
+    }
+
+    private Collection<Coordinate> dependenciesOf(Coordinate coordinate) {
+      val added = dependencies.getOrDefault(coordinate, Collections.emptyList());
+      if (!positions.containsKey(coordinate)) {
+        return added;
+      }
+      val result = new ArrayList<Coordinate>(graph.neighbors(coordinate));
+      result.addAll(added);
+      return result;
+    }
+
+    private Collection<Coordinate> dependentsOf(Coordinate coordinate) {
+      val result = new ArrayList<>(dependents.getOrDefault(coordinate, Collections.emptyList()));
+      if (positions.containsKey(coordinate)) {
+        for (val edge : graph.getDependents(coordinate, EdgeFilters.acceptAll())) {
+          result.add(graph.getSource(edge));
+        }
+      }
+      return result;
+    }
+  }
+}
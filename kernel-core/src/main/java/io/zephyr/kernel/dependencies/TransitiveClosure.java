@@ -0,0 +1,242 @@
+package io.zephyr.kernel.dependencies;
+
+import io.sunshower.gyre.DirectedGraph;
+import io.sunshower.gyre.EdgeFilters;
+import io.sunshower.gyre.Graph;
+import io.zephyr.kernel.Coordinate;
+import io.zephyr.kernel.Module;
+import java.util.ArrayDeque;
+import java.util.ArrayList;
+import java.util.BitSet;
+import java.util.Collection;
+import java.util.Collections;
+import java.util.HashMap;
+import java.util.LinkedHashSet;
+import java.util.List;
+import java.util.Map;
+import java.util.Set;
+import lombok.val;
+
+/**
+ * the transitive closure of a dependency graph in both directions. Every vertex has a dense id, and
+ * a row per direction holding the ids of every vertex it reaches, so reachability is a bit test
+ * and the set of everything up- or downstream of a vertex is one row.
+ *
+ * <p>Adding an edge ors the rows on either side of it together; removing a vertex recomputes just
+ * the rows that reached it. A closure is never modified once published: a copy shares its rows and
+ * clones each at most once, the first time it writes to it
+ */
+@SuppressWarnings({"PMD.DataflowAnomalyAnalysis", "PMD.AvoidInstantiatingObjectsInLoops"})
+final class TransitiveClosure {
+
+  private final Map<Coordinate, Integer> ids;
+
+  /** by id. Null for a released id */
+  private final List<Coordinate> vertices;
+
+  /** by id: everything the vertex depends on, directly or not */
+  private final List<BitSet> dependencies;
+
+  /** by id: everything depending on the vertex, directly or not */
+  private final List<BitSet> dependents;
+
+  /** released ids, reused before the table grows */
+  private final ArrayDeque<Integer> released;
+
+  /** the rows this copy has cloned, and may therefore write to */
+  private final BitSet ownedDependencies;
+
+  private final BitSet ownedDependents;
+
+  TransitiveClosure() {
+    this(
+        new HashMap<>(),
+        new ArrayList<>(),
+        new ArrayList<>(),
+        new ArrayList<>(),
+        new ArrayDeque<>());
+  }
+
+  private TransitiveClosure(
+      Map<Coordinate, Integer> ids,
+      List<Coordinate> vertices,
+      List<BitSet> dependencies,
+      List<BitSet> dependents,
+      ArrayDeque<Integer> released) {
+    this.ids = ids;
+    this.vertices = vertices;
+    this.dependencies = dependencies;
+    this.dependents = dependents;
+    this.released = released;
+    this.ownedDependencies = new BitSet();
+    this.ownedDependents = new BitSet();
+  }
+
+  /** @return true if dependent depends on dependency, directly or not */
+  boolean dependsOn(Coordinate dependent, Coordinate dependency) {
+    val from = ids.get(dependent);
+    val to = ids.get(dependency);
+    return from != null && to != null && dependencies.get(from).get(to);
+  }
+
+  /** @return everything coordinate depends on, directly or not */
+  Set<Coordinate> getDependencies(Coordinate coordinate) {
+    return resolve(dependencies, coordinate);
+  }
+
+  /** @return everything depending on coordinate, directly or not */
+  Set<Coordinate> getDependents(Coordinate coordinate) {
+    return resolve(dependents, coordinate);
+  }
+
+  /** @return a copy of this closure with the modules and their edges added */
+  TransitiveClosure with(Collection<Module> modules) {
+    val result = copy();
+    for (val module : modules) {
+      val dependent = result.idOf(module.getCoordinate());
+      result.vertices.set(dependent, module.getCoordinate());
+      for (val dependency : module.getDependencies()) {
+        result.connect(dependent, result.idOf(dependency.getCoordinate()));
+      }
+    }
+    return result;
+  }
+
+  /**
+   * @param coordinate the vertex to remove
+   * @param graph the graph coordinate is removed from. Searches do not pass through coordinate
+   * @return a copy of this closure without coordinate
+   */
+  TransitiveClosure without(
+      Coordinate coordinate, Graph<DirectedGraph.Edge<Coordinate>, Coordinate> graph) {
+    val id = ids.get(coordinate);
+    if (id == null) {
+      return this;
+    }
+    val result = copy();
+    val upstream = dependents.get(id);
+    val downstream = dependencies.get(id);
+    result.ids.remove(coordinate);
+    result.vertices.set(id, null);
+    result.dependencies.set(id, new BitSet());
+    result.dependents.set(id, new BitSet());
+    result.released.push(id);
+    for (int i = upstream.nextSetBit(0); i >= 0; i = upstream.nextSetBit(i + 1)) {
+      if (i != id) {
+        result.dependencies.set(i, result.search(graph, vertices.get(i), true));
+        result.ownedDependencies.set(i);
+      }
+    }
+    for (int i = downstream.nextSetBit(0); i >= 0; i = downstream.nextSetBit(i + 1)) {
+      if (i != id) {
+        result.dependents.set(i, result.search(graph, vertices.get(i), false));
+        result.ownedDependents.set(i);
+      }
+    }
+    return result;
+  }
+
+  private TransitiveClosure copy() {
+    return new TransitiveClosure(
+        new HashMap<>(ids),
+        new ArrayList<>(vertices),
+        new ArrayList<>(dependencies),
+        new ArrayList<>(dependents),
+        new ArrayDeque<>(released));
+  }
+
+  private int idOf(Coordinate coordinate) {
+    val existing = ids.get(coordinate);
+    if (existing != null) {
+      return existing;
+    }
+    final int id;
+    if (released.isEmpty()) {
+      id = vertices.size();
+      vertices.add(coordinate);
+      dependencies.add(new BitSet());
+      dependents.add(new BitSet());
+    } else {
+      id = released.pop();
+      vertices.set(id, coordinate);
+    }
+    ids.put(coordinate, id);
+    return id;
+  }
+
+  /** everything reaching dependent now reaches dependency and everything dependency reaches */
+  private void connect(int dependent, int dependency) {
+    if (dependent == dependency || dependencies.get(dependent).get(dependency)) {
+      return;
+    }
+    val downstream = (BitSet) dependencies.get(dependency).clone();
+    downstream.set(dependency);
+    val upstream = (BitSet) dependents.get(dependent).clone();
+    upstream.set(dependent);
+    for (int i = upstream.nextSetBit(0); i >= 0; i = upstream.nextSetBit(i + 1)) {
+      writable(dependencies, ownedDependencies, i).or(downstream);
+    }
+    for (int i = downstream.nextSetBit(0); i >= 0; i = downstream.nextSetBit(i + 1)) {
+      writable(dependents, ownedDependents, i).or(upstream);
+    }
+  }
+
+  private static BitSet writable(List<BitSet> rows, BitSet owned, int id) {
+    if (!owned.get(id)) {
+      rows.set(id, (BitSet) rows.get(id).clone());
+      owned.set(id);
+    }
+    return rows.get(id);
+  }
+
+  /**
+   * @return the ids of everything reachable from start in graph, following dependencies or
+   *     dependents. Like {@link #connect(int, int)}, this ignores self-dependencies
+   */
+  private BitSet search(
+      Graph<DirectedGraph.Edge<Coordinate>, Coordinate> graph,
+      Coordinate start,
+      boolean followDependencies) {
+    val result = new BitSet();
+    val stack = new ArrayDeque<Coordinate>();
+    stack.push(start);
+    while (!stack.isEmpty()) {
+      val current = stack.pop();
+      for (val next : adjacent(graph, current, followDependencies)) {
+        val id = ids.get(next);
+        if (id != null && !next.equals(current) && !result.get(id)) {
+          result.set(id);
+          stack.push(next);
+        }
+      }
+    }
+    return result;
+  }
+
+  private static Collection<Coordinate> adjacent(
+      Graph<DirectedGraph.Edge<Coordinate>, Coordinate> graph,
+      Coordinate coordinate,
+      boolean followDependencies) {
+    if (followDependencies) {
+      return graph.neighbors(coordinate);
+    }
+    val result = new ArrayList<Coordinate>();
+    for (val edge : graph.getDependents(coordinate, EdgeFilters.acceptAll())) {
+      result.add(graph.getSource(edge));
+    }
+    return result;
+  }
+
+  private Set<Coordinate> resolve(List<BitSet> rows, Coordinate coordinate) {
+    val id = ids.get(coordinate);
+    if (id == null) {
+      return Collections.emptySet();
+    }
+    val row = rows.get(id);
+    val result = new LinkedHashSet<Coordinate>(row.cardinality());
+    for (int i = row.nextSetBit(0); i >= 0; i = row.nextSetBit(i + 1)) {
+      result.add(vertices.get(i));
+    }
+    return result;
+  }
+}
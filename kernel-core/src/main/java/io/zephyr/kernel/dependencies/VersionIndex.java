@@ -0,0 +1,147 @@
+package io.zephyr.kernel.dependencies;
+
+import io.zephyr.kernel.Coordinate;
+import io.zephyr.kernel.CoordinateSpecification;
+import io.zephyr.kernel.Module;
+import io.zephyr.kernel.Version;
+import io.zephyr.kernel.core.SemanticVersion;
+import java.util.Collection;
+import java.util.Collections;
+import java.util.HashMap;
+import java.util.Map;
+import java.util.NavigableMap;
+import java.util.TreeMap;
+import java.util.regex.Pattern;
+import lombok.val;
+
+/**
+ * modules by <code>group:name</code>, each row sorted by version. Rows are never modified once
+ * published: {@link #copy()} shares them, and writes to the copy replace the rows they touch.
+ *
+ * <p>An exact version is a single lookup and an ivy interval narrows the row to its bounds before
+ * testing, so both run in O(log v). Intervals are recognized exactly as semver4j's ivy parser
+ * does: <code>[1.0,2.0[</code>, <code>(,2.0]</code> and <code>[1.0,)</code>, either bracket facing
+ * either way on a bounded side. Any other range walks its row downward and stops at the first
+ * version that satisfies it
+ */
+@SuppressWarnings("PMD.AvoidLiteralsInIfCondition")
+final class VersionIndex {
+
+  static final Pattern exact = Pattern.compile("\\d+\\.\\d+\\.\\d+(-[0-9A-Za-z.-]+)?");
+
+  /** the lower bound is group 1, the upper bound group 2, or group 3 if there is no lower bound */
+  static final Pattern interval =
+      Pattern.compile(
+          "(?:[\\[\\]]([\\d.]+),(?:([\\d.]+)[\\[\\]]|\\))|\\(,([\\d.]+)[\\[\\]])");
+
+  private final Map<String, NavigableMap<Version, Module>> rows;
+
+  VersionIndex() {
+    rows = new HashMap<>();
+  }
+
+  private VersionIndex(VersionIndex index) {
+    rows = new HashMap<>(index.rows);
+  }
+
+  /** @return an index over modules alone */
+  static VersionIndex of(Collection<Module> modules) {
+    val result = new VersionIndex();
+    for (val module : modules) {
+      result.put(module);
+    }
+    return result;
+  }
+
+  /** @return a modifiable copy of this index sharing its rows */
+  VersionIndex copy() {
+    return new VersionIndex(this);
+  }
+
+  void put(Module module) {
+    val coordinate = module.getCoordinate();
+    val key = keyOf(coordinate.getGroup(), coordinate.getName());
+    val row = rows.get(key);
+    val next = row == null ? new TreeMap<Version, Module>() : new TreeMap<>(row);
+    next.put(coordinate.getVersion(), module);
+    rows.put(key, Collections.unmodifiableNavigableMap(next));
+  }
+
+  void remove(Coordinate coordinate) {
+    val key = keyOf(coordinate.getGroup(), coordinate.getName());
+    val row = rows.get(key);
+    if (row == null || !row.containsKey(coordinate.getVersion())) {
+      return;
+    }
+    if (row.size() == 1) {
+      rows.remove(key);
+      return;
+    }
+    val next = new TreeMap<>(row);
+    next.remove(coordinate.getVersion());
+    rows.put(key, Collections.unmodifiableNavigableMap(next));
+  }
+
+  /**
+   * @param specification the group, name and version range to match
+   * @return the module with the greatest version satisfying specification, or null if there is
+   *     none
+   */
+  Module bestMatch(CoordinateSpecification specification) {
+    val row = rows.get(keyOf(specification.getGroup(), specification.getName()));
+    if (row == null) {
+      return null;
+    }
+    val range = specification.getVersionSpecification();
+    if (exact.matcher(range).matches()) {
+      val module = row.get(new SemanticVersion(range));
+      if (module != null && module.getCoordinate().satisfies(range)) {
+        return module;
+      }
+    }
+    return highestSatisfying(narrow(row, range), range);
+  }
+
+  /**
+   * bounds are kept inclusive: satisfies() decides whether an endpoint belongs to the range. A
+   * range whose bounds are reversed matches nothing
+   */
+  private static NavigableMap<Version, Module> narrow(
+      NavigableMap<Version, Module> row, String range) {
+    val matcher = interval.matcher(range);
+    if (!matcher.matches()) {
+      return row;
+    }
+    val lower = boundOf(matcher.group(1));
+    val upper = boundOf(matcher.group(2) == null ? matcher.group(3) : matcher.group(2));
+    if (lower != null && upper != null && lower.compareTo(upper) > 0) {
+      return Collections.emptyNavigableMap();
+    }
+    NavigableMap<Version, Module> result = row;
+    if (lower != null) {
+      result = result.tailMap(lower, true);
+    }
+    if (upper != null) {
+      result = result.headMap(upper, true);
+    }
+    return result;
+  }
+
+  /** @return bound as a version, or null if it is absent or too partial to compare */
+  private static Version boundOf(String bound) {
+    return bound == null || !exact.matcher(bound).matches() ? null : new SemanticVersion(bound);
+  }
+
+  private static Module highestSatisfying(NavigableMap<Version, Module> row, String range) {
+    for (val module : row.descendingMap().values()) {
+      if (module.getCoordinate().satisfies(range)) {
+        return module;
+      }
+    }
+    return null;
+  }
+
+  private static String keyOf(String group, String name) {
+    return group + ':' + name;
+  }
+}
@@ -0,0 +1,204 @@
+package io.zephyr.kernel.events;
+
+import io.sunshower.lang.events.Event;
+import io.sunshower.lang.events.EventListener;
+import io.sunshower.lang.events.EventSource;
+import io.sunshower.lang.events.EventType;
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.BitSet;
+import java.util.List;
+import java.util.concurrent.atomic.AtomicBoolean;
+import lombok.NonNull;
+import lombok.val;
+
+/**
+ * the kernel's event source. Listeners are indexed by {@link EventType#getId()} in an array of
+ * immutable per-type snapshots, so dispatching an event reads one volatile field, indexes into the
+ * table and calls exactly the listeners registered for that type: no locks, no scanning and no
+ * iterator allocation. Adding and removing listeners copies the affected snapshots under a lock;
+ * listeners are registered rarely and dispatched to constantly.
+ *
+ * <p>A dispatch runs against the snapshot current when it started: a listener added during a
+ * dispatch is not called by it, and one removed during a dispatch may still be called by it.
+ * Listeners registered with {@link EventListener.Options#REMOVE_AFTER_DISPATCH} are called at most
+ * once, even under concurrent dispatch
+ */
+@SuppressWarnings({"PMD.AvoidUsingVolatile", "PMD.UseVarargs"})
+public class IndexedEventSource implements EventSource {
+
+  static final Registration[] EMPTY = new Registration[0];
+
+  /** serializes writers. Readers never take it */
+  private final Object writeLock = new Object();
+
+  /** listeners by event type id. Neither the table nor its rows are ever mutated in place */
+  private volatile Registration[][] table;
+
+  /** every registration, in registration order */
+  private volatile Registration[] registrations;
+
+  public IndexedEventSource() {
+    table = new Registration[0][];
+    registrations = EMPTY;
+  }
+
+  @Override
+  public int getListenerCount() {
+    return registrations.length;
+  }
+
+  @Override
+  public boolean listensFor(EventType... types) {
+    val current = table;
+    for (val type : types) {
+      val id = type.getId();
+      if (id < current.length && current[id] != null) {
+        return true;
+      }
+    }
+    return false;
+  }
+
+  @Override
+  public <T> void addEventListener(EventListener<T> listener, EventType... types) {
+    addEventListener(listener, EventListener.Options.NONE, types);
+  }
+
+  @Override
+  public <T> void addEventListener(
+      @NonNull EventListener<T> listener, int options, EventType... types) {
+    val registration = new Registration(listener, options, distinct(types));
+    synchronized (writeLock) {
+      Registration[][] next = table;
+      for (val type : registration.types) {
+        val id = type.getId();
+        if (id >= next.length) {
+          next = Arrays.copyOf(next, Math.max(id + 1, next.length * 2));
+        } else if (next == table) {
+          next = next.clone();
+        }
+        next[id] = append(next[id], registration);
+      }
+      table = next;
+      registrations = append(registrations, registration);
+    }
+  }
+
+  @Override
+  public <T> void removeEventListener(EventListener<T> listener) {
+    synchronized (writeLock) {
+      for (val registration : registrations) {
+        if (registration.listener.equals(listener)) {
+          remove(registration);
+        }
+      }
+    }
+  }
+
+  @Override
+  @SuppressWarnings("unchecked")
+  public <T> void dispatchEvent(EventType type, Event<T> event) {
+    val current = table;
+    val id = type.getId();
+    if (id >= current.length) {
+      return;
+    }
+    val row = current[id];
+    if (row == null) {
+      return;
+    }
+    for (int i = 0; i < row.length; i++) {
+      val registration = row[i];
+      if (registration.removeAfterDispatch) {
+        if (!registration.dispatched.compareAndSet(false, true)) {
+          continue;
+        }
+        synchronized (writeLock) {
+          remove(registration);
+        }
+      }
+      ((EventListener<T>) registration.listener).onEvent(type, event);
+    }
+  }
+
+  @Override
+  public List<EventListener<?>> getListeners() {
+    val current = registrations;
+    val result = new ArrayList<EventListener<?>>(current.length);
+    for (val registration : current) {
+      result.add(registration.listener);
+    }
+    return result;
+  }
+
+  /** must hold writeLock */
+  private void remove(Registration registration) {
+    val current = registrations;
+    val without = without(current, registration);
+    if (without == current) {
+      return;
+    }
+    val next = table.clone();
+    for (val type : registration.types) {
+      val id = type.getId();
+      val row = without(next[id], registration);
+      next[id] = row.length == 0 ? null : row;
+    }
+    table = next;
+    registrations = without;
+  }
+
+  private static Registration[] append(Registration[] row, Registration registration) {
+    if (row == null) {
+      return new Registration[] {registration};
+    }
+    val result = Arrays.copyOf(row, row.length + 1);
+    result[row.length] = registration;
+    return result;
+  }
+
+  /** @return row without registration, or row itself if it does not contain registration */
+  private static Registration[] without(Registration[] row, Registration registration) {
+    for (int i = 0; i < row.length; i++) {
+      if (row[i] == registration) {
+        val result = new Registration[row.length - 1];
+        System.arraycopy(row, 0, result, 0, i);
+        System.arraycopy(row, i + 1, result, i, row.length - i - 1);
+        return result;
+      }
+    }
+    return row;
+  }
+
+  private static EventType[] distinct(EventType[] types) {
+    val seen = new BitSet();
+    val result = new ArrayList<EventType>(types.length);
+    for (val type : types) {
+      val id = type.getId();
+      if (id < 0) {
+        throw new IllegalArgumentException("Event type " + type + " has a negative id");
+      }
+      if (!seen.get(id)) {
+        seen.set(id);
+        result.add(type);
+      }
+    }
+    return result.toArray(new EventType[0]);
+  }
+
+  static final class Registration {
+    final EventType[] types;
+    final EventListener<?> listener;
+    final boolean removeAfterDispatch;
+    final AtomicBoolean dispatched;
+
+    Registration(EventListener<?> listener, int options, EventType[] types) {
+      this.types = types;
+      this.listener = listener;
+      this.removeAfterDispatch =
+          EventListener.Options.isSet(EventListener.Options.REMOVE_AFTER_DISPATCH, options);
+      this.dispatched = new AtomicBoolean();
+    }
+  }
+}
@@ -5,6 +5,8 @@ import io.zephyr.common.io.FilePermissionChecker;
 import io.zephyr.common.io.Files;
 import io.zephyr.common.io.Strings;
 import io.zephyr.kernel.Options;
+import io.zephyr.kernel.concurrency.MpscTaskQueue;
+import io.zephyr.kernel.concurrency.RingBufferEventSource;
 import io.zephyr.kernel.core.AbstractValidatable;
 import io.zephyr.kernel.core.SunshowerKernel;
 import io.zephyr.kernel.log.Logging;
@@ -53,6 +55,66 @@ public class KernelOptions extends AbstractValidatable<KernelOptions>
       defaultValue = "2",
       type = Integer.class)
   private Integer kernelConcurrency = 10;
+  /**
+   * Run kernel and module tasks on virtual threads. Ignored (with a warning) by JVMs that do not
+   * support them
+   */
+  @Getter
+  @Setter
+  @CommandLine.Option(
+      names = {"--virtual-threads"},
+      defaultValue = "false")
+  private boolean virtualThreads;
+  /**
+   * Run each plugin's task queue on a virtual thread instead of a dedicated platform thread.
+   * Plugins may override this with the 'threading' attribute of their descriptor
+   */
+  @Getter
+  @Setter
+  @CommandLine.Option(
+      names = {"--virtual-module-threads"},
+      defaultValue = "false")
+  private boolean virtualModuleThreads;
+  /** Specify the maximum number of tasks that may be queued for a single module */
+  @Getter
+  @Setter
+  @CommandLine.Option(
+      names = {"--module-queue-capacity"},
+      defaultValue = "2147483647",
+      type = Integer.class)
+  private Integer moduleQueueCapacity = Integer.MAX_VALUE;
+  /**
+   * Specify what happens to a task scheduled on a module whose queue is full: Block the scheduling
+   * thread, DropOldest queued task, or Fail the new task
+   */
+  @Getter
+  @Setter
+  @CommandLine.Option(
+      names = {"--module-queue-overflow"},
+      defaultValue = "Block")
+  private MpscTaskQueue.Overflow moduleQueueOverflow = MpscTaskQueue.Overflow.Block;
+  /**
+   * Deliver kernel events asynchronously through a ring buffer of (at least) this many events. 0,
+   * the default, delivers events synchronously on the dispatching thread
+   */
+  @Getter
+  @Setter
+  @CommandLine.Option(
+      names = {"--event-buffer-size"},
+      defaultValue = "0",
+      type = Integer.class)
+  private Integer eventBufferSize = 0;
+  /**
+   * Specify what happens to a kernel event dispatched while the event buffer is full: Block the
+   * dispatching thread, Drop the event, or Fail the dispatch
+   */
+  @Getter
+  @Setter
+  @CommandLine.Option(
+      names = {"--event-backpressure"},
+      defaultValue = "Block")
+  private RingBufferEventSource.Backpressure eventBackpressure =
+      RingBufferEventSource.Backpressure.Block;
   /** Specify logging level. Defaults to Level.WARNING */
   @Getter
   @Setter
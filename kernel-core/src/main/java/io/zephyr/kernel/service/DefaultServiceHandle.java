@@ -0,0 +1,128 @@
+package io.zephyr.kernel.service;
+
+import io.zephyr.api.ServiceHandle;
+import io.zephyr.api.ServiceReference;
+import io.zephyr.api.ServiceRegistration;
+import io.zephyr.api.ServiceRegistry;
+import java.util.ArrayList;
+import java.util.Collections;
+import java.util.List;
+import lombok.NonNull;
+import lombok.ToString;
+import lombok.val;
+
+/**
+ * caches the registrations that provide a type, stamped with the registry epoch they were resolved
+ * at. An access compares the stamp against {@link ServiceRegistry#getEpoch()} and returns the
+ * cached resolution if nothing was registered or unregistered since. Otherwise the registrations
+ * are looked up again; if the change did not touch this type, the previous resolution (and the
+ * service it holds) is kept under the new stamp
+ */
+@ToString(of = "type")
+public class DefaultServiceHandle<T> implements ServiceHandle<T> {
+
+  private final Class<T> type;
+  private final ServiceRegistry registry;
+
+  /**
+   * resolutions are immutable and published through final fields, so a stale read only costs a
+   * redundant refresh
+   */
+  private Resolution<T> resolution;
+
+  public DefaultServiceHandle(@NonNull ServiceRegistry registry, @NonNull Class<T> type) {
+    this.type = type;
+    this.registry = registry;
+    this.resolution = new Resolution<>(-1, Collections.emptyList(), null);
+  }
+
+  @Override
+  public Class<T> getType() {
+    return type;
+  }
+
+  @Override
+  public boolean isAvailable() {
+    return !resolve().registrations.isEmpty();
+  }
+
+  @Override
+  public ServiceReference<T> getReference() {
+    val registrations = resolve().registrations;
+    return registrations.isEmpty() ? null : registrations.get(0).getReference();
+  }
+
+  @Override
+  public List<ServiceReference<T>> getReferences() {
+    val registrations = resolve().registrations;
+    val result = new ArrayList<ServiceReference<T>>(registrations.size());
+    for (val registration : registrations) {
+      result.add(registration.getReference());
+    }
+    return result;
+  }
+
+  @Override
+  public T get() {
+    return resolve().service;
+  }
+
+  private Resolution<T> resolve() {
+    val current = resolution;
+    val epoch = registry.getEpoch();
+    if (current.epoch == epoch) {
+      return current;
+    }
+    return refresh(current, epoch);
+  }
+
+  /** epoch must be read before the lookup so that a concurrent change forces another refresh */
+  private Resolution<T> refresh(Resolution<T> current, long epoch) {
+    val registrations = registry.getRegistrations(type);
+    final Resolution<T> next;
+    if (sameRegistrations(current.registrations, registrations)) {
+      next = new Resolution<>(epoch, current.registrations, current.service);
+    } else if (registrations.isEmpty()) {
+      next = new Resolution<>(epoch, registrations, null);
+    } else if (sameFirst(current.registrations, registrations)) {
+      next = new Resolution<>(epoch, registrations, current.service);
+    } else {
+      val definition = registrations.get(0).getReference().getDefinition();
+      next = new Resolution<>(epoch, registrations, definition.get());
+    }
+    resolution = next;
+    return next;
+  }
+
+  @SuppressWarnings("PMD.CompareObjectsWithEquals")
+  private static <T> boolean sameFirst(
+      List<ServiceRegistration<T>> previous, List<ServiceRegistration<T>> current) {
+    return !previous.isEmpty() && previous.get(0) == current.get(0);
+  }
+
+  @SuppressWarnings("PMD.CompareObjectsWithEquals")
+  private static <T> boolean sameRegistrations(
+      List<ServiceRegistration<T>> previous, List<ServiceRegistration<T>> current) {
+    if (previous.size() != current.size()) {
+      return false;
+    }
+    for (int i = 0; i < previous.size(); i++) {
+      if (previous.get(i) != current.get(i)) {
+        return false;
+      }
+    }
+    return true;
+  }
+
+  static final class Resolution<T> {
+    final long epoch;
+    final List<ServiceRegistration<T>> registrations;
+    final T service;
+
+    Resolution(long epoch, List<ServiceRegistration<T>> registrations, T service) {
+      this.epoch = epoch;
+      this.registrations = registrations;
+      this.service = service;
+    }
+  }
+}
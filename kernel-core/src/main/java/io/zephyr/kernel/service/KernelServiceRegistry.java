@@ -7,9 +7,20 @@ import io.zephyr.kernel.Coordinate;
 import io.zephyr.kernel.Module;
 import io.zephyr.kernel.core.Kernel;
 import io.zephyr.kernel.log.Logging;
-import java.util.HashMap;
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.Collection;
+import java.util.Collections;
+import java.util.Comparator;
+import java.util.LinkedHashMap;
+import java.util.LinkedHashSet;
+import java.util.List;
 import java.util.Map;
+import java.util.Set;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.atomic.AtomicLong;
 import java.util.logging.Logger;
+import lombok.AllArgsConstructor;
 import lombok.NonNull;
 import lombok.ToString;
 import lombok.val;
@@ -21,11 +32,44 @@ public class KernelServiceRegistry implements ServiceRegistry {
   /** private state */
   private Kernel kernel;
 
-  /** immutable state */
+  /**
+   * every class a lookup for the key class must consult: itself, its superclasses, interfaces and
+   * Object, which an interface's lineage would otherwise lack
+   */
+  static final ClassValue<Class<?>[]> lineage =
+      new ClassValue<>() {
+        @Override
+        protected Class<?>[] computeValue(Class<?> type) {
+          val result = new LinkedHashSet<Class<?>>();
+          collectLineage(type, result);
+          result.add(Object.class);
+          return result.toArray(new Class<?>[0]);
+        }
+      };
+
+  /** immutable state. Written under its own lock, read without one */
   final Map<Coordinate, ModuleServiceRegistry> registries;
 
+  /**
+   * live registrations by their declared type. Rows are immutable and replaced wholesale under the
+   * registries lock, so lookups read them without locking
+   */
+  final Map<Class<?>, Entry[]> index;
+
+  /** the same rows, keyed by the name of the declared type */
+  final Map<String, Entry[]> byTypeName;
+
+  final AtomicLong sequence;
+
+  /** advanced after every change to the index, under the registries lock */
+  final AtomicLong epoch;
+
   public KernelServiceRegistry() {
-    this.registries = new HashMap<>(0);
+    this.registries = new ConcurrentHashMap<>(0);
+    this.index = new ConcurrentHashMap<>();
+    this.byTypeName = new ConcurrentHashMap<>();
+    this.sequence = new AtomicLong();
+    this.epoch = new AtomicLong();
   }
 
   @Override
@@ -41,25 +85,120 @@ public class KernelServiceRegistry implements ServiceRegistry {
     return kernel;
   }
 
+  /**
+   * events are scheduled once the registries lock is released, so that a module whose queue is full
+   * stalls only its own registrations
+   */
   @Override
   public <T> ServiceRegistration<T> register(Module module, ServiceDefinition<T> definition) {
+    final DefaultServiceRegistration<T> registration;
+    synchronized (registries) {
+      val registry = registryFor(module);
+      registration = createRegistration(module, registry, definition);
+      registry.register(registration);
+      index(registration, definition);
+      epoch.incrementAndGet();
+    }
+    new ServiceEventDispatchTask(module, ServiceEvents.REGISTERED, registration.getReference())
+        .schedule();
+    return registration;
+  }
 
+  /**
+   * the module's registration set is replaced once, the epoch advances once and a single {@link
+   * ServiceEvents#REGISTERED_BATCH} is scheduled on the module's queue
+   */
+  @Override
+  public List<ServiceRegistration<?>> registerAll(
+      Module module, Collection<? extends ServiceDefinition<?>> definitions) {
+    if (definitions.isEmpty()) {
+      return Collections.emptyList();
+    }
+    val result = new ArrayList<ServiceRegistration<?>>(definitions.size());
+    val references = new ArrayList<ServiceReference<?>>(definitions.size());
     synchronized (registries) {
-      val coordinate = module.getCoordinate();
-      var registry = registries.get(coordinate);
-      if (registry == null) {
-        registry = new ModuleServiceRegistry(module, this);
-        registries.put(coordinate, registry);
+      val registry = registryFor(module);
+      for (val definition : definitions) {
+        val registration = createRegistration(module, registry, definition);
+        result.add(registration);
+        references.add(registration.getReference());
       }
-      val reference = new DefaultServiceReference<T>(module, definition);
-      val registration = new DefaultServiceRegistration<T>(reference, registry, definition);
-      registry.register(registration);
-      module
-          .getTaskQueue()
-          .schedule(
-              new ServiceEventDispatchTask(ServiceEvents.REGISTERED, registration.getReference()));
-      return registration;
+      registry.registrations.addAll(result);
+      for (val registration : result) {
+        index(registration, registration.getReference().getDefinition());
+      }
+      epoch.incrementAndGet();
     }
+    new ServiceEventDispatchTask(module, ServiceEvents.REGISTERED_BATCH, references).schedule();
+    return result;
+  }
+
+  /**
+   * each owning module's registration set is replaced once, the epoch advances once and a single
+   * {@link ServiceEvents#UNREGISTERED_BATCH} is scheduled on each owning module's queue
+   */
+  @Override
+  @SuppressWarnings("PMD.CompareObjectsWithEquals")
+  public void unregisterAll(Collection<? extends ServiceRegistration<?>> registrations) {
+    val events = new ArrayList<ServiceEventDispatchTask>();
+    synchronized (registries) {
+      for (val registration : registrations) {
+        if (!(registration instanceof DefaultServiceRegistration)
+            || ((DefaultServiceRegistration<?>) registration).registry.registry != this) {
+          throw new IllegalArgumentException(
+              "Registration " + registration + " does not belong to this registry");
+        }
+      }
+      val removed = new LinkedHashMap<ModuleServiceRegistry, Set<ServiceRegistration<?>>>();
+      for (val registration : registrations) {
+        if (unindex(registration)) {
+          removed
+              .computeIfAbsent(
+                  ((DefaultServiceRegistration<?>) registration).registry,
+                  owner -> new LinkedHashSet<>())
+              .add(registration);
+        }
+      }
+      if (removed.isEmpty()) {
+        return;
+      }
+      for (val batch : removed.entrySet()) {
+        val owner = batch.getKey();
+        owner.registrations.removeAll(batch.getValue());
+        val coordinate = owner.module.getCoordinate();
+        if (owner.registrations.isEmpty() && registries.get(coordinate) == owner) {
+          registries.remove(coordinate);
+        }
+        val references = new ArrayList<ServiceReference<?>>(batch.getValue().size());
+        for (val registration : batch.getValue()) {
+          references.add(registration.getReference());
+        }
+        events.add(
+            new ServiceEventDispatchTask(
+                owner.module, ServiceEvents.UNREGISTERED_BATCH, references));
+      }
+      epoch.incrementAndGet();
+    }
+    for (val event : events) {
+      event.schedule();
+    }
+  }
+
+  /** must hold the registries lock */
+  private ModuleServiceRegistry registryFor(Module module) {
+    val coordinate = module.getCoordinate();
+    ModuleServiceRegistry registry = registries.get(coordinate);
+    if (registry == null) {
+      registry = new ModuleServiceRegistry(module, this);
+      registries.put(coordinate, registry);
+    }
+    return registry;
+  }
+
+  private static <T> DefaultServiceRegistration<T> createRegistration(
+      Module module, ModuleServiceRegistry registry, ServiceDefinition<T> definition) {
+    val reference = new DefaultServiceReference<T>(module, definition);
+    return new DefaultServiceRegistration<T>(reference, registry, definition);
   }
 
   @Override
@@ -67,52 +206,195 @@ public class KernelServiceRegistry implements ServiceRegistry {
     definition.dispose();
   }
 
+  @Override
+  public long getEpoch() {
+    return epoch.get();
+  }
+
   @Override
   public ServiceRegistrationSet getRegistrations(Module module) {
-    synchronized (registries) {
-      val coordinate = module.getCoordinate();
-      return registries.get(coordinate);
-    }
+    return registries.get(module.getCoordinate());
   }
 
-  void notifyServiceUnregistered(ServiceRegistration<?> registration) {
-    synchronized (registries) {
-      val ref = registration.getReference();
-      val module = ref.getModule();
-      val coordinate = module.getCoordinate();
-      val moduleRegistry = registries.get(coordinate);
-
-      if (moduleRegistry == null) {
-        throw new IllegalStateException(
-            "Attempting to notify a service event for a non-existing module '" + coordinate + "'");
+  /**
+   * a registration of type D provides type T iff D is T or one of its supertypes, so a lookup
+   * consults the row of every class in T's lineage. Rows are merged back into registration order
+   * only if more than one contributes
+   */
+  @Override
+  @SuppressWarnings({"unchecked", "PMD.DataflowAnomalyAnalysis"})
+  public <T> List<ServiceRegistration<T>> getRegistrations(Class<T> type) {
+    Entry[] single = null;
+    List<Entry> merged = null;
+    for (val candidate : lineage.get(type)) {
+      val row = index.get(candidate);
+      if (row == null) {
+        continue;
       }
-      if (moduleRegistry.registrations.isEmpty()) {
-        registries.remove(coordinate);
+      if (single == null) {
+        single = row;
+      } else {
+        if (merged == null) {
+          merged = new ArrayList<>(Arrays.asList(single));
+        }
+        merged.addAll(Arrays.asList(row));
       }
-      //      new ServiceEventDispatchTask(ServiceEvents.UNREGISTERED,
-      // registration.getReference()).run();
-      module
-          .getTaskQueue()
-          .schedule(
-              new ServiceEventDispatchTask(
-                  ServiceEvents.UNREGISTERED, registration.getReference()));
     }
+    if (single == null) {
+      return Collections.emptyList();
+    }
+    final List<Entry> entries;
+    if (merged == null) {
+      entries = Arrays.asList(single);
+    } else {
+      merged.sort(Comparator.comparingLong(entry -> entry.sequence));
+      entries = merged;
+    }
+    val result = new ArrayList<ServiceRegistration<T>>(entries.size());
+    for (val entry : entries) {
+      result.add((ServiceRegistration<T>) entry.registration);
+    }
+    return result;
+  }
+
+  @Override
+  public List<ServiceRegistration<?>> getRegistrationsDeclaring(String typeName) {
+    val row = byTypeName.get(typeName);
+    if (row == null) {
+      return Collections.emptyList();
+    }
+    val result = new ArrayList<ServiceRegistration<?>>(row.length);
+    for (val entry : row) {
+      result.add(entry.registration);
+    }
+    return result;
+  }
+
+  /**
+   * must hold the registries lock
+   *
+   * @return the event to schedule once the lock is released
+   */
+  ServiceEventDispatchTask notifyServiceUnregistered(ServiceRegistration<?> registration) {
+    if (unindex(registration)) {
+      epoch.incrementAndGet();
+    }
+    val ref = registration.getReference();
+    val module = ref.getModule();
+    val coordinate = module.getCoordinate();
+    val moduleRegistry = registries.get(coordinate);
+
+    if (moduleRegistry == null) {
+      throw new IllegalStateException(
+          "Attempting to notify a service event for a non-existing module '" + coordinate + "'");
+    }
+    if (moduleRegistry.registrations.isEmpty()) {
+      registries.remove(coordinate);
+    }
+    return new ServiceEventDispatchTask(module, ServiceEvents.UNREGISTERED, ref);
+  }
+
+  /** must hold the registries lock */
+  private void index(ServiceRegistration<?> registration, ServiceDefinition<?> definition) {
+    val entry = new Entry(sequence.getAndIncrement(), registration);
+    append(index, definition.getType(), entry);
+    append(byTypeName, definition.getType().getName(), entry);
+  }
+
+  /**
+   * must hold the registries lock
+   *
+   * @return true if registration was indexed, i.e. live
+   */
+  private boolean unindex(ServiceRegistration<?> registration) {
+    val definition = registration.getReference().getDefinition();
+    if (definition == null) {
+      return false; // never indexed
+    }
+    val type = definition.getType();
+    if (remove(index, type, registration)) {
+      remove(byTypeName, type.getName(), registration);
+      return true;
+    }
+    return false;
+  }
+
+  /** must hold the registries lock */
+  private static <K> void append(Map<K, Entry[]> rows, K key, Entry entry) {
+    val row = rows.get(key);
+    if (row == null) {
+      rows.put(key, new Entry[] {entry});
+    } else {
+      val next = Arrays.copyOf(row, row.length + 1);
+      next[row.length] = entry;
+      rows.put(key, next);
+    }
+  }
+
+  /** must hold the registries lock */
+  @SuppressWarnings("PMD.CompareObjectsWithEquals")
+  private static <K> boolean remove(
+      Map<K, Entry[]> rows, K key, ServiceRegistration<?> registration) {
+    val row = rows.get(key);
+    if (row == null) {
+      return false;
+    }
+    for (int i = 0; i < row.length; i++) {
+      if (row[i].registration == registration) {
+        if (row.length == 1) {
+          rows.remove(key);
+        } else {
+          val next = new Entry[row.length - 1];
+          System.arraycopy(row, 0, next, 0, i);
+          System.arraycopy(row, i + 1, next, i, row.length - i - 1);
+          rows.put(key, next);
+        }
+        return true;
+      }
+    }
+    return false;
+  }
+
+  private static void collectLineage(Class<?> type, Set<Class<?>> result) {
+    if (type == null || !result.add(type)) {
+      return;
+    }
+    collectLineage(type.getSuperclass(), result);
+    for (val iface : type.getInterfaces()) {
+      collectLineage(iface, result);
+    }
+  }
+
+  @AllArgsConstructor
+  static final class Entry {
+    final long sequence;
+    final ServiceRegistration<?> registration;
   }
 
   @ToString
   final class ServiceEventDispatchTask implements Runnable {
 
+    @ToString.Exclude private final Module module;
+
     private final EventType type;
-    private final ServiceReference<?> registration;
 
-    ServiceEventDispatchTask(EventType type, ServiceReference<?> registration) {
+    /** a reference, or a list of references for batch events */
+    private final Object target;
+
+    ServiceEventDispatchTask(Module module, EventType type, Object target) {
+      this.module = module;
       this.type = type;
-      this.registration = registration;
+      this.target = target;
+    }
+
+    /** schedule this on the module's queue. Never call this holding the registries lock */
+    void schedule() {
+      module.getTaskQueue().schedule(this);
     }
 
     @Override
     public void run() {
-      kernel.dispatchEvent(type, Events.create(registration));
+      kernel.dispatchEvent(type, Events.create(target));
     }
   }
 }
@@ -3,40 +3,39 @@ package io.zephyr.kernel.service;
 import io.zephyr.api.ServiceRegistration;
 import io.zephyr.api.ServiceRegistrationSet;
 import io.zephyr.kernel.Module;
-import java.util.ArrayList;
 import java.util.Collection;
 import java.util.List;
-import lombok.val;
+import java.util.concurrent.CopyOnWriteArrayList;
 
 final class ModuleServiceRegistry implements ServiceRegistrationSet {
   final Module module;
   final KernelServiceRegistry registry;
+  /** copy-on-write: iterated by lookups without locking */
   final List<ServiceRegistration<?>> registrations;
 
   public ModuleServiceRegistry(Module module, KernelServiceRegistry registry) {
     this.module = module;
     this.registry = registry;
-    this.registrations = new ArrayList<>(0);
+    this.registrations = new CopyOnWriteArrayList<>();
   }
 
   public <T> void register(ServiceRegistration<T> registration) {
-    synchronized (registrations) {
-      registrations.add(registration);
-    }
+    registrations.add(registration);
   }
 
-  @SuppressWarnings("PMD.CompareObjectsWithEquals")
+  /**
+   * under the kernel registry's lock, so that it cannot race a bulk unregistration. The event is
+   * scheduled after the lock is released
+   */
   public <T> void unregister(ServiceRegistration<T> registration) {
-    synchronized (registrations) {
-      val iter = registrations.iterator();
-      while (iter.hasNext()) {
-        val next = iter.next();
-        if (next == registration) {
-          iter.remove();
-          registry.notifyServiceUnregistered(next);
-        }
+    final KernelServiceRegistry.ServiceEventDispatchTask event;
+    synchronized (registry.registries) {
+      if (!registrations.remove(registration)) {
+        return;
       }
+      event = registry.notifyServiceUnregistered(registration);
     }
+    event.schedule();
   }
 
   @Override
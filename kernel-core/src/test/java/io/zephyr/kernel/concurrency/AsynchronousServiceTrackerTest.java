@@ -1,21 +1,44 @@
 package io.zephyr.kernel.concurrency;
 
+import static org.awaitility.Awaitility.await;
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertTrue;
 import static org.mockito.ArgumentMatchers.any;
 import static org.mockito.Mockito.*;
 
+import io.sunshower.lang.events.EventListener;
+import io.sunshower.lang.events.Events;
 import io.zephyr.api.ServiceEvents;
+import io.zephyr.api.ServiceReference;
+import io.zephyr.api.ServiceTracker;
 import io.zephyr.kernel.VolatileStorage;
 import io.zephyr.kernel.service.DefaultServiceDefinition;
 import io.zephyr.kernel.service.ServiceRegistryTestCase;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.concurrent.ConcurrentLinkedQueue;
+import java.util.concurrent.CountDownLatch;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicLong;
+import java.util.logging.Level;
+import java.util.logging.Logger;
 import lombok.val;
 import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.condition.EnabledIfSystemProperty;
 import org.junit.jupiter.api.extension.ExtendWith;
 import org.mockito.junit.jupiter.MockitoExtension;
 
 @ExtendWith(MockitoExtension.class)
-@SuppressWarnings("PMD.DoNotUseThreads")
+@SuppressWarnings({
+  "PMD.DoNotUseThreads",
+  "PMD.JUnitTestContainsTooManyAsserts",
+  "PMD.AvoidInstantiatingObjectsInLoops",
+  "PMD.CompareObjectsWithEquals"
+})
 class AsynchronousServiceTrackerTest extends ServiceRegistryTestCase {
 
+  static final Logger log = Logger.getLogger(AsynchronousServiceTrackerTest.class.getName());
+
   @Test
   void ensureRegisteringServiceDispatchesRegisteredEvent() {
     val ctx = kernel.createContext(module, mock(VolatileStorage.class));
@@ -35,4 +58,226 @@ class AsynchronousServiceTrackerTest extends ServiceRegistryTestCase {
     registration.dispose();
     tracker.close();
   }
+
+  @Test
+  void ensureTrackedServicesAreIndexedAndWaitersAreReleased() throws InterruptedException {
+    doAnswer(
+            invocation -> {
+              invocation.<Runnable>getArgument(0).run();
+              return null;
+            })
+        .when(taskQueue)
+        .schedule(any(Runnable.class));
+    val ctx = kernel.createContext(module, mock(VolatileStorage.class));
+    val tracker = ctx.trackServices(t -> true);
+    tracker.addEventListener(listener, ServiceEvents.REGISTERED, ServiceEvents.UNREGISTERED);
+    listeners.add(listener);
+
+    val released = new CountDownLatch(1);
+    val waiter =
+        new Thread(
+            () -> {
+              tracker.waitUntil(ServiceEvents.UNREGISTERED, t -> !t.isEmpty());
+              released.countDown();
+            });
+    waiter.start();
+    while (waiter.getState() != Thread.State.WAITING) {
+      Thread.onSpinWait();
+    }
+
+    val registration =
+        registry.register(module, new DefaultServiceDefinition<>(String.class, "a", "a"));
+    tracker.waitUntil(ServiceEvents.REGISTERED, t -> !t.isEmpty());
+    assertEquals(List.of(registration.getReference()), tracker.getTracked(), "must track");
+    assertEquals(1, released.getCount(), "waiter for another type must not be released");
+
+    registration.dispose();
+    assertTrue(released.await(5, TimeUnit.SECONDS), "waiter must be released");
+    assertEquals(1, tracker.getTrackedCount(), "object must be tracked once");
+    tracker.close();
+  }
+
+  @Test
+  void ensureWaitersRacingTrackingAreAlwaysReleased() throws InterruptedException {
+    doAnswer(
+            invocation -> {
+              invocation.<Runnable>getArgument(0).run();
+              return null;
+            })
+        .when(taskQueue)
+        .schedule(any(Runnable.class));
+    val ctx = kernel.createContext(module, mock(VolatileStorage.class));
+    listeners.add(listener);
+    for (int round = 0; round < 200; round++) {
+      val tracker = ctx.trackServices(t -> true);
+      tracker.addEventListener(listener, ServiceEvents.REGISTERED);
+      val started = new CountDownLatch(1);
+      val released = new CountDownLatch(1);
+      val waiter =
+          new Thread(
+              () -> {
+                started.countDown();
+                tracker.waitUntil(ServiceEvents.REGISTERED, t -> !t.isEmpty());
+                released.countDown();
+              });
+      waiter.setDaemon(true);
+      waiter.start();
+      started.await();
+
+      val registration =
+          registry.register(module, new DefaultServiceDefinition<>(String.class, "a", "a"));
+      assertTrue(released.await(5, TimeUnit.SECONDS), "waiter must see the tracked service");
+      registration.dispose();
+      tracker.close();
+    }
+  }
+
+  @Test
+  void ensureRejectedEventsAreNotScheduled() {
+    val ctx = kernel.createContext(module, mock(VolatileStorage.class));
+    val tested = new ConcurrentLinkedQueue<ServiceReference<?>>();
+    val tracker =
+        ctx.trackServices(
+            t -> {
+              tested.add(t);
+              return false;
+            });
+    tracker.addEventListener(listener, ServiceEvents.REGISTERED);
+    listeners.add(listener);
+    val reference =
+        registry
+            .register(module, new DefaultServiceDefinition<>(String.class, "a", "a"))
+            .getReference();
+    kernel.dispatchEvent(ServiceEvents.REGISTERED, Events.create(reference));
+    // the filter runs on the dispatching thread, which schedules nothing once it rejects
+    await().atMost(5, TimeUnit.SECONDS).until(() -> tested.contains(reference));
+    verify(taskQueue, never())
+        .schedule(any(AbstractAsynchronousObjectTracker.FilteredObjectDispatchTask.class));
+    tracker.close();
+  }
+
+  @Test
+  void ensureBatchIsTrackedInOneTaskAndDeliveredPerService() {
+    val tasks = new ArrayList<Runnable>();
+    doAnswer(
+            invocation -> {
+              tasks.add(invocation.getArgument(0));
+              return null;
+            })
+        .when(taskQueue)
+        .schedule(any(Runnable.class));
+    val ctx = kernel.createContext(module, mock(VolatileStorage.class));
+    val tracker = ctx.trackServices(ref -> !"b".equals(ref.getDefinition().getName()));
+    val received = new ArrayList<Object>();
+    EventListener<ServiceReference<?>> recorder = (type, event) -> received.add(event.getTarget());
+    tracker.addEventListener(recorder, ServiceEvents.REGISTERED);
+    tasks.clear();
+
+    val registrations =
+        ctx.registerAll(
+            List.of(
+                new DefaultServiceDefinition<>(String.class, "a", "a"),
+                new DefaultServiceDefinition<>(String.class, "b", "b"),
+                new DefaultServiceDefinition<>(String.class, "c", "c")));
+    assertEquals(1, tasks.size(), "registry must schedule one batch event");
+    tasks.remove(0).run();
+    assertEquals(1, tasks.size(), "tracker must schedule one task for the batch");
+    tasks.remove(0).run();
+    assertEquals(
+        List.of(registrations.get(0).getReference(), registrations.get(2).getReference()),
+        received,
+        "listener must receive each accepted service");
+    assertEquals(2, tracker.getTrackedCount(), "must track accepted services");
+    tracker.close();
+  }
+
+  @Test
+  void ensureOnlyTheMatchingTrackerSchedulesAnEvent() {
+    val scheduled = countFilteredTasks();
+    val tested = new AtomicLong();
+    val references = registerServices(100);
+    val trackers = trackEach(references, tested);
+    for (val reference : references) {
+      kernel.dispatchEvent(ServiceEvents.UNREGISTERED, Events.create(reference));
+    }
+    await()
+        .atMost(5, TimeUnit.SECONDS)
+        .until(() -> tested.get() == 100 * 100 && scheduled.get() >= 100);
+    assertEquals(100, scheduled.get(), "each event must be scheduled for its tracker alone");
+    trackers.forEach(ServiceTracker::close);
+  }
+
+  /**
+   * events/s through 100 trackers that each accept a single service. Run with ./gradlew
+   * :kernel-core:test -Dbenchmarks=true
+   */
+  @Test
+  @EnabledIfSystemProperty(named = "benchmarks", matches = "true")
+  void benchmarkEventRateWithOneHundredNarrowTrackers() {
+    val scheduled = countFilteredTasks();
+    val tested = new AtomicLong();
+    val references = registerServices(100);
+    val trackers = trackEach(references, tested);
+    val events = 100_000;
+    for (int round = 0; round < 5; round++) {
+      scheduled.set(0);
+      tested.set(0);
+      val start = System.nanoTime();
+      for (int i = 0; i < events; i++) {
+        kernel.dispatchEvent(
+            ServiceEvents.UNREGISTERED, Events.create(references.get(i % references.size())));
+      }
+      await().atMost(1, TimeUnit.MINUTES).until(() -> tested.get() == 100L * events);
+      val elapsed = System.nanoTime() - start;
+      log.log(
+          Level.INFO,
+          "{0} events to 100 trackers: {1} events/s, {2} tasks scheduled",
+          new Object[] {events, (long) (events / (elapsed / 1e9)), scheduled.get()});
+    }
+    trackers.forEach(ServiceTracker::close);
+  }
+
+  private AtomicLong countFilteredTasks() {
+    val scheduled = new AtomicLong();
+    doAnswer(
+            invocation -> {
+              if (invocation.getArgument(0)
+                  instanceof AbstractAsynchronousObjectTracker.FilteredObjectDispatchTask) {
+                scheduled.incrementAndGet();
+              }
+              return null;
+            })
+        .when(taskQueue)
+        .schedule(any(Runnable.class));
+    return scheduled;
+  }
+
+  private List<ServiceReference<?>> registerServices(int count) {
+    val references = new ArrayList<ServiceReference<?>>(count);
+    for (int i = 0; i < count; i++) {
+      references.add(
+          registry
+              .register(module, new DefaultServiceDefinition<>(String.class, "s" + i, "s"))
+              .getReference());
+    }
+    return references;
+  }
+
+  /** one tracker per reference, accepting only that reference and counting its tests in tested */
+  private List<ServiceTracker> trackEach(List<ServiceReference<?>> references, AtomicLong tested) {
+    val ctx = kernel.createContext(module, mock(VolatileStorage.class));
+    val trackers = new ArrayList<ServiceTracker>(references.size());
+    for (val tracked : references) {
+      val tracker =
+          ctx.trackServices(
+              ref -> {
+                tested.incrementAndGet();
+                return ref == tracked;
+              });
+      tracker.addEventListener(listener, ServiceEvents.UNREGISTERED);
+      trackers.add(tracker);
+    }
+    listeners.add(listener);
+    return trackers;
+  }
 }
@@ -0,0 +1,60 @@
+package io.zephyr.kernel.concurrency;
+
+import static org.junit.jupiter.api.Assertions.assertDoesNotThrow;
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertThrows;
+
+import io.sunshower.gyre.DirectedGraph;
+import io.sunshower.gyre.Scope;
+import lombok.val;
+import org.junit.jupiter.api.Test;
+
+class DefaultProcessTest {
+
+  @Test
+  void ensureAcyclicGraphIsScheduled() {
+    val graph = new TaskGraph<String>();
+    val a = new TasksTest.T("a");
+    val b = new TasksTest.T("b");
+    graph.connect(a, b, DirectedGraph.incoming(b.getName()));
+    assertEquals(2, process(graph).getTasks().size(), "must schedule one stage per task");
+  }
+
+  @Test
+  void ensureCyclicGraphIsRejected() {
+    val graph = new TaskGraph<String>();
+    val a = new TasksTest.T("a");
+    val b = new TasksTest.T("b");
+    graph.connect(a, b, DirectedGraph.incoming(b.getName()));
+    graph.connect(b, a, DirectedGraph.incoming(a.getName()));
+    val process = process(graph);
+    assertThrows(IllegalStateException.class, process::getTasks, "must reject the cycle");
+  }
+
+  /** as for modules (see ModuleCycleDetectorTest), a task that depends on itself is no cycle */
+  @Test
+  void ensureSelfDependencyIsNotRejectedAsACycle() {
+    val graph = new TaskGraph<String>();
+    val a = new TasksTest.T("a");
+    val b = new TasksTest.T("b");
+    graph.connect(a, b, DirectedGraph.incoming(b.getName()));
+    graph.connect(b, b, DirectedGraph.incoming(b.getName()));
+    assertDoesNotThrow(process(graph)::getTasks, "must not reject a self-dependency");
+  }
+
+  @Test
+  void ensureCycleBehindSelfDependencyIsRejected() {
+    val graph = new TaskGraph<String>();
+    val a = new TasksTest.T("a");
+    val b = new TasksTest.T("b");
+    graph.connect(a, a, DirectedGraph.incoming(a.getName()));
+    graph.connect(a, b, DirectedGraph.incoming(b.getName()));
+    graph.connect(b, a, DirectedGraph.incoming(a.getName()));
+    val process = process(graph);
+    assertThrows(IllegalStateException.class, process::getTasks, "must reject the cycle");
+  }
+
+  private DefaultProcess<String> process(TaskGraph<String> graph) {
+    return new DefaultProcess<>("test", false, false, Scope.root(), graph);
+  }
+}
@@ -0,0 +1,179 @@
+package io.zephyr.kernel.concurrency;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertNull;
+import static org.junit.jupiter.api.Assertions.assertThrows;
+import static org.junit.jupiter.api.Assertions.assertTrue;
+
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.Collections;
+import java.util.List;
+import java.util.concurrent.CountDownLatch;
+import java.util.concurrent.RejectedExecutionException;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicBoolean;
+import lombok.val;
+import org.junit.jupiter.api.Test;
+
+@SuppressWarnings({
+  "PMD.DoNotUseThreads",
+  "PMD.JUnitTestContainsTooManyAsserts",
+  "PMD.AvoidInstantiatingObjectsInLoops"
+})
+class MpscTaskQueueTest {
+
+  @Test
+  void ensureEachProducersElementsAreConsumedInOrder() throws InterruptedException {
+    val producers = 4;
+    val perProducer = 10_000;
+    val queue = new MpscTaskQueue<int[]>();
+    val threads = new ArrayList<Thread>();
+    for (int p = 0; p < producers; p++) {
+      val producer = p;
+      val thread =
+          new Thread(
+              () -> {
+                for (int i = 0; i < perProducer; i++) {
+                  queue.offer(new int[] {producer, i});
+                }
+              });
+      threads.add(thread);
+      thread.start();
+    }
+
+    val last = new int[producers];
+    Arrays.fill(last, -1);
+    int consumed = 0;
+    while (consumed < producers * perProducer) {
+      val next = queue.poll();
+      if (next == null) {
+        queue.await();
+        continue;
+      }
+      assertEquals(last[next[0]] + 1, next[1], "elements of one producer must stay in order");
+      last[next[0]] = next[1];
+      consumed++;
+    }
+    for (val thread : threads) {
+      thread.join();
+    }
+    assertTrue(queue.isEmpty(), "queue must be empty");
+    assertEquals(0, queue.size(), "size must be zero");
+  }
+
+  @Test
+  void ensureFailPolicyRejectsWhenFull() {
+    val queue = new MpscTaskQueue<Integer>(2, MpscTaskQueue.Overflow.Fail, e -> {});
+    queue.offer(1);
+    queue.offer(2);
+    assertThrows(RejectedExecutionException.class, () -> queue.offer(3));
+    assertEquals(2, queue.size(), "rejected element must not be counted");
+  }
+
+  @Test
+  void ensureDropOldestPolicyDiscardsOldestElements() {
+    final List<Integer> dropped = new ArrayList<>();
+    val queue = new MpscTaskQueue<Integer>(2, MpscTaskQueue.Overflow.DropOldest, dropped::add);
+    for (int i = 0; i < 5; i++) {
+      queue.offer(i);
+    }
+    val consumed = new ArrayList<Integer>();
+    queue.drain(consumed::add, Integer.MAX_VALUE);
+    assertEquals(List.of(0, 1, 2), dropped, "oldest elements must be dropped");
+    assertEquals(List.of(3, 4), consumed, "newest elements must be kept");
+    assertNull(queue.poll(), "queue must be empty");
+  }
+
+  @Test
+  void ensureDropOldestBoundIsRestoredByTheConsumer() throws InterruptedException {
+    val producers = 4;
+    val perProducer = 1_000;
+    val capacity = 16;
+    final List<Integer> dropped = Collections.synchronizedList(new ArrayList<>());
+    val queue =
+        new MpscTaskQueue<Integer>(capacity, MpscTaskQueue.Overflow.DropOldest, dropped::add);
+    val threads = new ArrayList<Thread>();
+    for (int p = 0; p < producers; p++) {
+      val thread =
+          new Thread(
+              () -> {
+                for (int i = 0; i < perProducer; i++) {
+                  queue.offer(i);
+                }
+              });
+      threads.add(thread);
+      thread.start();
+    }
+    for (val thread : threads) {
+      thread.join();
+    }
+
+    val offered = producers * perProducer;
+    assertEquals(offered, queue.size(), "elements awaiting discard must still be counted");
+    val consumed = new ArrayList<Integer>();
+    queue.drain(consumed::add, Integer.MAX_VALUE);
+    assertEquals(capacity, consumed.size(), "consumer must receive at most capacity elements");
+    assertEquals(offered - capacity, dropped.size(), "the rest must be dropped");
+    assertEquals(0, queue.size(), "size must be zero");
+  }
+
+  @Test
+  void ensureBlockPolicyWaitsForConsumer() throws InterruptedException {
+    val queue = new MpscTaskQueue<Integer>(1, MpscTaskQueue.Overflow.Block, e -> {});
+    queue.offer(1);
+    val offered = new CountDownLatch(1);
+    val producer =
+        new Thread(
+            () -> {
+              queue.offer(2);
+              offered.countDown();
+            });
+    producer.start();
+    assertEquals(1, offered.getCount(), "producer must block while the queue is full");
+    assertEquals(1, queue.poll(), "first element must be consumed");
+    assertTrue(offered.await(5, TimeUnit.SECONDS), "producer must be released");
+    assertEquals(2, queue.poll(), "second element must be enqueued");
+    producer.join();
+  }
+
+  @Test
+  void ensureBoundConsumerNeverBlocksOnItself() {
+    val queue = new MpscTaskQueue<Integer>(1, MpscTaskQueue.Overflow.Block, e -> {});
+    queue.bind(Thread.currentThread());
+    queue.offer(1);
+    queue.offer(2);
+    assertEquals(2, queue.size(), "consumer must overflow instead of waiting on itself");
+  }
+
+  @Test
+  void ensureClosedQueueRejectsInsteadOfBlocking() {
+    val queue = new MpscTaskQueue<Integer>(1, MpscTaskQueue.Overflow.Block, e -> {});
+    queue.offer(1);
+    queue.close();
+    assertThrows(RejectedExecutionException.class, () -> queue.offer(2));
+    queue.bind(Thread.currentThread());
+    assertEquals(1, queue.poll(), "reopened queue must keep its elements");
+    queue.offer(2);
+    assertEquals(2, queue.poll(), "reopened queue must accept elements");
+  }
+
+  @Test
+  void ensureWakeReleasesParkedConsumer() throws InterruptedException {
+    val queue = new MpscTaskQueue<Integer>();
+    val woke = new AtomicBoolean();
+    val consumer =
+        new Thread(
+            () -> {
+              queue.await();
+              woke.set(true);
+            });
+    consumer.start();
+    while (consumer.getState() != Thread.State.WAITING && consumer.isAlive()) {
+      Thread.onSpinWait();
+    }
+    queue.wake();
+    consumer.join(5000);
+    assertTrue(woke.get(), "consumer must have been woken");
+  }
+}
@@ -0,0 +1,87 @@
+package io.zephyr.kernel.concurrency;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+
+import io.sunshower.gyre.DirectedGraph;
+import io.sunshower.gyre.Scope;
+import java.util.Arrays;
+import lombok.val;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+
+@SuppressWarnings("PMD.JUnitTestContainsTooManyAsserts")
+class ProcessPlanCacheTest {
+
+  private ProcessPlanCache plans;
+
+  @BeforeEach
+  void setUp() {
+    plans = new ProcessPlanCache();
+  }
+
+  @Test
+  void ensurePlansAreReboundToTasksOfTheSameShape() {
+    val first = process("a", "b", "c");
+    val firstPlan = first.getPlan();
+    assertEquals(1, plans.size(), "plan must be cached");
+
+    val second = process("x", "y", "z");
+    val secondPlan = second.getPlan();
+    assertEquals(1, plans.size(), "shape must be shared");
+    assertEquals(firstPlan.getStages().size(), secondPlan.getStages().size(), "must match");
+    for (int i = 0; i < firstPlan.getStages().size(); i++) {
+      for (int j = 0; j < firstPlan.getStages().get(i).size(); j++) {
+        val name = firstPlan.getStages().get(i).get(j).getName();
+        val rebound = secondPlan.getStages().get(i).get(j);
+        assertEquals(
+            "abc".indexOf(name), "xyz".indexOf(rebound.getName()), "must bind by position");
+      }
+    }
+    assertEquals(1, firstPlan.getStages().get(0).size(), "must start with one task");
+    assertEquals("c", firstPlan.getStages().get(0).get(0).getName(), "dependency must run first");
+  }
+
+  @Test
+  void ensurePlansAreRetiredWhenTheDependencyGraphChanges() {
+    plans.at(1);
+    process("a", "b", "c").getPlan();
+    assertEquals(1, plans.size(), "plan must be cached");
+    plans.at(1);
+    assertEquals(1, plans.size(), "same version must keep plans");
+    plans.at(2);
+    assertEquals(0, plans.size(), "new version must retire plans");
+  }
+
+  @Test
+  void ensureLayoutDoesNotDependOnInsertionOrder() {
+    val a = new TasksTest.T("a");
+    val b = new TasksTest.T("b");
+    val c = new TasksTest.T("c");
+    val d = new TasksTest.T("d");
+    val first = new TaskGraph<String>();
+    first.connect(a, b, DirectedGraph.incoming(b.getName()));
+    first.connect(a, c, DirectedGraph.incoming(c.getName()));
+    first.connect(b, d, DirectedGraph.incoming(d.getName()));
+    first.connect(c, d, DirectedGraph.incoming(d.getName()));
+    val second = new TaskGraph<String>();
+    second.connect(c, d, DirectedGraph.incoming(d.getName()));
+    second.connect(b, d, DirectedGraph.incoming(d.getName()));
+    second.connect(a, c, DirectedGraph.incoming(c.getName()));
+    second.connect(a, b, DirectedGraph.incoming(b.getName()));
+
+    val firstLayout = ProcessPlan.layoutOf(first);
+    val secondLayout = ProcessPlan.layoutOf(second);
+    assertEquals(firstLayout.getShape(), secondLayout.getShape(), "shape must be canonical");
+    assertEquals(firstLayout.tasks, secondLayout.tasks, "positions must be canonical");
+    assertEquals(Arrays.asList(a, b, c, d), firstLayout.tasks, "ties must break by name");
+  }
+
+  /** @return a process in which names[0] depends on names[1], which depends on names[2] */
+  private DefaultProcess<String> process(String... names) {
+    val tasks = Arrays.stream(names).map(TasksTest.T::new).toArray(Task[]::new);
+    val graph = new TaskGraph<String>();
+    graph.connect(tasks[0], tasks[1], DirectedGraph.incoming(tasks[1].getName()));
+    graph.connect(tasks[1], tasks[2], DirectedGraph.incoming(tasks[2].getName()));
+    return new DefaultProcess<>("test", false, false, Scope.root(), graph, plans);
+  }
+}
@@ -0,0 +1,261 @@
+package io.zephyr.kernel.concurrency;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertThrows;
+import static org.junit.jupiter.api.Assertions.assertTrue;
+
+import io.sunshower.lang.events.EventListener;
+import io.sunshower.lang.events.EventSource;
+import io.sunshower.lang.events.Events;
+import io.zephyr.api.ModuleEvents;
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.List;
+import java.util.concurrent.CountDownLatch;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.RejectedExecutionException;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicInteger;
+import java.util.logging.Level;
+import java.util.logging.Logger;
+import lombok.val;
+import org.junit.jupiter.api.AfterEach;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.condition.EnabledIfSystemProperty;
+
+@SuppressWarnings({
+  "PMD.DoNotUseThreads",
+  "PMD.JUnitTestContainsTooManyAsserts",
+  "PMD.AvoidInstantiatingObjectsInLoops",
+  "PMD.DataflowAnomalyAnalysis"
+})
+class RingBufferEventSourceTest {
+
+  static final Logger log = Logger.getLogger(RingBufferEventSourceTest.class.getName());
+
+  private List<Runnable> deferred;
+  private ExecutorService executorService;
+
+  @BeforeEach
+  void setUp() {
+    deferred = new ArrayList<>();
+    executorService = Executors.newCachedThreadPool();
+  }
+
+  @AfterEach
+  void tearDown() {
+    executorService.shutdownNow();
+  }
+
+  @Test
+  void ensureCapacityIsRoundedUpToAPowerOfTwo() {
+    val source =
+        new RingBufferEventSource(deferred::add, 5, RingBufferEventSource.Backpressure.Fail);
+    assertEquals(8, source.getCapacity(), "capacity must be rounded up");
+  }
+
+  @Test
+  void ensureSingleSlotIsRoundedUpSoThatUnreadEventsAreNotOverwritten() {
+    val source =
+        new RingBufferEventSource(deferred::add, 1, RingBufferEventSource.Backpressure.Fail);
+    val received = new ArrayList<Integer>();
+    EventListener<Integer> listener = (type, event) -> received.add(event.getTarget());
+    source.addEventListener(listener, ModuleEvents.STARTED);
+    source.dispatchEvent(ModuleEvents.STARTED, Events.create(0));
+    source.dispatchEvent(ModuleEvents.STARTED, Events.create(1));
+    deferred.get(0).run();
+    assertEquals(2, source.getCapacity(), "a single slot must be rounded up");
+    assertEquals(List.of(0, 1), received, "both events must be delivered");
+  }
+
+  @Test
+  void ensureEventsOfEachTypeAreDeliveredInDispatchOrder() throws InterruptedException {
+    val producers = 4;
+    val perProducer = 20_000;
+    val types = new ModuleEvents[] {ModuleEvents.STARTING, ModuleEvents.STARTED};
+    val source =
+        new RingBufferEventSource(executorService, 64, RingBufferEventSource.Backpressure.Block);
+
+    val last = new int[producers];
+    Arrays.fill(last, -1);
+    val outOfOrder = new AtomicInteger();
+    val delivered = new CountDownLatch(producers * perProducer);
+    EventListener<int[]> listener =
+        (type, event) -> {
+          val value = event.getTarget();
+          if (last[value[0]] + 1 != value[1] || types[value[0] % 2] != type) {
+            outOfOrder.incrementAndGet();
+          }
+          last[value[0]] = value[1];
+          delivered.countDown();
+        };
+    source.addEventListener(listener, types);
+
+    val threads = new ArrayList<Thread>();
+    for (int p = 0; p < producers; p++) {
+      val producer = p;
+      val thread =
+          new Thread(
+              () -> {
+                for (int i = 0; i < perProducer; i++) {
+                  source.dispatchEvent(types[producer % 2], Events.create(new int[] {producer, i}));
+                }
+              });
+      threads.add(thread);
+      thread.start();
+    }
+    for (val thread : threads) {
+      thread.join();
+    }
+    assertTrue(delivered.await(30, TimeUnit.SECONDS), "every event must be delivered");
+    assertEquals(0, outOfOrder.get(), "events must be delivered in dispatch order");
+  }
+
+  @Test
+  void ensureProducerDoesNotWaitForSlowListener() throws InterruptedException {
+    val source =
+        new RingBufferEventSource(executorService, 16, RingBufferEventSource.Backpressure.Block);
+    val release = new CountDownLatch(1);
+    val delivered = new CountDownLatch(1);
+    EventListener<Object> listener =
+        (type, event) -> {
+          try {
+            release.await(5, TimeUnit.SECONDS);
+          } catch (InterruptedException ex) {
+            Thread.currentThread().interrupt();
+          }
+          delivered.countDown();
+        };
+    source.addEventListener(listener, ModuleEvents.STARTED);
+    source.dispatchEvent(ModuleEvents.STARTED, Events.create(null));
+    assertEquals(1, delivered.getCount(), "dispatch must return before the listener completes");
+    release.countDown();
+    assertTrue(delivered.await(5, TimeUnit.SECONDS), "event must be delivered");
+  }
+
+  @Test
+  void ensureFailPolicyRejectsWhenFull() {
+    val source =
+        new RingBufferEventSource(deferred::add, 2, RingBufferEventSource.Backpressure.Fail);
+    val received = new ArrayList<Integer>();
+    EventListener<Integer> listener = (type, event) -> received.add(event.getTarget());
+    source.addEventListener(listener, ModuleEvents.STARTED);
+
+    source.dispatchEvent(ModuleEvents.STARTED, Events.create(1));
+    source.dispatchEvent(ModuleEvents.STARTED, Events.create(2));
+    assertThrows(
+        RejectedExecutionException.class,
+        () -> source.dispatchEvent(ModuleEvents.STARTED, Events.create(3)));
+
+    assertEquals(1, deferred.size(), "only one drain may be scheduled");
+    deferred.get(0).run();
+    assertEquals(List.of(1, 2), received, "buffered events must be delivered in order");
+  }
+
+  @Test
+  void ensureDropPolicyDiscardsNewestEvents() {
+    val source =
+        new RingBufferEventSource(deferred::add, 2, RingBufferEventSource.Backpressure.Drop);
+    val received = new ArrayList<Integer>();
+    EventListener<Integer> listener = (type, event) -> received.add(event.getTarget());
+    source.addEventListener(listener, ModuleEvents.STARTED);
+    for (int i = 0; i < 5; i++) {
+      source.dispatchEvent(ModuleEvents.STARTED, Events.create(i));
+    }
+    deferred.get(0).run();
+    assertEquals(List.of(0, 1), received, "oldest events must be kept");
+    assertEquals(3, source.getDroppedEventCount(), "newest events must be dropped");
+  }
+
+  @Test
+  void ensureEventsDispatchedIntoFullBufferByListenersOvertakeBufferedEvents() {
+    val source =
+        new RingBufferEventSource(deferred::add, 2, RingBufferEventSource.Backpressure.Block);
+    val received = new ArrayList<Integer>();
+    EventListener<Integer> listener =
+        (type, event) -> {
+          received.add(event.getTarget());
+          if (event.getTarget() == 0) {
+            source.dispatchEvent(ModuleEvents.STARTED, Events.create(2));
+            source.dispatchEvent(ModuleEvents.STARTED, Events.create(3));
+          }
+        };
+    source.addEventListener(listener, ModuleEvents.STARTED);
+    source.dispatchEvent(ModuleEvents.STARTED, Events.create(0));
+    source.dispatchEvent(ModuleEvents.STARTED, Events.create(1));
+    deferred.get(0).run();
+    assertEquals(
+        List.of(0, 3, 1, 2), received, "the event delivered inline must overtake buffered events");
+  }
+
+  @Test
+  void ensureListenerDispatchingIntoFullBufferDoesNotDeadlock() {
+    val source =
+        new RingBufferEventSource(deferred::add, 1, RingBufferEventSource.Backpressure.Block);
+    val received = new ArrayList<Integer>();
+    EventListener<Integer> listener =
+        (type, event) -> {
+          received.add(event.getTarget());
+          if (event.getTarget() < 3) {
+            source.dispatchEvent(ModuleEvents.STARTED, Events.create(event.getTarget() + 1));
+          }
+        };
+    source.addEventListener(listener, ModuleEvents.STARTED);
+    source.dispatchEvent(ModuleEvents.STARTED, Events.create(0));
+    deferred.get(0).run();
+    assertEquals(List.of(0, 1, 2, 3), received, "re-entrant events must be delivered");
+  }
+
+  @Test
+  @EnabledIfSystemProperty(named = "benchmarks", matches = "true")
+  void benchmarkAgainstAsynchronousEventSource() throws InterruptedException {
+    for (int round = 0; round < 3; round++) {
+      val async = new AsynchronousEventSource(executorService);
+      async.start();
+      async.initialize();
+      measure("AsynchronousEventSource", async);
+      async.stop();
+      measure(
+          "RingBufferEventSource",
+          new RingBufferEventSource(
+              executorService, 4096, RingBufferEventSource.Backpressure.Block));
+    }
+  }
+
+  /** logs events/s and the p99 dispatch-to-delivery latency of 4 producers x 250k events */
+  private void measure(String name, EventSource source) throws InterruptedException {
+    val producers = 4;
+    val perProducer = 250_000;
+    val total = producers * perProducer;
+    val latencies = new long[total];
+    val index = new AtomicInteger();
+    val delivered = new CountDownLatch(total);
+    EventListener<Long> listener =
+        (type, event) -> {
+          latencies[index.getAndIncrement()] = System.nanoTime() - event.getTarget();
+          delivered.countDown();
+        };
+    source.addEventListener(listener, ModuleEvents.STARTED);
+    val threads = new ArrayList<Thread>();
+    for (int p = 0; p < producers; p++) {
+      threads.add(
+          new Thread(
+              () -> {
+                for (int i = 0; i < perProducer; i++) {
+                  source.dispatchEvent(ModuleEvents.STARTED, Events.create(System.nanoTime()));
+                }
+              }));
+    }
+    val start = System.nanoTime();
+    threads.forEach(Thread::start);
+    assertTrue(delivered.await(2, TimeUnit.MINUTES), "every event must be delivered");
+    val elapsed = System.nanoTime() - start;
+    Arrays.sort(latencies);
+    log.log(
+        Level.INFO,
+        "{0}: {1} events/s, p99 dispatch-to-delivery latency {2} ns",
+        new Object[] {name, (long) (total / (elapsed / 1e9)), latencies[(int) (total * 0.99)]});
+  }
+}
@@ -0,0 +1,144 @@
+package io.zephyr.kernel.concurrency;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertThrows;
+import static org.junit.jupiter.api.Assertions.assertTrue;
+
+import java.util.ArrayList;
+import java.util.List;
+import java.util.concurrent.CountDownLatch;
+import java.util.concurrent.ExecutionException;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.Future;
+import java.util.concurrent.RejectedExecutionException;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicInteger;
+import lombok.val;
+import org.junit.jupiter.api.AfterEach;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+
+@SuppressWarnings({"PMD.DoNotUseThreads", "PMD.JUnitTestContainsTooManyAsserts"})
+class SerialLaneExecutorTest {
+
+  private ExecutorService shared;
+
+  @BeforeEach
+  void setUp() {
+    shared = Executors.newFixedThreadPool(4);
+  }
+
+  @AfterEach
+  void tearDown() {
+    shared.shutdownNow();
+  }
+
+  @Test
+  void ensureTasksRunInSubmissionOrder() throws ExecutionException, InterruptedException {
+    val lane = new SerialLaneExecutor(shared);
+    val results = new ArrayList<Integer>();
+    val futures = new ArrayList<Future<?>>();
+    for (int i = 0; i < 1000; i++) {
+      val value = i;
+      futures.add(lane.submit(() -> results.add(value)));
+    }
+    for (val future : futures) {
+      future.get();
+    }
+    for (int i = 0; i < 1000; i++) {
+      assertEquals(i, results.get(i), "lane must preserve FIFO order");
+    }
+  }
+
+  @Test
+  void ensureManyLanesShareThePoolWithoutCreatingThreads()
+      throws ExecutionException, InterruptedException {
+    val threadsBefore = Thread.activeCount();
+    val futures = new ArrayList<Future<?>>();
+    for (int i = 0; i < 10_000; i++) {
+      val lane = new SerialLaneExecutor(shared);
+      futures.add(lane.submit(() -> {}));
+      futures.add(lane.submit(() -> {}));
+    }
+    for (val future : futures) {
+      future.get();
+    }
+    assertTrue(
+        Thread.activeCount() <= threadsBefore + 4,
+        "lanes must not start threads beyond those of the shared pool");
+  }
+
+  @Test
+  void ensureShutdownLaneRejectsTasksAndTerminates() throws InterruptedException {
+    val lane = new SerialLaneExecutor(shared);
+    lane.submit(() -> {});
+    lane.shutdown();
+    assertTrue(lane.awaitTermination(5, TimeUnit.SECONDS), "lane must terminate");
+    assertThrows(RejectedExecutionException.class, () -> lane.submit(() -> {}));
+  }
+
+  @Test
+  void ensureShutdownNowReturnsQueuedTasks() throws InterruptedException {
+    val blocked = Executors.newSingleThreadExecutor();
+    try {
+      val gate = new CountDownLatch(1);
+      val lane = new SerialLaneExecutor(blocked);
+      lane.execute(
+          () -> {
+            try {
+              gate.await();
+            } catch (InterruptedException ex) {
+              Thread.currentThread().interrupt();
+            }
+          });
+      lane.execute(() -> {});
+      lane.execute(() -> {});
+      final List<Runnable> remaining = lane.shutdownNow();
+      gate.countDown();
+      assertTrue(remaining.size() <= 2, "queued tasks must be handed back");
+      assertTrue(lane.awaitTermination(5, TimeUnit.SECONDS), "lane must terminate");
+    } finally {
+      blocked.shutdownNow();
+    }
+  }
+
+  @Test
+  void ensureTasksRacingShutdownAreEitherRunOrRejected() throws InterruptedException {
+    for (int round = 0; round < 100; round++) {
+      val lane = new SerialLaneExecutor(shared);
+      val accepted = new AtomicInteger();
+      val rejected = new AtomicInteger();
+      val ran = new AtomicInteger();
+      val start = new CountDownLatch(1);
+      val submitters = new ArrayList<Thread>();
+      for (int i = 0; i < 4; i++) {
+        val submitter =
+            new Thread(
+                () -> {
+                  try {
+                    start.await();
+                    for (int j = 0; j < 100; j++) {
+                      lane.execute(ran::incrementAndGet);
+                      accepted.incrementAndGet();
+                    }
+                  } catch (RejectedExecutionException ex) {
+                    rejected.incrementAndGet();
+                  } catch (InterruptedException ex) {
+                    Thread.currentThread().interrupt();
+                  }
+                });
+        submitter.start();
+        submitters.add(submitter);
+      }
+      start.countDown();
+      lane.shutdown();
+      for (val submitter : submitters) {
+        submitter.join();
+      }
+      assertTrue(lane.awaitTermination(5, TimeUnit.SECONDS), "lane must terminate");
+      assertTrue(accepted.get() + rejected.get() <= 400, "every submission must be accounted for");
+      assertEquals(accepted.get(), ran.get(), "every accepted task must run before termination");
+    }
+  }
+}
@@ -1,8 +1,12 @@
 package io.zephyr.kernel.concurrency;
 
 import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertFalse;
+import static org.junit.jupiter.api.Assertions.assertNull;
+import static org.junit.jupiter.api.Assertions.assertTrue;
 import static org.mockito.ArgumentMatchers.any;
 import static org.mockito.ArgumentMatchers.eq;
+import static org.mockito.BDDMockito.given;
 import static org.mockito.Mockito.mock;
 import static org.mockito.Mockito.timeout;
 import static org.mockito.Mockito.verify;
@@ -10,11 +14,25 @@ import static org.mockito.Mockito.verify;
 import io.sunshower.gyre.DirectedGraph;
 import io.sunshower.gyre.Scope;
 import io.sunshower.lang.events.EventListener;
+import io.zephyr.kernel.Module;
 import io.zephyr.kernel.concurrency.Process.Mode;
+import io.zephyr.kernel.core.Kernel;
+import io.zephyr.kernel.core.ModuleClasspathManager;
+import io.zephyr.kernel.core.ModuleCoordinate;
+import io.zephyr.kernel.core.ModuleManager;
+import io.zephyr.kernel.core.actions.plugin.PluginRemoveTask;
+import io.zephyr.kernel.core.actions.plugin.PluginStopTask;
+import io.zephyr.kernel.dependencies.DependencyGraph;
+import java.nio.file.FileSystem;
 import java.util.ArrayList;
 import java.util.List;
+import java.util.concurrent.CountDownLatch;
 import java.util.concurrent.ExecutionException;
 import java.util.concurrent.Executors;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.TimeoutException;
+import java.util.concurrent.atomic.AtomicBoolean;
+import java.util.concurrent.atomic.AtomicInteger;
 import lombok.SneakyThrows;
 import lombok.val;
 import org.junit.jupiter.api.BeforeEach;
@@ -140,6 +158,195 @@ class TopologyAwareParallelSchedulerTest {
     assertEquals(results.get(1), "a", "must be second");
   }
 
+  @Test
+  void ensureDependencyDrivenTaskDoesNotWaitForUnrelatedSlowTask()
+      throws ExecutionException, InterruptedException {
+    val fastChainComplete = new CountDownLatch(1);
+    val slowTaskObservedFastChain = new AtomicBoolean();
+
+    val slow =
+        new Task("slow") {
+          @Override
+          @SneakyThrows
+          public TaskValue run(Scope scope) {
+            slowTaskObservedFastChain.set(fastChainComplete.await(10, TimeUnit.SECONDS));
+            return null;
+          }
+        };
+
+    val fast =
+        new Task("fast") {
+          @Override
+          public TaskValue run(Scope scope) {
+            return null;
+          }
+        };
+
+    val fastDependent =
+        new Task("fast-dependent") {
+          @Override
+          public TaskValue run(Scope scope) {
+            fastChainComplete.countDown();
+            return null;
+          }
+        };
+
+    val slowDependent =
+        new Task("slow-dependent") {
+          @Override
+          public TaskValue run(Scope scope) {
+            return null;
+          }
+        };
+
+    val process =
+        Tasks.newProcess("dependency-driven")
+            .parallel()
+            .dependencyDriven()
+            .register(slow)
+            .register(slowDependent)
+            .dependsOn(slow)
+            .register(fast)
+            .register(fastDependent)
+            .dependsOn(fast)
+            .create();
+
+    scheduler.submit(process, scope).get();
+    assertTrue(
+        slowTaskObservedFastChain.get(),
+        "fast chain must complete while the slow task in the same stage is still running");
+  }
+
+  @Test
+  void ensureDependencyDrivenProcessDoesNotRunDependentsOfFailedTask()
+      throws ExecutionException, InterruptedException {
+    val dependentRan = new AtomicBoolean();
+    val process =
+        Tasks.newProcess("dependency-driven")
+            .parallel()
+            .dependencyDriven()
+            .register(
+                new Task("failing") {
+                  @Override
+                  public TaskValue run(Scope scope) {
+                    throw new TaskException(TaskStatus.UNRECOVERABLE);
+                  }
+                })
+            .register(
+                new Task("dependent") {
+                  @Override
+                  public TaskValue run(Scope scope) {
+                    dependentRan.set(true);
+                    return null;
+                  }
+                })
+            .dependsOn("failing")
+            .create();
+
+    scheduler.submit(process, scope).get();
+    assertFalse(dependentRan.get(), "dependent of a failed task must not run");
+  }
+
+  @Test
+  void ensureProcessesDoNotHoldAThreadWhileTheirTasksRun()
+      throws ExecutionException, InterruptedException, TimeoutException {
+    val executor = Executors.newSingleThreadExecutor();
+    val singleThreaded =
+        new TopologyAwareParallelScheduler<String>(new ExecutorWorkerPool(executor, executor));
+    val count = new AtomicInteger();
+
+    val trackers = new ArrayList<TaskTracker<String>>();
+    for (int i = 0; i < 100; i++) {
+      val process =
+          Tasks.newProcess("process-" + i)
+              .parallel()
+              .register(
+                  new Task("a") {
+                    @Override
+                    public TaskValue run(Scope scope) {
+                      count.incrementAndGet();
+                      return null;
+                    }
+                  })
+              .register(
+                  new Task("b") {
+                    @Override
+                    public TaskValue run(Scope scope) {
+                      count.incrementAndGet();
+                      return null;
+                    }
+                  })
+              .dependsOn("a")
+              .create();
+      process.setMode(Mode.UserspaceAllocated);
+      trackers.add(singleThreaded.submit(process, scope));
+    }
+
+    for (val tracker : trackers) {
+      tracker.get(10, TimeUnit.SECONDS);
+    }
+    executor.shutdown();
+    assertEquals(200, count.get(), "every task of every process must have run");
+  }
+
+  @Test
+  void ensureSerialProcessesDoNotCreateThreads()
+      throws ExecutionException, InterruptedException, TimeoutException {
+    val userspace = Executors.newFixedThreadPool(1);
+    val kernel = Executors.newFixedThreadPool(2);
+    val serial =
+        new TopologyAwareParallelScheduler<String>(new ExecutorWorkerPool(userspace, kernel));
+    val threadsBefore = Thread.activeCount();
+
+    val trackers = new ArrayList<TaskTracker<String>>();
+    for (int i = 0; i < 10_000; i++) {
+      val process =
+          Tasks.newProcess("serial-" + i)
+              .register(
+                  new Task("a") {
+                    @Override
+                    public TaskValue run(Scope scope) {
+                      return null;
+                    }
+                  })
+              .create();
+      trackers.add(serial.submit(process, scope));
+    }
+    for (val tracker : trackers) {
+      tracker.get(10, TimeUnit.SECONDS);
+    }
+    val threadsAfter = Thread.activeCount();
+    userspace.shutdown();
+    kernel.shutdown();
+    assertTrue(
+        threadsAfter <= threadsBefore + 3,
+        "serial processes must run on the shared pools rather than on threads of their own");
+  }
+
+  @Test
+  void ensureRemoveTaskSeesTheCoordinateItsStopTaskSet() throws Exception {
+    val coordinate = ModuleCoordinate.create("io.zephyr", "test", "1.0.0");
+    val kernel = mock(Kernel.class);
+    val manager = mock(ModuleManager.class);
+    val module = mock(Module.class);
+    val fileSystem = mock(FileSystem.class);
+    val classpathManager = mock(ModuleClasspathManager.class);
+    given(kernel.getModuleManager()).willReturn(manager);
+    given(kernel.getModuleClasspathManager()).willReturn(classpathManager);
+    given(manager.getModule(coordinate)).willReturn(module);
+    given(manager.getModuleLoader()).willReturn(classpathManager);
+    given(manager.getDependencyGraph()).willReturn(mock(DependencyGraph.class));
+    given(module.getFileSystem()).willReturn(fileSystem);
+    given(fileSystem.getRootDirectories()).willReturn(List.of());
+
+    val stop = new PluginStopTask(coordinate, manager, kernel);
+    val remove = new PluginRemoveTask("plugin:remove:test", kernel);
+    graph.connect(remove, stop, DirectedGraph.incoming("remove"));
+    scheduler.submit(scheduleFrom(graph), scope).get();
+    assertEquals(coordinate, remove.getCoordinate(), "remove must see the stopped coordinate");
+    assertNull(scope.get(PluginRemoveTask.MODULE_COORDINATE), "task values must stay in tasks");
+  }
+
   private Process<String> scheduleFrom(TaskGraph<String> graph) {
     return new DefaultProcess<String>("test", false, false, Scope.root(), graph);
   }
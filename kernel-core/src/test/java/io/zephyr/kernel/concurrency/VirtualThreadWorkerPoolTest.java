@@ -0,0 +1,104 @@
+package io.zephyr.kernel.concurrency;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertFalse;
+import static org.junit.jupiter.api.Assertions.assertTrue;
+import static org.junit.jupiter.api.Assumptions.assumeFalse;
+import static org.junit.jupiter.api.Assumptions.assumeTrue;
+
+import java.util.ArrayList;
+import java.util.concurrent.CountDownLatch;
+import java.util.concurrent.ExecutionException;
+import java.util.concurrent.Future;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.TimeoutException;
+import lombok.val;
+import org.junit.jupiter.api.AfterEach;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+
+@SuppressWarnings({"PMD.DoNotUseThreads", "PMD.JUnitTestContainsTooManyAsserts"})
+class VirtualThreadWorkerPoolTest {
+
+  private VirtualThreadWorkerPool pool;
+
+  @BeforeEach
+  void setUp() {
+    pool = new VirtualThreadWorkerPool();
+  }
+
+  @AfterEach
+  void tearDown() {
+    pool.getKernelExecutor().shutdownNow();
+    pool.getUserspaceExecutor().shutdownNow();
+  }
+
+  @Test
+  void ensureKernelTasksRunOnVirtualThreadsWhenSupported()
+      throws ExecutionException, InterruptedException {
+    assumeTrue(VirtualThreadWorkerPool.isSupported(), "virtual threads are not supported");
+    val name = pool.submitKernelAllocated(() -> Thread.currentThread().getName()).get();
+    assertTrue(name.startsWith("kernel-virtual-"), "task must run on a kernel virtual thread");
+  }
+
+  @Test
+  void ensureKernelTasksFallBackToPlatformThreadsWhenUnsupported()
+      throws ExecutionException, InterruptedException {
+    assumeFalse(VirtualThreadWorkerPool.isSupported(), "virtual threads are supported");
+    val name = pool.submitKernelAllocated(() -> Thread.currentThread().getName()).get();
+    assertTrue(name.startsWith("kernel-"), "task must run on a kernel platform thread");
+    assertFalse(name.startsWith("kernel-virtual-"), "task must not run on a virtual thread");
+  }
+
+  @Test
+  void ensureThousandsOfBlockedTasksMakeProgressConcurrently()
+      throws InterruptedException, ExecutionException, TimeoutException {
+    assumeTrue(VirtualThreadWorkerPool.isSupported(), "virtual threads are not supported");
+    val count = 2000;
+    val allStarted = new CountDownLatch(count);
+    val results = new ArrayList<Future<Boolean>>(count);
+    for (int i = 0; i < count; i++) {
+      results.add(
+          pool.submit(
+              () -> {
+                allStarted.countDown();
+                return allStarted.await(30, TimeUnit.SECONDS);
+              }));
+    }
+
+    int completed = 0;
+    for (val result : results) {
+      if (result.get(30, TimeUnit.SECONDS)) {
+        completed++;
+      }
+    }
+    assertEquals(count, completed, "every blocked task must have observed every other task start");
+  }
+
+  @Test
+  void ensureModuleThreadsAreVirtualWhenSupported() throws InterruptedException {
+    assumeTrue(VirtualThreadWorkerPool.isSupported(), "virtual threads are not supported");
+    val name = new String[1];
+    val thread =
+        VirtualThreadWorkerPool.newThread(
+            "module-test", () -> name[0] = Thread.currentThread().getName());
+    thread.start();
+    thread.join();
+    assertEquals("module-test", name[0], "thread must keep its exact name");
+    assertTrue(thread.toString().startsWith("VirtualThread"), "thread must be virtual");
+  }
+
+  @Test
+  void ensureModuleThreadsFallBackToNamedPlatformThreadsWhenUnsupported()
+      throws InterruptedException {
+    assumeFalse(VirtualThreadWorkerPool.isSupported(), "virtual threads are supported");
+    val name = new String[1];
+    val thread =
+        VirtualThreadWorkerPool.newThread(
+            "module-test", () -> name[0] = Thread.currentThread().getName());
+    thread.start();
+    thread.join();
+    assertEquals("module-test", name[0], "thread must keep its exact name");
+    assertEquals(Thread.class, thread.getClass(), "thread must be a platform thread");
+  }
+}
@@ -0,0 +1,194 @@
+package io.zephyr.kernel.core;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.mockito.ArgumentMatchers.any;
+import static org.mockito.BDDMockito.given;
+import static org.mockito.Mockito.mock;
+import static org.mockito.Mockito.never;
+import static org.mockito.Mockito.verify;
+import static org.mockito.Mockito.withSettings;
+
+import io.zephyr.Context;
+import io.zephyr.api.Query;
+import io.zephyr.api.QueryPlan;
+import io.zephyr.api.ServiceDefinition;
+import io.zephyr.api.ServiceReference;
+import io.zephyr.api.ServiceRegistration;
+import io.zephyr.api.ServiceRegistrationSet;
+import io.zephyr.api.ServiceRegistry;
+import io.zephyr.kernel.Lifecycle;
+import io.zephyr.kernel.Module;
+import io.zephyr.kernel.TaskQueue;
+import io.zephyr.kernel.extensions.ExpressionLanguageExtension;
+import io.zephyr.kernel.service.DefaultServiceDefinition;
+import io.zephyr.kernel.service.KernelServiceRegistry;
+import java.util.List;
+import java.util.ServiceLoader;
+import java.util.concurrent.atomic.AtomicInteger;
+import java.util.function.Predicate;
+import java.util.logging.Level;
+import java.util.logging.Logger;
+import lombok.val;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.condition.EnabledIfSystemProperty;
+import org.junit.jupiter.api.extension.ExtendWith;
+import org.mockito.Mock;
+import org.mockito.junit.jupiter.MockitoExtension;
+
+@ExtendWith(MockitoExtension.class)
+class DefaultModuleContextTest {
+
+  static final Logger log = Logger.getLogger(DefaultModuleContextTest.class.getName());
+
+  static final String LANGUAGE = "plan";
+
+  @Mock private Kernel kernel;
+  @Mock private Module module;
+  @Mock private Lifecycle lifecycle;
+  @Mock private ModuleManager moduleManager;
+  @Mock private ServiceRegistry serviceRegistry;
+  @Mock private ExpressionLanguageExtension extension;
+  @Mock private ServiceLoader<ExpressionLanguageExtension> loader;
+
+  private Query<ServiceDefinition<?>> query;
+  private DefaultModuleContext context;
+
+  @BeforeEach
+  void setUp() {
+    query = new Query<>("ignored", LANGUAGE, Context.empty());
+    context = new DefaultModuleContext(module, kernel, null);
+    given(kernel.getModuleManager()).willReturn(moduleManager);
+    given(kernel.getServiceRegistry()).willReturn(serviceRegistry);
+    given(moduleManager.getModules()).willReturn(List.of(module));
+    given(module.getLifecycle()).willReturn(lifecycle);
+    given(lifecycle.getState()).willReturn(Lifecycle.State.Active);
+    given(module.resolveServiceLoader(ExpressionLanguageExtension.class)).willReturn(loader);
+    given(loader.iterator()).willAnswer(invocation -> List.of(extension).iterator());
+    given(extension.supports(query)).willReturn(true);
+  }
+
+  @Test
+  void ensurePlannedQueriesAreAnsweredFromTheTypeIndex() {
+    val matching = registration("greeter", Lifecycle.State.Active);
+    val unmatched = registration("other", Lifecycle.State.Active);
+    val inactive = registration("greeter", Lifecycle.State.Resolved);
+    given(serviceRegistry.getRegistrationsDeclaring("java.lang.String"))
+        .willReturn(List.of(matching, unmatched, inactive));
+    given(extension.createPlan(query))
+        .willReturn(
+            new QueryPlan<>(
+                definition -> false,
+                definition -> "greeter".equals(definition.getName()),
+                "java.lang.String"));
+
+    val result = context.getReferences(query);
+    assertEquals(List.of(matching.getReference()), result, "must test only the residual");
+    verify(serviceRegistry, never()).getRegistrations(any(Module.class));
+  }
+
+  @Test
+  void ensureUnplannedQueriesScanActiveModules() {
+    val matching = registration("greeter", Lifecycle.State.Active);
+    val set = mock(ServiceRegistrationSet.class);
+    given(set.iterator()).willReturn(List.<ServiceRegistration<?>>of(matching).iterator());
+    given(moduleManager.getModules(Lifecycle.State.Active)).willReturn(List.of(module));
+    given(serviceRegistry.getRegistrations(module)).willReturn(set);
+    given(extension.createPlan(query))
+        .willReturn(QueryPlan.unplanned(definition -> "greeter".equals(definition.getName())));
+
+    assertEquals(
+        List.of(matching.getReference()),
+        context.getReferences(query),
+        "must test the whole predicate");
+    verify(serviceRegistry, never()).getRegistrationsDeclaring(any());
+  }
+
+  @Test
+  void ensurePlannedQueriesTestOnlyRegistrationsOfThePlannedType() {
+    val tested = new AtomicInteger();
+    val scan = index(1_000, 10, tested);
+    assertEquals(10, context.getReferences(query).size(), "must find every match");
+    assertEquals(10, tested.get(), "must test only the registrations of the planned type");
+    assertEquals(10, context.getReferences(scan).size(), "must find every match");
+    assertEquals(10 + 1_010, tested.get(), "must test every registration");
+  }
+
+  /**
+   * 10k lookups over 10k registrations, answered from the type index and by scanning. Run with
+   * ./gradlew :kernel-core:test -Dbenchmarks=true
+   */
+  @Test
+  @EnabledIfSystemProperty(named = "benchmarks", matches = "true")
+  void benchmarkPlannedQueriesAgainstScanning() {
+    val lookups = 10_000;
+    val tested = new AtomicInteger();
+    val scan = index(10_000, 10, tested);
+    for (int round = 0; round < 5; round++) {
+      long start = System.nanoTime();
+      int found = 0;
+      for (int i = 0; i < lookups; i++) {
+        found += context.getReferences(query).size();
+      }
+      val planned = System.nanoTime() - start;
+      start = System.nanoTime();
+      for (int i = 0; i < lookups; i++) {
+        found += context.getReferences(scan).size();
+      }
+      val scanned = System.nanoTime() - start;
+      assertEquals(2 * 10 * lookups, found, "every lookup must find every match");
+      log.log(
+          Level.INFO,
+          "{0} lookups over 10k registrations: planned {1} ms, scanned {2} ms",
+          new Object[] {lookups, planned / 1_000_000, scanned / 1_000_000});
+    }
+  }
+
+  /**
+   * register others services and matches greeters with a real registry. query is planned on the
+   * greeters' type, the returned query is not; both count their residual's tests in tested
+   */
+  private Query<ServiceDefinition<?>> index(int others, int matches, AtomicInteger tested) {
+    val registry = new KernelServiceRegistry();
+    given(module.getCoordinate()).willReturn(ModuleCoordinate.create("test", "test", "1.0.0"));
+    given(module.getTaskQueue()).willReturn(mock(TaskQueue.class));
+    for (int i = 0; i < others; i++) {
+      registry.register(module, new DefaultServiceDefinition<>(Object.class, "service-" + i));
+    }
+    for (int i = 0; i < matches; i++) {
+      registry.register(module, new DefaultServiceDefinition<>(String.class, "greeter", "s" + i));
+    }
+    final Predicate<ServiceDefinition<?>> residual =
+        definition -> {
+          tested.incrementAndGet();
+          return "greeter".equals(definition.getName());
+        };
+    val scan = new Query<ServiceDefinition<?>>("scan", LANGUAGE, Context.empty());
+    given(extension.supports(scan)).willReturn(true);
+    given(extension.createPlan(query))
+        .willReturn(new QueryPlan<>(definition -> false, residual, "java.lang.String"));
+    given(extension.createPlan(scan)).willReturn(QueryPlan.unplanned(residual));
+    given(serviceRegistry.getRegistrationsDeclaring("java.lang.String"))
+        .willAnswer(invocation -> registry.getRegistrationsDeclaring("java.lang.String"));
+    given(moduleManager.getModules(Lifecycle.State.Active)).willReturn(List.of(module));
+    given(serviceRegistry.getRegistrations(module)).willReturn(registry.getRegistrations(module));
+    return scan;
+  }
+
+  /** lenient, since the unplanned path never asks for the owner and inactive owners stop early */
+  @SuppressWarnings("unchecked")
+  private ServiceRegistration<?> registration(String name, Lifecycle.State state) {
+    val owner = mock(Module.class, withSettings().lenient());
+    val ownerLifecycle = mock(Lifecycle.class, withSettings().lenient());
+    val reference = mock(ServiceReference.class, withSettings().lenient());
+    val definition = mock(ServiceDefinition.class, withSettings().lenient());
+    val registration = mock(ServiceRegistration.class, withSettings().lenient());
+    given(registration.getReference()).willReturn(reference);
+    given(reference.getModule()).willReturn(owner);
+    given(reference.getDefinition()).willReturn(definition);
+    given(owner.getLifecycle()).willReturn(ownerLifecycle);
+    given(ownerLifecycle.getState()).willReturn(state);
+    given(definition.getName()).willReturn(name);
+    return registration;
+  }
+}
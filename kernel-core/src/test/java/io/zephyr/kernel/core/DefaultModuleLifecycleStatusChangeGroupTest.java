@@ -1,5 +1,69 @@
 package io.zephyr.kernel.core;
 
 import static org.junit.jupiter.api.Assertions.*;
+import static org.mockito.BDDMockito.given;
 
-class DefaultModuleLifecycleStatusChangeGroupTest {}
+import io.sunshower.kernel.test.MockModule;
+import io.zephyr.kernel.CoordinateSpecification;
+import io.zephyr.kernel.Dependency;
+import io.zephyr.kernel.Module;
+import io.zephyr.kernel.concurrency.ProcessPlanCache;
+import io.zephyr.kernel.dependencies.DefaultDependencyGraph;
+import io.zephyr.kernel.module.ModuleLifecycle;
+import io.zephyr.kernel.module.ModuleLifecycleChangeGroup;
+import io.zephyr.kernel.module.ModuleLifecycleChangeRequest;
+import java.util.ArrayList;
+import java.util.Arrays;
+import lombok.val;
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.extension.ExtendWith;
+import org.mockito.Mock;
+import org.mockito.junit.jupiter.MockitoExtension;
+
+@ExtendWith(MockitoExtension.class)
+class DefaultModuleLifecycleStatusChangeGroupTest {
+
+  @Mock private Kernel kernel;
+  @Mock private ModuleManager moduleManager;
+
+  @Test
+  void ensureGroupsForTheSameModulesShareOnePlan() {
+    val base = module("base");
+    val left = module("left", base);
+    val right = module("right", base);
+    val app = module("app", left, right);
+    val graph = new DefaultDependencyGraph();
+    graph.addAll(Arrays.asList(base, left, right, app));
+    given(moduleManager.getDependencyGraph()).willReturn(graph);
+    val plans = new ProcessPlanCache().at(graph.getVersion());
+
+    val first = start(plans, app, left, right, base).getProcess().getPlan();
+    val second = start(plans, base, right, left, app).getProcess().getPlan();
+    assertEquals(1, plans.size(), "groups for the same modules must share one plan");
+    assertEquals(first.getTasks(), second.getTasks(), "tasks must be laid out alike");
+    assertEquals(3, second.getStages().size(), "base, then left and right, then app");
+  }
+
+  private DefaultModuleLifecycleStatusChangeGroup start(
+      ProcessPlanCache plans, Module... modules) {
+    val group = new ModuleLifecycleChangeGroup();
+    for (val module : modules) {
+      group.addRequest(
+          new ModuleLifecycleChangeRequest(
+              module.getCoordinate(), ModuleLifecycle.Actions.Activate));
+    }
+    return new DefaultModuleLifecycleStatusChangeGroup(kernel, moduleManager, group, plans);
+  }
+
+  private static Module module(String name, Module... dependencies) {
+    val result = new ArrayList<Dependency>(dependencies.length);
+    for (val dependency : dependencies) {
+      val coordinate = dependency.getCoordinate();
+      val spec =
+          new CoordinateSpecification(
+              coordinate.getGroup(), coordinate.getName(), coordinate.getVersion().toString());
+      result.add(new Dependency(Dependency.Type.Service, coordinate, spec));
+    }
+    return new MockModule(ModuleCoordinate.create("io.zephyr", name, "1.0.0"), result);
+  }
+}
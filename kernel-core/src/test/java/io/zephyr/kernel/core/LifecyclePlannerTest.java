@@ -0,0 +1,121 @@
+package io.zephyr.kernel.core;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertFalse;
+import static org.junit.jupiter.api.Assertions.assertTrue;
+
+import io.sunshower.gyre.AbstractDirectedGraph;
+import io.sunshower.gyre.DirectedGraph;
+import io.sunshower.gyre.Graph;
+import io.sunshower.gyre.Scope;
+import io.zephyr.kernel.Coordinate;
+import io.zephyr.kernel.concurrency.Task;
+import io.zephyr.kernel.concurrency.TaskGraph;
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.List;
+import lombok.val;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+
+@SuppressWarnings("PMD.JUnitTestContainsTooManyAsserts")
+class LifecyclePlannerTest {
+
+  private Graph<DirectedGraph.Edge<Coordinate>, Coordinate> graph;
+  private TaskGraph<String> tasks;
+  private LifecyclePlanner planner;
+
+  @BeforeEach
+  void setUp() {
+    graph = new AbstractDirectedGraph<>();
+    tasks = new TaskGraph<>();
+    planner = new LifecyclePlanner(graph, tasks);
+  }
+
+  @Test
+  void ensureStoppingPlansSharedDependentsOnce() {
+    val coordinates = chain(4);
+    val planned =
+        planner.stop(Arrays.asList(coordinates.get(3), coordinates.get(2)), this::task);
+    assertEquals(4, planned.size(), "every dependent must be planned once");
+    assertEquals(4, tasks.vertexSet().size(), "every dependent must have one task");
+    assertEquals(3, edgeCount(), "only direct dependencies must be connected");
+
+    val first = planned.get(coordinates.get(3));
+    val second = planned.get(coordinates.get(2));
+    assertTrue(tasks.neighbors(first).contains(second), "dependents must stop first");
+  }
+
+  @Test
+  void ensureStartingPlansDependenciesOnly() {
+    val coordinates = chain(4);
+    val planned = planner.start(Arrays.asList(coordinates.get(1)), this::task);
+    assertEquals(3, planned.size(), "only dependencies must be planned");
+
+    val first = planned.get(coordinates.get(1));
+    val second = planned.get(coordinates.get(2));
+    assertTrue(tasks.neighbors(first).contains(second), "dependencies must start first");
+  }
+
+  @Test
+  void ensureStoppingEveryModuleOfAChainIsLinear() {
+    val coordinates = chain(1000);
+    val planned = planner.stop(coordinates, this::task);
+    assertEquals(1000, planned.size(), "every module must be planned");
+    assertEquals(999, edgeCount(), "must have one edge per dependency");
+  }
+
+  @Test
+  void ensureUnresolvedCoordinatesArePassedThroughWithoutTasks() {
+    val dependent = ModuleCoordinate.create("io.zephyr", "dependent", "1.0.0");
+    val unresolved =
+        new ModuleCoordinate("unresolved", "io.zephyr", new SemanticVersion("1.0.0"), false);
+    val dependency = ModuleCoordinate.create("io.zephyr", "dependency", "1.0.0");
+    graph.connect(dependent, unresolved, DirectedGraph.outgoing(unresolved));
+    graph.connect(unresolved, dependency, DirectedGraph.outgoing(dependency));
+
+    val planned = planner.start(Arrays.asList(dependent), this::task);
+    assertEquals(2, planned.size(), "only resolved coordinates must be planned");
+    assertFalse(planned.containsKey(unresolved), "unresolved coordinate must have no task");
+    assertTrue(
+        tasks.neighbors(planned.get(dependent)).contains(planned.get(dependency)),
+        "order must hold through the unresolved coordinate");
+  }
+
+  /** @return count coordinates, each depending on the one after it */
+  private List<Coordinate> chain(int count) {
+    val result = new ArrayList<Coordinate>(count);
+    for (int i = 0; i < count; i++) {
+      result.add(ModuleCoordinate.create("io.zephyr", "plugin-" + i, "1.0.0"));
+    }
+    for (int i = 0; i < count - 1; i++) {
+      val dependency = result.get(i + 1);
+      graph.connect(result.get(i), dependency, DirectedGraph.outgoing(dependency));
+    }
+    return result;
+  }
+
+  private int edgeCount() {
+    int result = 0;
+    for (val task : tasks.vertexSet()) {
+      result += tasks.neighbors(task).size();
+    }
+    return result;
+  }
+
+  private Task task(Coordinate coordinate) {
+    return new Noop(coordinate.toCanonicalForm());
+  }
+
+  static final class Noop extends Task {
+
+    Noop(String name) {
+      super(name);
+    }
+
+    @Override
+    public TaskValue run(Scope scope) {
+      return null;
+    }
+  }
+}
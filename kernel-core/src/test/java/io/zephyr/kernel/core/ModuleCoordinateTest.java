@@ -3,6 +3,8 @@ package io.zephyr.kernel.core;
 import static org.junit.jupiter.api.Assertions.*;
 
 import io.zephyr.kernel.Coordinate;
+import io.zephyr.kernel.CoordinateSpecification;
+import java.util.Arrays;
 import java.util.LinkedHashSet;
 import lombok.val;
 import org.junit.jupiter.api.Test;
@@ -28,10 +30,46 @@ class ModuleCoordinateTest {
   void ensureModuleCoordinatesAreHashable() {
     val hashMap = new LinkedHashSet<Coordinate>();
     val c = ModuleCoordinate.create("io.sunshower", "test-plugin-1", "1.0.0-SNAPSHOT");
-    val v = ModuleCoordinate.create("io.sunshower", "test-plugin-1", "1.0.0-SNAPSHOT");
+    val version = new SemanticVersion("1.0.0-SNAPSHOT");
+    val v = new ModuleCoordinate("test-plugin-1", "io.sunshower", version);
     hashMap.add(c);
     assertTrue(
         hashMap.contains(v),
         "hashmap must contain equivalent but referentially different coordinate");
   }
+
+  @Test
+  void ensureCoordinatesAreInterned() {
+    val c = ModuleCoordinate.create("io.sunshower", "test-plugin-1", "1.0.0");
+    assertSame(c, ModuleCoordinate.create("io.sunshower", "test-plugin-1", "1.0.0"), "must intern");
+    assertSame(c, ModuleCoordinate.parse("io.sunshower:test-plugin-1:1.0.0"), "must intern");
+    assertEquals("io.sunshower:test-plugin-1:1.0.0", c.toCanonicalForm(), "must be canonical");
+    assertEquals(
+        Arrays.asList("io.sunshower", "test-plugin-1", "1.0.0"), c.getSegments(), "must split");
+  }
+
+  @Test
+  void ensureUnresolvedCoordinatesAreNotInterned() {
+    val spec = new CoordinateSpecification("io.sunshower", "test-plugin-2", "1.0.0");
+    val c = ModuleCoordinate.createUnresolvedCoordinate(spec);
+    assertFalse(c.isResolved(), "must be unresolved");
+    assertTrue(ModuleCoordinate.parse(c.toCanonicalForm()).isResolved(), "must not be interned");
+  }
+
+  @Test
+  @SuppressWarnings("deprecation")
+  void ensureResolvedFirstConstructorIsEquivalent() {
+    val version = new SemanticVersion("1.0.0");
+    val c = new ModuleCoordinate(false, "test-plugin-1", "io.sunshower", version);
+    assertEquals(new ModuleCoordinate("test-plugin-1", "io.sunshower", version, false), c);
+    assertFalse(c.isResolved(), "must keep resolution");
+  }
+
+  @Test
+  void ensureCoordinatesRejectNullSegments() {
+    val version = new SemanticVersion("1.0.0");
+    assertThrows(NullPointerException.class, () -> new ModuleCoordinate(null, "g", version));
+    assertThrows(NullPointerException.class, () -> new ModuleCoordinate("n", null, version));
+    assertThrows(NullPointerException.class, () -> new ModuleCoordinate("n", "g", null));
+  }
 }
@@ -0,0 +1,62 @@
+package io.zephyr.kernel.core;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.mockito.BDDMockito.given;
+
+import io.zephyr.kernel.Module;
+import io.zephyr.kernel.concurrency.ModuleThread;
+import io.zephyr.kernel.concurrency.VirtualModuleThread;
+import io.zephyr.kernel.launch.KernelOptions;
+import lombok.val;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.extension.ExtendWith;
+import org.mockito.Mock;
+import org.mockito.junit.jupiter.MockitoExtension;
+
+@ExtendWith(MockitoExtension.class)
+class ModulesTest {
+
+  @Mock private Module module;
+  @Mock private Kernel kernel;
+
+  private KernelOptions options;
+
+  @BeforeEach
+  void setUp() {
+    options = new KernelOptions();
+  }
+
+  @Test
+  void ensureDefaultThreadingFollowsTheKernelOption() {
+    given(module.getThreading()).willReturn(Module.Threading.Default);
+    assertEquals(
+        ModuleThread.class,
+        Modules.createTaskQueue(module, kernel, options).getClass(),
+        "must use a platform module thread by default");
+
+    options.setVirtualModuleThreads(true);
+    assertEquals(
+        VirtualModuleThread.class,
+        Modules.createTaskQueue(module, kernel, options).getClass(),
+        "must follow --virtual-module-threads");
+  }
+
+  @Test
+  void ensureModulesOverrideTheKernelOption() {
+    options.setVirtualModuleThreads(true);
+    given(module.getThreading()).willReturn(Module.Threading.Platform);
+    assertEquals(
+        ModuleThread.class,
+        Modules.createTaskQueue(module, kernel, options).getClass(),
+        "platform threading must override the kernel option");
+
+    options.setVirtualModuleThreads(false);
+    given(module.getThreading()).willReturn(Module.Threading.Virtual);
+    val thread = Modules.createTaskQueue(module, kernel, options);
+    assertEquals(
+        VirtualModuleThread.class,
+        thread.getClass(),
+        "virtual threading must override the kernel option");
+  }
+}
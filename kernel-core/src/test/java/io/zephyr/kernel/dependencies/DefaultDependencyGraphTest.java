@@ -4,23 +4,36 @@ import static io.zephyr.kernel.dependencies.ModuleCycleDetectorTest.specFor;
 import static org.junit.jupiter.api.Assertions.*;
 
 import io.sunshower.kernel.test.MockModule;
+import io.zephyr.kernel.CoordinateSpecification;
 import io.zephyr.kernel.Dependency;
 import io.zephyr.kernel.Module;
 import io.zephyr.kernel.core.ModuleCoordinate;
 import io.zephyr.kernel.core.SemanticVersion;
+import java.time.Duration;
+import java.util.ArrayList;
 import java.util.Arrays;
+import java.util.Set;
+import java.util.concurrent.CountDownLatch;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicLong;
+import java.util.logging.Level;
+import java.util.logging.Logger;
 import java.util.stream.Collectors;
 import lombok.val;
 import org.junit.jupiter.api.BeforeEach;
 import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.condition.EnabledIfSystemProperty;
 
 @SuppressWarnings({
   "PMD.AvoidDuplicateLiterals",
   "PMD.JUnitTestContainsTooManyAsserts",
-  "PMD.JUnitAssertionsShouldIncludeMessage"
+  "PMD.JUnitAssertionsShouldIncludeMessage",
+  "PMD.DoNotUseThreads"
 })
 class DefaultDependencyGraphTest {
 
+  static final Logger log = Logger.getLogger(DefaultDependencyGraphTest.class.getName());
+
   private DependencyGraph graph;
 
   @BeforeEach
@@ -132,6 +145,196 @@ class DefaultDependencyGraphTest {
     assertEquals(new SemanticVersion("1.0.0-SNAPSHOT"), coord.getVersion());
   }
 
+  @Test
+  void ensureRangesResolveToGreatestSatisfyingVersion() {
+    graph.addAll(
+        Arrays.asList(
+            moduleWithVersion("io.zephyr", "lib", "1.0.0"),
+            moduleWithVersion("io.zephyr", "lib", "1.1.0")));
+    val range = dependent("[1.0.0,2.0.0[");
+    val exact = dependent("1.1.0");
+    graph.resolveDependencies(
+        Arrays.asList(
+            range,
+            exact,
+            moduleWithVersion("io.zephyr", "lib", "1.2.0"),
+            moduleWithVersion("io.zephyr", "lib", "2.0.0")));
+    assertEquals(
+        new SemanticVersion("1.2.0"),
+        range.getDependencies().iterator().next().getCoordinate().getVersion(),
+        "must select the greatest version in the range, installed or not");
+    assertEquals(
+        new SemanticVersion("1.1.0"),
+        exact.getDependencies().iterator().next().getCoordinate().getVersion(),
+        "must select the exact version");
+  }
+
+  @Test
+  void ensureReversedRangesMatchNothing() {
+    graph.addAll(
+        Arrays.asList(
+            moduleWithVersion("io.zephyr", "lib", "1.0.0"),
+            moduleWithVersion("io.zephyr", "lib", "1.1.0")));
+    val reversed = dependent("[2.0.0,1.0.0]");
+    val unresolved = graph.resolveDependencies(Arrays.asList(reversed));
+    assertEquals(1, unresolved.size(), "reversed range must not resolve");
+  }
+
+  @Test
+  void ensureTransitiveClosureFollowsAddsAndRemoves() {
+    val c = module("c");
+    val b = module("b", "c");
+    val a = module("a", "b");
+    graph.addAll(Arrays.asList(a, b, c));
+    assertEquals(
+        Set.of(b.getCoordinate(), c.getCoordinate()),
+        graph.getTransitiveDependencies(a.getCoordinate()),
+        "a must reach everything downstream");
+    assertEquals(
+        Set.of(a.getCoordinate(), b.getCoordinate()),
+        graph.getTransitiveDependents(c.getCoordinate()),
+        "c must be reached by everything upstream");
+    assertTrue(graph.dependsOn(a.getCoordinate(), c.getCoordinate()), "must depend transitively");
+    assertFalse(graph.dependsOn(c.getCoordinate(), a.getCoordinate()), "must not depend upward");
+
+    graph.remove(b);
+    assertTrue(
+        graph.getTransitiveDependents(c.getCoordinate()).isEmpty(),
+        "removing b must disconnect a from c");
+    assertFalse(graph.dependsOn(a.getCoordinate(), c.getCoordinate()), "a must not reach c");
+  }
+
+  @Test
+  void ensureWritersDoNotModifyPublishedSnapshots() {
+    graph.add(module("a"));
+    val version = graph.getVersion();
+    val snapshot = graph.getGraph();
+    val clone = graph.clone();
+    graph.add(module("b"));
+    assertEquals(1, snapshot.size(), "published snapshot must not change");
+    assertEquals(1, clone.size(), "clone must not observe later writes");
+    assertEquals(2, graph.size(), "graph must observe its own writes");
+    assertNotEquals(version, graph.getVersion(), "write must advance the version");
+
+    clone.remove(module("a"));
+    assertTrue(graph.contains(module("a").getCoordinate()), "clone writes must not leak");
+  }
+
+  @Test
+  void ensureReadersDoNotWaitForWriters() throws InterruptedException {
+    val a = module("a");
+    graph.add(a);
+    val locked = new CountDownLatch(1);
+    val release = new CountDownLatch(1);
+    val writer =
+        new Thread(
+            () -> {
+              synchronized (((DefaultDependencyGraph) graph).lock) {
+                locked.countDown();
+                try {
+                  release.await();
+                } catch (InterruptedException ex) {
+                  Thread.currentThread().interrupt();
+                }
+              }
+            });
+    writer.start();
+    try {
+      assertTrue(locked.await(5, TimeUnit.SECONDS), "writer must hold the lock");
+      assertTimeoutPreemptively(
+          Duration.ofSeconds(5),
+          () -> {
+            assertEquals(a, graph.get(a.getCoordinate()), "must read while a writer is active");
+            assertEquals(1, graph.getModules(a.getCoordinate()).size());
+            assertTrue(graph.getDependencies(a.getCoordinate()).isEmpty());
+            assertTrue(graph.resolveDependencies(Arrays.asList(module("b", "a"))).isEmpty());
+          });
+    } finally {
+      release.countDown();
+      writer.join();
+    }
+  }
+
+  /**
+   * get and getModules throughput as readers are added. Run with ./gradlew :kernel-core:test
+   * -Dbenchmarks=true
+   */
+  @Test
+  @EnabledIfSystemProperty(named = "benchmarks", matches = "true")
+  void benchmarkLookupThroughputByReaderCount() throws InterruptedException {
+    val modules = new ArrayList<Module>();
+    for (int i = 0; i < 1000; i++) {
+      modules.add(moduleWithVersion("io.zephyr", "module-" + i % 100, "1." + i / 100 + ".0"));
+    }
+    graph.addAll(modules);
+    val iterations = 100_000;
+    for (int readers = 1; readers <= Runtime.getRuntime().availableProcessors(); readers *= 2) {
+      val found = new AtomicLong();
+      val done = new CountDownLatch(readers);
+      val start = System.nanoTime();
+      for (int r = 0; r < readers; r++) {
+        new Thread(
+                () -> {
+                  long count = 0;
+                  for (int i = 0; i < iterations; i++) {
+                    val coordinate = modules.get(i % modules.size()).getCoordinate();
+                    if (graph.get(coordinate) != null && graph.getModules(coordinate) != null) {
+                      count++;
+                    }
+                  }
+                  found.addAndGet(count);
+                  done.countDown();
+                })
+            .start();
+      }
+      done.await();
+      val elapsed = System.nanoTime() - start;
+      // each iteration makes two queries: get and getModules
+      val queries = 2L * iterations * readers;
+      assertEquals((long) iterations * readers, found.get(), "every lookup must find its module");
+      log.log(
+          Level.INFO,
+          "{0} readers: {1} queries/ms",
+          new Object[] {readers, queries * 1_000_000 / elapsed});
+    }
+  }
+
+  /**
+   * resolution of 1k modules with 10 ranges each against 1k libraries. Run with ./gradlew
+   * :kernel-core:test -Dbenchmarks=true
+   */
+  @Test
+  @EnabledIfSystemProperty(named = "benchmarks", matches = "true")
+  void benchmarkResolvingRangesAcrossOneThousandModules() {
+    val ranges = new String[] {"[1.0,2.0[", "[1.0.0,1.5.0]", "1.+", "1.2.+", "1.3.0"};
+    val libraries = new ArrayList<Module>();
+    for (int i = 0; i < 1000; i++) {
+      libraries.add(moduleWithVersion("io.zephyr", "lib-" + i % 100, "1." + i / 100 + ".0"));
+    }
+    graph.addAll(libraries);
+    for (int round = 0; round < 5; round++) {
+      val dependents = new ArrayList<Module>();
+      for (int i = 0; i < 1000; i++) {
+        val dependencies = new ArrayList<Dependency>();
+        for (int j = 0; j < 10; j++) {
+          val spec =
+              new CoordinateSpecification(
+                  "io.zephyr", "lib-" + (i + j) % 100, ranges[(i + j) % ranges.length]);
+          dependencies.add(new Dependency(Dependency.Type.Service, spec));
+        }
+        val coordinate = ModuleCoordinate.create("io.zephyr", "app-" + i, "1.0.0");
+        dependents.add(new MockModule(coordinate, dependencies));
+      }
+      val start = System.nanoTime();
+      val unresolved = graph.resolveDependencies(dependents);
+      assertTrue(unresolved.isEmpty(), "every range must be satisfied");
+      log.log(
+          Level.INFO,
+          "resolved 1k modules with 10 ranges each in {0} ms",
+          (System.nanoTime() - start) / 1_000_000);
+    }
+  }
+
   private void scenario2() {
     val fst = moduleWithVersion("io.sunshower", "sunshower-spring", "1.0.0-SNAPSHOT");
     val snd = moduleWithVersion("io.sunshower", "sunshower-spring", "1.1.0-Final");
@@ -151,6 +354,14 @@ class DefaultDependencyGraphTest {
     return new MockModule(coord, results);
   }
 
+  Module dependent(String range) {
+    val spec = new CoordinateSpecification("io.zephyr", "lib", range);
+    val dependency = new Dependency(Dependency.Type.Service, spec);
+    return new MockModule(
+        ModuleCoordinate.create("io.zephyr", "app-" + range, "1.0.0"),
+        Arrays.asList(dependency));
+  }
+
   Module newModule(String group, String name, String... deps) {
     val coord = ModuleCoordinate.create(group, name, "1.0.0-SNAPSHOT");
     val results =
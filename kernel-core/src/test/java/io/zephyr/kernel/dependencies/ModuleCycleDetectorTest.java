@@ -131,6 +131,65 @@ class ModuleCycleDetectorTest {
     assertEquals(cycle.size(), 7, "must have 7 components");
   }
 
+  @Test
+  void ensureCycleThroughInstalledModulesIsDetectedIncrementally() {
+    val a = create("a", "a", "1.0.0");
+    val b = create("b", "b", "1.0.0");
+    val c = create("c", "c", "1.0.0");
+    connect(a, b);
+    val optional =
+        new Dependency(
+            Dependency.Type.Service,
+            specFor(c),
+            true,
+            false,
+            Dependency.ServicesResolutionStrategy.None,
+            Collections.emptyList(),
+            Collections.emptyList());
+    optional.setCoordinate(c.getCoordinate());
+    b.addDependency(optional);
+    val g = new DefaultDependencyGraph();
+    g.addAll(asList(a, b));
+    connect(c, a);
+
+    val cycles = getCycles(g.computeCycles(Collections.singletonList(c)));
+    assertEquals(1, cycles.size(), "must detect the cycle through installed modules");
+    assertEquals(3, cycles.get(0).size(), "must report every module on the cycle");
+    assertFalse(g.contains(c.getCoordinate()), "checking must not modify the graph");
+    assertFalse(
+        g.computeCycles(Collections.singletonList(create("d", "d", "1.0.0"))).isCyclic(),
+        "unrelated module must not be cyclic");
+  }
+
+  @Test
+  void ensureCyclesAreSearchedWholeOnceTheGraphIsCyclic() {
+    connect(a, b);
+    connect(b, a);
+    val g = new DefaultDependencyGraph();
+    g.addAll(asList(a, b));
+    connect(c, d);
+    connect(d, c);
+
+    val cycles = getCycles(g.computeCycles(asList(c, d)));
+    assertEquals(2, cycles.size(), "must report the installed and the prospective cycle");
+    assertFalse(g.contains(c.getCoordinate()), "checking must not modify the graph");
+  }
+
+  @Test
+  void ensureEveryProspectiveCycleIsReported() {
+    connect(a, b);
+    val g = new DefaultDependencyGraph();
+    g.addAll(asList(a, b));
+    connect(c, d);
+    connect(d, c);
+    connect(e, f);
+    connect(f, e);
+
+    val cycles = getCycles(g.computeCycles(asList(c, d, e, f)));
+    assertEquals(2, cycles.size(), "must report both independent cycles");
+    assertFalse(g.contains(c.getCoordinate()), "checking must not modify the graph");
+  }
+
   @Test
   void ensureCycleIsComputedCorrectly() {
     String alphabet = "abcdefghijklmnopqrstuvwxyz";
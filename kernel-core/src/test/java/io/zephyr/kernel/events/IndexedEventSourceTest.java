@@ -0,0 +1,97 @@
+package io.zephyr.kernel.events;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertFalse;
+import static org.junit.jupiter.api.Assertions.assertTrue;
+
+import io.sunshower.lang.events.EventListener;
+import io.sunshower.lang.events.Events;
+import io.zephyr.api.ModuleEvents;
+import io.zephyr.kernel.core.KernelEventTypes;
+import java.util.ArrayList;
+import java.util.List;
+import lombok.val;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+
+@SuppressWarnings("PMD.JUnitTestContainsTooManyAsserts")
+class IndexedEventSourceTest {
+
+  private IndexedEventSource source;
+  private List<String> received;
+
+  @BeforeEach
+  void setUp() {
+    received = new ArrayList<>();
+    source = new IndexedEventSource();
+  }
+
+  @Test
+  void ensureListenerIsOnlyCalledForItsTypes() {
+    source.addEventListener(recorder("a"), ModuleEvents.STARTED, ModuleEvents.STOPPED);
+    source.addEventListener(recorder("b"), KernelEventTypes.KERNEL_START_FAILED);
+
+    source.dispatchEvent(ModuleEvents.STARTED, Events.create(null));
+    source.dispatchEvent(ModuleEvents.STOPPED, Events.create(null));
+    source.dispatchEvent(ModuleEvents.STARTING, Events.create(null));
+    assertEquals(List.of("a", "a"), received, "only listeners for the type must be called");
+    assertTrue(source.listensFor(KernelEventTypes.KERNEL_START_FAILED), "must listen for type");
+    assertFalse(source.listensFor(ModuleEvents.STARTING), "must not listen for type");
+  }
+
+  @Test
+  void ensureListenersAreCalledInRegistrationOrder() {
+    source.addEventListener(recorder("a"), ModuleEvents.STARTED);
+    source.addEventListener(recorder("b"), ModuleEvents.STARTED);
+    source.addEventListener(recorder("c"), ModuleEvents.STARTED);
+    source.dispatchEvent(ModuleEvents.STARTED, Events.create(null));
+    assertEquals(List.of("a", "b", "c"), received, "listeners must be called in order");
+  }
+
+  @Test
+  void ensureRemovingListenerRemovesItFromEveryType() {
+    val listener = recorder("a");
+    source.addEventListener(listener, ModuleEvents.STARTED, ModuleEvents.STOPPED);
+    source.addEventListener(recorder("b"), ModuleEvents.STOPPED);
+    assertEquals(2, source.getListenerCount(), "must count registrations");
+
+    source.removeEventListener(listener);
+    source.dispatchEvent(ModuleEvents.STARTED, Events.create(null));
+    source.dispatchEvent(ModuleEvents.STOPPED, Events.create(null));
+    assertEquals(List.of("b"), received, "removed listener must not be called");
+    assertEquals(1, source.getListenerCount(), "must have one listener");
+    assertFalse(source.listensFor(ModuleEvents.STARTED), "must not listen for type");
+  }
+
+  @Test
+  void ensureRemoveAfterDispatchListenerIsCalledOnce() {
+    source.addEventListener(
+        recorder("a"),
+        EventListener.Options.REMOVE_AFTER_DISPATCH,
+        ModuleEvents.STARTED,
+        ModuleEvents.STOPPED);
+    source.dispatchEvent(ModuleEvents.STARTED, Events.create(null));
+    source.dispatchEvent(ModuleEvents.STOPPED, Events.create(null));
+    assertEquals(List.of("a"), received, "listener must be called once");
+    assertEquals(0, source.getListenerCount(), "listener must be removed");
+  }
+
+  @Test
+  void ensureListenerAddedDuringDispatchIsNotCalledByThatDispatch() {
+    EventListener<Object> adding =
+        (type, event) -> {
+          received.add("a");
+          source.addEventListener(recorder("b"), ModuleEvents.STARTED);
+        };
+    source.addEventListener(
+        adding, EventListener.Options.REMOVE_AFTER_DISPATCH, ModuleEvents.STARTED);
+    source.dispatchEvent(ModuleEvents.STARTED, Events.create(null));
+    assertEquals(List.of("a"), received, "new listener must wait for the next dispatch");
+    source.dispatchEvent(ModuleEvents.STARTED, Events.create(null));
+    assertEquals(List.of("a", "b"), received, "new listener must be called");
+  }
+
+  private EventListener<Object> recorder(String name) {
+    return (type, event) -> received.add(name);
+  }
+}
@@ -0,0 +1,65 @@
+package io.zephyr.kernel.service;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertFalse;
+import static org.junit.jupiter.api.Assertions.assertNull;
+import static org.junit.jupiter.api.Assertions.assertSame;
+import static org.junit.jupiter.api.Assertions.assertTrue;
+
+import io.zephyr.kernel.core.FactoryServiceDefinition;
+import java.util.List;
+import java.util.concurrent.atomic.AtomicInteger;
+import lombok.val;
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.extension.ExtendWith;
+import org.mockito.junit.jupiter.MockitoExtension;
+
+@ExtendWith(MockitoExtension.class)
+@SuppressWarnings("PMD.JUnitTestContainsTooManyAsserts")
+class DefaultServiceHandleTest extends ServiceRegistryTestCase {
+
+  @Test
+  void ensureHandleResolvesServiceRegisteredAfterItWasCreated() {
+    val handle = new DefaultServiceHandle<>(registry, CharSequence.class);
+    assertFalse(handle.isAvailable(), "nothing is registered yet");
+    assertNull(handle.get(), "must have no service");
+
+    val registration =
+        registry.register(
+            module, new DefaultServiceDefinition<CharSequence>(CharSequence.class, "hello"));
+    assertTrue(handle.isAvailable(), "must see the new registration");
+    assertEquals("hello", handle.get(), "must resolve the service");
+    assertEquals(List.of(registration.getReference()), handle.getReferences(), "must match");
+
+    registration.dispose();
+    assertFalse(handle.isAvailable(), "must see the disposal");
+    assertNull(handle.getReference(), "must have no reference");
+  }
+
+  @Test
+  void ensureServiceIsCachedUntilTheMatchingRegistrationsChange() {
+    val created = new AtomicInteger();
+    registry.register(
+        module,
+        new FactoryServiceDefinition<>(
+            StringBuilder.class, () -> new StringBuilder().append(created.incrementAndGet())));
+    val handle = new DefaultServiceHandle<>(registry, StringBuilder.class);
+
+    val service = handle.get();
+    assertSame(service, handle.get(), "must not re-resolve while the epoch is unchanged");
+
+    val unrelated = registry.register(module, new DefaultServiceDefinition<>(Integer.class, 1));
+    unrelated.dispose();
+    assertSame(service, handle.get(), "unrelated changes must not re-resolve the service");
+    assertEquals(1, created.get(), "factory must be called once");
+  }
+
+  @Test
+  void ensureEpochAdvancesOnRegistrationAndDisposal() {
+    val initial = registry.getEpoch();
+    val registration = registry.register(module, new DefaultServiceDefinition<>(String.class, "a"));
+    assertEquals(initial + 1, registry.getEpoch(), "registration must advance the epoch");
+    registration.dispose();
+    assertEquals(initial + 2, registry.getEpoch(), "disposal must advance the epoch");
+  }
+}
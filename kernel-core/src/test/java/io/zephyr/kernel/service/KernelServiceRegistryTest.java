@@ -2,10 +2,15 @@ package io.zephyr.kernel.service;
 
 import static org.junit.jupiter.api.Assertions.*;
 import static org.mockito.ArgumentMatchers.any;
+import static org.mockito.Mockito.doAnswer;
+import static org.mockito.Mockito.mock;
 import static org.mockito.Mockito.times;
 import static org.mockito.Mockito.verify;
 
 import io.zephyr.api.ServiceEvents;
+import io.zephyr.api.ServiceRegistration;
+import java.util.ArrayList;
+import java.util.List;
 import lombok.val;
 import org.junit.jupiter.api.Test;
 import org.junit.jupiter.api.extension.ExtendWith;
@@ -93,4 +98,125 @@ class KernelServiceRegistryTest extends ServiceRegistryTestCase {
     registration.dispose();
     assertTrue(moduleRegistry.registrations.contains(reg2), "must remove correct registration");
   }
+
+  @Test
+  void ensureLookupFindsRegistrationsOfTheTypeAndItsSupertypesInRegistrationOrder() {
+    val string = registry.register(module, new DefaultServiceDefinition<>(String.class, "a"));
+    registry.register(module, new DefaultServiceDefinition<>(Integer.class, 1));
+    val sequence =
+        registry.register(
+            module, new DefaultServiceDefinition<CharSequence>(CharSequence.class, "b"));
+    val object = registry.register(module, new DefaultServiceDefinition<>(Object.class, "c"));
+
+    assertEquals(
+        List.of(string, sequence, object),
+        registry.getRegistrations(String.class),
+        "must find every registration that provides the type");
+    assertEquals(
+        List.of(sequence, object),
+        registry.getRegistrations(CharSequence.class),
+        "must not find registrations of subtypes");
+  }
+
+  @Test
+  void ensureLookupDoesNotFindDisposedRegistrations() {
+    val first = registry.register(module, new DefaultServiceDefinition<>(String.class, "a"));
+    val second = registry.register(module, new DefaultServiceDefinition<>(String.class, "b"));
+    first.dispose();
+    assertEquals(
+        List.of(second),
+        registry.getRegistrations(String.class),
+        "disposed registration must not be found");
+    second.dispose();
+    assertTrue(registry.getRegistrations(String.class).isEmpty(), "must find nothing");
+    assertTrue(((KernelServiceRegistry) registry).index.isEmpty(), "index must be empty");
+  }
+
+  @Test
+  void ensureLookupByTypeNameFindsOnlyTheDeclaredType() {
+    val string = registry.register(module, new DefaultServiceDefinition<>(String.class, "a"));
+    registry.register(module, new DefaultServiceDefinition<CharSequence>(CharSequence.class, "b"));
+    val other = registry.register(module, new DefaultServiceDefinition<>(String.class, "c"));
+    assertEquals(
+        List.of(string, other),
+        registry.getRegistrationsDeclaring(String.class.getName()),
+        "must find registrations declaring the type");
+    string.dispose();
+    assertEquals(
+        List.of(other),
+        registry.getRegistrationsDeclaring(String.class.getName()),
+        "disposed registration must not be found");
+    other.dispose();
+    assertTrue(((KernelServiceRegistry) registry).byTypeName.isEmpty(), "index must be empty");
+  }
+
+  @Test
+  void ensureBulkRegistrationIsIndexedAndDispatchesOneEvent() {
+    val registrations =
+        registry.registerAll(
+            module,
+            List.of(
+                new DefaultServiceDefinition<>(String.class, "a"),
+                new DefaultServiceDefinition<>(Integer.class, 1),
+                new DefaultServiceDefinition<>(String.class, "b")));
+    verify(taskQueue, times(1)).schedule(any(Runnable.class));
+    assertEquals(3, registry.getRegistrations(module).getRegistrations().size(), "must register");
+    assertEquals(
+        List.of(registrations.get(0), registrations.get(2)),
+        registry.getRegistrations(String.class),
+        "must index every registration");
+
+    registry.unregisterAll(List.of(registrations.get(0), registrations.get(1)));
+    verify(taskQueue, times(2)).schedule(any(Runnable.class));
+    assertEquals(
+        List.of(registrations.get(2)),
+        registry.getRegistrations(String.class),
+        "must unindex the batch");
+
+    registry.unregisterAll(registrations);
+    verify(taskQueue, times(3)).schedule(any(Runnable.class));
+    assertTrue(((KernelServiceRegistry) registry).registries.isEmpty(), "must remove the module");
+    assertTrue(((KernelServiceRegistry) registry).index.isEmpty(), "index must be empty");
+  }
+
+  @Test
+  void ensureBulkUnregistrationWithForeignRegistrationChangesNothing() {
+    val registrations =
+        registry.registerAll(
+            module,
+            List.of(
+                new DefaultServiceDefinition<>(String.class, "a"),
+                new DefaultServiceDefinition<>(String.class, "b")));
+    ServiceRegistration<?> foreign = mock(ServiceRegistration.class);
+    val batch = List.of(registrations.get(0), foreign);
+    assertThrows(IllegalArgumentException.class, () -> registry.unregisterAll(batch));
+    assertEquals(registrations, registry.getRegistrations(String.class), "must unindex nothing");
+    assertEquals(2, registry.getRegistrations(module).getRegistrations().size(), "must keep all");
+    verify(taskQueue, times(1)).schedule(any(Runnable.class));
+  }
+
+  @Test
+  void ensureEventsAreScheduledOutsideTheRegistriesLock() {
+    val kernelRegistry = (KernelServiceRegistry) registry;
+    val locked = new ArrayList<Boolean>();
+    doAnswer(
+            invocation -> {
+              locked.add(Thread.holdsLock(kernelRegistry.registries));
+              return null;
+            })
+        .when(taskQueue)
+        .schedule(any(Runnable.class));
+
+    val registration =
+        registry.register(module, new DefaultServiceDefinition<>(String.class, "a", "a"));
+    registration.dispose();
+    val batch =
+        registry.registerAll(
+            module,
+            List.of(
+                new DefaultServiceDefinition<>(String.class, "b"),
+                new DefaultServiceDefinition<>(String.class, "c")));
+    registry.unregisterAll(batch);
+    assertEquals(List.of(false, false, false, false), locked, "no event may hold the lock");
+  }
 }
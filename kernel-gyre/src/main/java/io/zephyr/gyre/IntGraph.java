@@ -0,0 +1,128 @@
+package io.zephyr.gyre;
+
+import java.util.Arrays;
+import lombok.val;
+
+/**
+ * an immutable directed graph over the vertices <code>0..size()-1</code>, stored as compressed
+ * sparse rows in both directions. The successors of v are <code>targets[offsets[v]..offsets[v+1])
+ * </code> and its predecessors likewise in the reverse arrays, so a traversal touches only int
+ * arrays and allocates nothing.
+ *
+ * <p>An edge from u to v means u precedes v: a topological order places u first and a level
+ * schedule places u in an earlier level. Build one with {@link #builder(int)}; run algorithms on
+ * it with an {@link IntGraphSolver}
+ */
+public final class IntGraph {
+
+  private final int size;
+  private final int[] offsets;
+  private final int[] targets;
+  private final int[] reverseOffsets;
+  private final int[] sources;
+
+  private IntGraph(int size, int[] offsets, int[] targets, int[] reverseOffsets, int[] sources) {
+    this.size = size;
+    this.offsets = offsets;
+    this.targets = targets;
+    this.reverseOffsets = reverseOffsets;
+    this.sources = sources;
+  }
+
+  /** @param size the number of vertices */
+  public static Builder builder(int size) {
+    return new Builder(size);
+  }
+
+  /** @return the number of vertices */
+  public int size() {
+    return size;
+  }
+
+  /** @return the number of edges */
+  public int edgeCount() {
+    return targets.length;
+  }
+
+  public int successorCount(int vertex) {
+    return offsets[vertex + 1] - offsets[vertex];
+  }
+
+  /** @return the index-th successor of vertex */
+  public int successor(int vertex, int index) {
+    return targets[offsets[vertex] + index];
+  }
+
+  public int predecessorCount(int vertex) {
+    return reverseOffsets[vertex + 1] - reverseOffsets[vertex];
+  }
+
+  /** @return the index-th predecessor of vertex */
+  public int predecessor(int vertex, int index) {
+    return sources[reverseOffsets[vertex] + index];
+  }
+
+  /** edges are buffered as pairs and laid out into rows once, by a counting sort, on build() */
+  public static final class Builder {
+    private final int size;
+    private int[] from;
+    private int[] to;
+    private int count;
+
+    Builder(int size) {
+      if (size < 0) {
+        throw new IllegalArgumentException("Graph size must not be negative: " + size);
+      }
+      this.size = size;
+      this.from = new int[Math.max(size, 16)];
+      this.to = new int[from.length];
+    }
+
+    /** add an edge from source to target. Parallel edges are kept */
+    public Builder connect(int source, int target) {
+      check(source);
+      check(target);
+      if (count == from.length) {
+        from = Arrays.copyOf(from, count << 1);
+        to = Arrays.copyOf(to, count << 1);
+      }
+      from[count] = source;
+      to[count] = target;
+      count++;
+      return this;
+    }
+
+    public IntGraph build() {
+      val offsets = rows(from);
+      val reverseOffsets = rows(to);
+      val targets = new int[count];
+      val sources = new int[count];
+      val next = Arrays.copyOf(offsets, size);
+      val reverseNext = Arrays.copyOf(reverseOffsets, size);
+      for (int i = 0; i < count; i++) {
+        targets[next[from[i]]++] = to[i];
+        sources[reverseNext[to[i]]++] = from[i];
+      }
+      return new IntGraph(size, offsets, targets, reverseOffsets, sources);
+    }
+
+    /** @return the row offsets of the vertices in endpoints: a prefix sum of their degrees */
+    private int[] rows(int[] endpoints) {
+      val result = new int[size + 1];
+      for (int i = 0; i < count; i++) {
+        result[endpoints[i] + 1]++;
+      }
+      for (int i = 0; i < size; i++) {
+        result[i + 1] += result[i];
+      }
+      return result;
+    }
+
+    private void check(int vertex) {
+      if (vertex < 0 || vertex >= size) {
+        throw new IndexOutOfBoundsException(
+            "Vertex " + vertex + " is not in a graph of size " + size);
+      }
+    }
+  }
+}
@@ -0,0 +1,163 @@
+package io.zephyr.gyre;
+
+import java.util.Arrays;
+import lombok.val;
+
+/**
+ * topological sort, strongly-connected components and level scheduling over an {@link IntGraph}.
+ * The working arrays are kept between runs and only grow, so a solver reused across graphs of
+ * similar size allocates nothing after its first run. Not thread-safe: use one per thread
+ */
+@SuppressWarnings({"PMD.DataflowAnomalyAnalysis", "PMD.AvoidReassigningLoopVariables"})
+public final class IntGraphSolver {
+
+  /** working arrays, all of the same length */
+  private final int[][] scratch = new int[5][0];
+
+  /**
+   * @param graph the graph to sort
+   * @param order receives the vertices, every vertex ahead of its successors. Must hold size()
+   * @return false if graph is cyclic, in which case order holds only the vertices outside of and
+   *     ahead of every cycle
+   */
+  public boolean topologicalSort(IntGraph graph, int[] order) {
+    return sort(graph, order) == graph.size();
+  }
+
+  /**
+   * @param graph the graph to schedule
+   * @param levels receives each vertex's level: 0 for a vertex without predecessors, otherwise one
+   *     more than its highest predecessor's. Must hold size()
+   * @return the number of levels, or -1 if graph is cyclic
+   */
+  public int levels(IntGraph graph, int[] levels) {
+    val size = graph.size();
+    ensure(size);
+    val order = scratch[1];
+    if (sort(graph, order) != size) {
+      return -1;
+    }
+    int count = 0;
+    for (int i = 0; i < size; i++) {
+      val vertex = order[i];
+      int level = 0;
+      for (int j = 0, n = graph.predecessorCount(vertex); j < n; j++) {
+        level = Math.max(level, levels[graph.predecessor(vertex, j)] + 1);
+      }
+      levels[vertex] = level;
+      count = Math.max(count, level + 1);
+    }
+    return count;
+  }
+
+  /**
+   * Tarjan's algorithm, run iteratively so that deep graphs cannot overflow the stack
+   *
+   * @param graph the graph to partition
+   * @param components receives each vertex's component. Components are numbered in reverse
+   *     topological order: an edge between components runs from a higher number to a lower one.
+   *     Must hold size()
+   * @return the number of components
+   */
+  public int components(IntGraph graph, int[] components) {
+    val size = graph.size();
+    ensure(size);
+    val index = scratch[0];
+    val lowlink = scratch[1];
+    val stack = scratch[2];
+    val path = scratch[3];
+    val cursor = scratch[4];
+    Arrays.fill(index, 0, size, -1);
+    Arrays.fill(components, 0, size, -1);
+
+    int counter = 0;
+    int count = 0;
+    int stackSize = 0;
+    for (int root = 0; root < size; root++) {
+      if (index[root] >= 0) {
+        continue;
+      }
+      int depth = 0;
+      path[0] = root;
+      cursor[0] = 0;
+      index[root] = lowlink[root] = counter++;
+      stack[stackSize++] = root;
+      while (depth >= 0) {
+        val vertex = path[depth];
+        if (cursor[depth] < graph.successorCount(vertex)) {
+          val next = graph.successor(vertex, cursor[depth]++);
+          if (index[next] < 0) {
+            index[next] = lowlink[next] = counter++;
+            stack[stackSize++] = next;
+            path[++depth] = next;
+            cursor[depth] = 0;
+          } else if (components[next] < 0) {
+            lowlink[vertex] = Math.min(lowlink[vertex], index[next]);
+          }
+          continue;
+        }
+        if (lowlink[vertex] == index[vertex]) {
+          int member;
+          do {
+            member = stack[--stackSize];
+            components[member] = count;
+          } while (member != vertex);
+          count++;
+        }
+        if (--depth >= 0) {
+          val parent = path[depth];
+          lowlink[parent] = Math.min(lowlink[parent], lowlink[vertex]);
+        }
+      }
+    }
+    return count;
+  }
+
+  /**
+   * @param components as computed by {@link #components(IntGraph, int[])}
+   * @return true if vertex lies on a cycle, including a self-loop. Its component then holds a
+   *     successor of vertex, since every path between two members stays within their component
+   */
+  public static boolean isCyclic(IntGraph graph, int[] components, int vertex) {
+    for (int i = 0, n = graph.successorCount(vertex); i < n; i++) {
+      if (components[graph.successor(vertex, i)] == components[vertex]) {
+        return true;
+      }
+    }
+    return false;
+  }
+
+  /** Kahn's algorithm. @return the number of vertices written to order */
+  private int sort(IntGraph graph, int[] order) {
+    val size = graph.size();
+    ensure(size);
+    val degrees = scratch[0];
+    int tail = 0;
+    for (int vertex = 0; vertex < size; vertex++) {
+      degrees[vertex] = graph.predecessorCount(vertex);
+      if (degrees[vertex] == 0) {
+        order[tail++] = vertex;
+      }
+    }
+    for (int head = 0; head < tail; head++) {
+      val vertex = order[head];
+      for (int i = 0, n = graph.successorCount(vertex); i < n; i++) {
+        val next = graph.successor(vertex, i);
+        if (--degrees[next] == 0) {
+          order[tail++] = next;
+        }
+      }
+    }
+    return tail;
+  }
+
+  private void ensure(int size) {
+    val length = scratch[0].length;
+    if (length < size) {
+      val capacity = Math.max(size, length + (length >> 1));
+      for (int i = 0; i < scratch.length; i++) {
+        scratch[i] = new int[capacity];
+      }
+    }
+  }
+}
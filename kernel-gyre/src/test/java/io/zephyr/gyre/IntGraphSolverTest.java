@@ -0,0 +1,149 @@
+package io.zephyr.gyre;
+
+import static org.junit.jupiter.api.Assertions.assertArrayEquals;
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertFalse;
+import static org.junit.jupiter.api.Assertions.assertNotEquals;
+import static org.junit.jupiter.api.Assertions.assertThrows;
+import static org.junit.jupiter.api.Assertions.assertTrue;
+
+import io.sunshower.gyre.AbstractDirectedGraph;
+import io.sunshower.gyre.DirectedGraph;
+import io.sunshower.gyre.ParallelScheduler;
+import io.sunshower.gyre.StronglyConnectedComponents;
+import java.util.Random;
+import java.util.logging.Level;
+import java.util.logging.Logger;
+import lombok.val;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.condition.EnabledIfSystemProperty;
+
+@SuppressWarnings("PMD.JUnitTestContainsTooManyAsserts")
+class IntGraphSolverTest {
+
+  static final Logger log = Logger.getLogger(IntGraphSolverTest.class.getName());
+
+  private IntGraphSolver solver;
+
+  @BeforeEach
+  void setUp() {
+    solver = new IntGraphSolver();
+  }
+
+  @Test
+  void ensureRowsHoldEdgesInBothDirections() {
+    val graph = IntGraph.builder(3).connect(0, 1).connect(0, 2).connect(1, 2).build();
+    assertEquals(3, graph.edgeCount(), "must keep every edge");
+    assertEquals(2, graph.successorCount(0), "must have two successors");
+    assertEquals(2, graph.predecessorCount(2), "must have two predecessors");
+    assertEquals(0, graph.predecessor(1, 0), "must record the source");
+    assertThrows(IndexOutOfBoundsException.class, () -> IntGraph.builder(1).connect(0, 1));
+  }
+
+  @Test
+  void ensureTopologicalSortPlacesVerticesAheadOfSuccessors() {
+    val graph = IntGraph.builder(4).connect(3, 1).connect(1, 0).connect(2, 0).build();
+    val order = new int[4];
+    assertTrue(solver.topologicalSort(graph, order), "must sort an acyclic graph");
+    val positions = new int[4];
+    for (int i = 0; i < order.length; i++) {
+      positions[order[i]] = i;
+    }
+    assertTrue(positions[3] < positions[1], "3 must precede 1");
+    assertTrue(positions[1] < positions[0], "1 must precede 0");
+    assertTrue(positions[2] < positions[0], "2 must precede 0");
+  }
+
+  @Test
+  void ensureLevelsFollowLongestPaths() {
+    val graph =
+        IntGraph.builder(5).connect(0, 1).connect(1, 2).connect(0, 2).connect(3, 2).build();
+    val levels = new int[5];
+    assertEquals(3, solver.levels(graph, levels), "must have three levels");
+    assertArrayEquals(new int[] {0, 1, 2, 0, 0}, levels, "must level by longest path");
+  }
+
+  @Test
+  void ensureCyclesAreReported() {
+    val graph =
+        IntGraph.builder(5)
+            .connect(0, 1)
+            .connect(1, 2)
+            .connect(2, 0)
+            .connect(2, 3)
+            .connect(4, 4)
+            .build();
+    assertFalse(solver.topologicalSort(graph, new int[5]), "must not sort a cyclic graph");
+    assertEquals(-1, solver.levels(graph, new int[5]), "must not level a cyclic graph");
+
+    val components = new int[5];
+    assertEquals(3, solver.components(graph, components), "must find three components");
+    assertEquals(components[0], components[1], "0 and 1 must share a component");
+    assertEquals(components[1], components[2], "1 and 2 must share a component");
+    assertNotEquals(components[2], components[3], "3 must be its own component");
+    assertTrue(components[2] > components[3], "components must be in reverse order");
+    assertTrue(IntGraphSolver.isCyclic(graph, components, 0), "0 must be cyclic");
+    assertTrue(IntGraphSolver.isCyclic(graph, components, 4), "self-loop must be cyclic");
+    assertFalse(IntGraphSolver.isCyclic(graph, components, 3), "3 must not be cyclic");
+  }
+
+  @Test
+  void ensureDeepGraphsDoNotOverflow() {
+    val size = 100_000;
+    val builder = IntGraph.builder(size);
+    for (int i = 0; i < size - 1; i++) {
+      builder.connect(i, i + 1);
+    }
+    val graph = builder.connect(size - 1, 0).build();
+    val components = new int[size];
+    assertEquals(1, solver.components(graph, components), "must find one component");
+  }
+
+  /**
+   * components and levels of a random 10k-vertex DAG, against gyre's component search and
+   * scheduler. Run with ./gradlew :kernel-gyre:test -Dbenchmarks=true
+   */
+  @Test
+  @EnabledIfSystemProperty(named = "benchmarks", matches = "true")
+  void benchmarkTenThousandVerticesAgainstGyre() {
+    val size = 10_000;
+    val random = new Random(0);
+    val from = new int[size * 4];
+    val to = new int[from.length];
+    for (int i = 0; i < from.length; i++) {
+      val a = random.nextInt(size - 1);
+      from[i] = a;
+      to[i] = a + 1 + random.nextInt(size - a - 1);
+    }
+    for (int round = 0; round < 10; round++) {
+      long start = System.nanoTime();
+      val builder = IntGraph.builder(size);
+      for (int i = 0; i < from.length; i++) {
+        builder.connect(from[i], to[i]);
+      }
+      val graph = builder.build();
+      val components = solver.components(graph, new int[size]);
+      val levels = solver.levels(graph, new int[size]);
+      val primitive = System.nanoTime() - start;
+
+      start = System.nanoTime();
+      val objects = new AbstractDirectedGraph<Integer, Integer>();
+      for (int i = 0; i < from.length; i++) {
+        objects.connect(from[i], to[i], DirectedGraph.outgoing(i));
+      }
+      new StronglyConnectedComponents<DirectedGraph.Edge<Integer>, Integer>().apply(objects);
+      val schedule = new ParallelScheduler<DirectedGraph.Edge<Integer>, Integer>().apply(objects);
+      val gyre = System.nanoTime() - start;
+
+      assertEquals(size, components, "every vertex must be its own component");
+      assertEquals(schedule.getTasks().size(), levels, "must agree with gyre on the levels");
+      log.log(
+          Level.INFO,
+          "10k vertices: int graph {0} us ({1} components, {2} levels), gyre {3} us ({4} levels)",
+          new Object[] {
+            primitive / 1000, components, levels, gyre / 1000, schedule.getTasks().size()
+          });
+    }
+  }
+}
@@ -0,0 +1,79 @@
+package io.zephyr.kernel.core;
+
+import java.util.Map;
+import java.util.concurrent.ConcurrentHashMap;
+import lombok.val;
+
+/**
+ * resolved module coordinates interned kernel-wide by canonical form, so that every
+ * group:name:version parsed or created anywhere in the kernel is the same instance and compares by
+ * identity. A hit on a canonical string skips splitting it and parsing its version altogether.
+ * Past its capacity coordinates are created but not retained
+ */
+final class CoordinatePool {
+
+  static final int CAPACITY = 65536;
+
+  private static final Map<String, ModuleCoordinate> coordinates = new ConcurrentHashMap<>();
+
+  private CoordinatePool() {
+    throw new IllegalStateException("No coordinate pools for you!");
+  }
+
+  /**
+   * @param canonicalForm a coordinate's canonical form, group:name:version
+   * @return the coordinate canonicalForm denotes
+   */
+  static ModuleCoordinate parse(String canonicalForm) {
+    val cached = coordinates.get(canonicalForm);
+    if (cached != null) {
+      return cached;
+    }
+    val segs = ModuleCoordinate.pattern.split(canonicalForm);
+    return alias(
+        canonicalForm,
+        intern(new ModuleCoordinate(segs[1], segs[0], new SemanticVersion(segs[2]))));
+  }
+
+  static ModuleCoordinate create(String group, String name, String version) {
+    val key = group + ':' + name + ':' + version;
+    val cached = coordinates.get(key);
+    if (cached != null) {
+      return cached;
+    }
+    return alias(key, intern(new ModuleCoordinate(name, group, new SemanticVersion(version))));
+  }
+
+  /**
+   * a version may be spelled differently from its canonical form, so the key a coordinate was
+   * looked up by is retained as well, or lookups by it would never hit
+   *
+   * @return coordinate
+   */
+  @SuppressWarnings("PMD.CompareObjectsWithEquals")
+  private static ModuleCoordinate alias(String key, ModuleCoordinate coordinate) {
+    if (!key.equals(coordinate.toCanonicalForm())
+        && coordinates.get(coordinate.toCanonicalForm()) == coordinate
+        && coordinates.size() < CAPACITY) {
+      coordinates.putIfAbsent(key, coordinate);
+    }
+    return coordinate;
+  }
+
+  /** @return the pooled coordinate equal to coordinate, which becomes it if there is none */
+  static ModuleCoordinate intern(ModuleCoordinate coordinate) {
+    if (!coordinate.isResolved()) {
+      return coordinate;
+    }
+    val key = coordinate.toCanonicalForm();
+    val cached = coordinates.get(key);
+    if (cached != null) {
+      return cached;
+    }
+    if (coordinates.size() >= CAPACITY) {
+      return coordinate;
+    }
+    val existing = coordinates.putIfAbsent(key, coordinate);
+    return existing == null ? coordinate : existing;
+  }
+}
@@ -3,14 +3,22 @@ package io.zephyr.kernel.core;
 import io.zephyr.kernel.Coordinate;
 import io.zephyr.kernel.CoordinateSpecification;
 import io.zephyr.kernel.Version;
+import java.util.Arrays;
+import java.util.Collections;
+import java.util.List;
+import java.util.Objects;
 import java.util.regex.Pattern;
-import lombok.AllArgsConstructor;
+import lombok.AccessLevel;
 import lombok.Getter;
 import lombok.NonNull;
 import lombok.val;
 
+/**
+ * coordinates are immutable, so each computes its canonical form, hash and segments once. {@link
+ * #create(String, String, String)} and {@link #parse(String)} return the kernel-wide instance for a
+ * group:name:version, so coordinates obtained through them compare by identity
+ */
 @Getter
-@AllArgsConstructor
 @SuppressWarnings("PMD.AvoidFieldNameMatchingMethodName")
 public final class ModuleCoordinate implements Coordinate {
 
@@ -20,20 +28,44 @@ public final class ModuleCoordinate implements Coordinate {
   @NonNull private final String group;
   @NonNull private final Version version;
 
+  /** group, name and version, in that order */
+  private final List<String> segments;
+
+  @Getter(AccessLevel.NONE)
+  private final String canonicalForm;
+
+  @Getter(AccessLevel.NONE)
+  private final int hash;
+
   public ModuleCoordinate(final String name, final String group, final Version version) {
     this(name, group, version, true);
   }
 
+  /** @deprecated use {@link #ModuleCoordinate(String, String, Version, boolean)} */
+  @Deprecated
+  public ModuleCoordinate(
+      final boolean resolved, final String name, final String group, final Version version) {
+    this(name, group, version, resolved);
+  }
+
+  @SuppressWarnings("PMD.DataflowAnomalyAnalysis")
   public ModuleCoordinate(
       final String name, final String group, final Version version, final boolean resolved) {
-    this.name = name;
-    this.group = group;
-    this.version = version;
+    this.name = Objects.requireNonNull(name, "name");
+    this.group = Objects.requireNonNull(group, "group");
+    this.version = Objects.requireNonNull(version, "version");
     this.resolved = resolved;
+    val segs = new String[] {group, name, version.toString()};
+    this.segments = Collections.unmodifiableList(Arrays.asList(segs));
+    this.canonicalForm = String.join(":", segs);
+    int result = name.hashCode();
+    result = 31 * result + group.hashCode();
+    this.hash = 31 * result + version.hashCode();
   }
 
+  /** @return the interned coordinate group:name:version */
   public static Coordinate create(String group, String name, String version) {
-    return new ModuleCoordinate(name, group, new SemanticVersion(version));
+    return CoordinatePool.create(group, name, version);
   }
 
   public static Coordinate createUnresolvedCoordinate(CoordinateSpecification specification) {
@@ -44,9 +76,9 @@ public final class ModuleCoordinate implements Coordinate {
         false);
   }
 
+  /** @return the interned coordinate name, in canonical form, denotes */
   public static Coordinate parse(@NonNull String name) {
-    val segs = pattern.split(name);
-    return create(segs[0], segs[1], segs[2]);
+    return CoordinatePool.parse(name);
   }
 
   public static ModuleCoordinateQuery group(String group) {
@@ -64,6 +96,9 @@ public final class ModuleCoordinate implements Coordinate {
 
     ModuleCoordinate that = (ModuleCoordinate) o;
 
+    if (hash != that.hash) {
+      return false;
+    }
     if (!getName().equals(that.getName())) {
       return false;
     }
@@ -74,12 +109,13 @@ public final class ModuleCoordinate implements Coordinate {
   }
 
   @Override
-  @SuppressWarnings("PMD.DataflowAnomalyAnalysis")
   public int hashCode() {
-    int result = getName().hashCode();
-    result = 31 * result + getGroup().hashCode();
-    result = 31 * result + getVersion().hashCode();
-    return result;
+    return hash;
+  }
+
+  @Override
+  public String toCanonicalForm() {
+    return canonicalForm;
   }
 
   @Override
@@ -45,8 +45,9 @@ public class SemanticVersion implements Version {
     throw new IllegalArgumentException("Can't compare myself to that");
   }
 
+  /** range is compiled once per distinct string by {@link VersionRanges} */
   @Override
   public boolean satisfies(String range) {
-    return version.satisfies(range);
+    return version.satisfies(VersionRanges.compile(range));
   }
 }
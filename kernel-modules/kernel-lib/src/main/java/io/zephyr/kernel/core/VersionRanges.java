@@ -0,0 +1,45 @@
+package io.zephyr.kernel.core;
+
+import com.vdurmont.semver4j.Requirement;
+import java.util.Map;
+import java.util.concurrent.ConcurrentHashMap;
+import lombok.val;
+
+/**
+ * ivy version ranges compiled once and shared kernel-wide. A compiled range tests a version by
+ * comparing its already-parsed numeric components, where semver4j would otherwise re-parse the
+ * range string for every candidate. Range strings repeat heavily across modules, so the cache
+ * stays small; past its capacity ranges are compiled but not retained
+ */
+final class VersionRanges {
+
+  static final int CAPACITY = 4096;
+
+  private static final Map<String, Requirement> ranges = new ConcurrentHashMap<>();
+
+  private VersionRanges() {
+    throw new IllegalStateException("No version ranges for you!");
+  }
+
+  /**
+   * @param range the ivy range to compile
+   * @return the compiled range
+   * @throws com.vdurmont.semver4j.SemverException if range is not a valid ivy range
+   */
+  static Requirement compile(String range) {
+    val cached = ranges.get(range);
+    if (cached != null) {
+      return cached;
+    }
+    val result = Requirement.buildIvy(range);
+    if (ranges.size() < CAPACITY) {
+      ranges.putIfAbsent(range, result);
+    }
+    return result;
+  }
+
+  /** @return the number of ranges retained */
+  static int size() {
+    return ranges.size();
+  }
+}
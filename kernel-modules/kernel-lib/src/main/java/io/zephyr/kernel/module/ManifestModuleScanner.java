@@ -10,7 +10,6 @@ import io.zephyr.kernel.core.ModuleDescriptor;
 import io.zephyr.kernel.core.ModuleScanner;
 import io.zephyr.kernel.core.PathSpecification;
 import io.zephyr.kernel.core.PathSpecification.Mode;
-import io.zephyr.kernel.core.SemanticVersion;
 import java.io.File;
 import java.io.IOException;
 import java.io.PushbackReader;
@@ -77,10 +76,19 @@ public final class ManifestModuleScanner implements ModuleScanner {
 
     val type = Module.Type.parse(req(attrs, ModuleDescriptor.Attributes.TYPE));
     val description = attrs.getValue(ModuleDescriptor.Attributes.DESCRIPTION);
-    val coordinate = new ModuleCoordinate(name, group, new SemanticVersion(version));
+    val coordinate = ModuleCoordinate.create(group, name, version);
     val dependencies = parseDependencies(attrs);
+    val threading = Module.Threading.parse(attrs.getValue(ModuleDescriptor.Attributes.THREADING));
     return new ModuleDescriptor(
-        source, order, file, type, coordinate, dependencies, Collections.emptyList(), description);
+        source,
+        order,
+        file,
+        type,
+        coordinate,
+        dependencies,
+        Collections.emptyList(),
+        description,
+        threading);
   }
 
   private List<Dependency> parseDependencies(Attributes attrs) throws IOException {
@@ -0,0 +1,40 @@
+package io.zephyr.kernel.core;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertFalse;
+import static org.junit.jupiter.api.Assertions.assertSame;
+import static org.junit.jupiter.api.Assertions.assertTrue;
+
+import lombok.val;
+import org.junit.jupiter.api.Test;
+
+class VersionRangesTest {
+
+  @Test
+  void ensureRangesAreCompiledOnce() {
+    assertSame(
+        VersionRanges.compile("[1.0,2.0]"),
+        VersionRanges.compile("[1.0,2.0]"),
+        "range must be interned");
+  }
+
+  @Test
+  void ensureCompiledRangesMatchIvySemantics() {
+    assertTrue(new SemanticVersion("1.5.0").satisfies("[1.0,2.0]"), "must be in range");
+    assertFalse(new SemanticVersion("2.1.0").satisfies("[1.0,2.0]"), "must not be in range");
+    assertTrue(new SemanticVersion("1.5.0").satisfies("1.+"), "must match dynamic minor");
+    assertTrue(new SemanticVersion("1.0.0").satisfies("1.0.0"), "must match exact version");
+  }
+
+  @Test
+  void ensureRepeatedRangesAreRetainedOnce() {
+    val before = VersionRanges.size();
+    for (int i = 0; i < 1_000; i++) {
+      val version = new SemanticVersion("3." + i % 10 + ".0");
+      for (int j = 0; j < 10; j++) {
+        version.satisfies("[3." + j + ",3.9.9]");
+      }
+    }
+    assertEquals(before + 10, VersionRanges.size(), "each distinct range must be retained once");
+  }
+}
@@ -60,6 +60,7 @@ public class YamlPluginDescriptorScanner implements ModuleScanner {
   static final String DESCRIPTION = "description";
   static final String DEPENDENCIES = "dependencies";
   static final String MODULE_TYPE = "type";
+  static final String THREADING = "threading";
 
   /** dependency constants */
   static final String DEPENDENCY = "dependency";
@@ -151,6 +152,7 @@ public class YamlPluginDescriptorScanner implements ModuleScanner {
       modType = Module.Type.Plugin;
     }
 
+    val threading = Module.Threading.parse(optional(pluginDescriptor, THREADING));
     val dependencyNode = (List<Object>) pluginDescriptor.get(DEPENDENCIES);
 
     final List<Dependency> dependencies;
@@ -173,7 +175,8 @@ public class YamlPluginDescriptorScanner implements ModuleScanner {
             ModuleCoordinate.create(group, name, version),
             dependencies,
             Collections.emptyList(),
-            description);
+            description,
+            threading);
     return Optional.of(descriptor);
   }
 
@@ -5,7 +5,6 @@ import com.esotericsoftware.yamlbeans.YamlWriter;
 import io.zephyr.kernel.Coordinate;
 import io.zephyr.kernel.CoordinateSpecification;
 import io.zephyr.kernel.core.ModuleCoordinate;
-import io.zephyr.kernel.core.SemanticVersion;
 import io.zephyr.kernel.memento.Memento;
 import java.io.*;
 import java.nio.file.FileSystem;
@@ -98,7 +97,7 @@ public class YamlMemento implements Memento {
     val group = child.read("group", String.class);
     val name = child.read("name", String.class);
     val version = child.read("version", String.class);
-    return new ModuleCoordinate(name, group, new SemanticVersion(version));
+    return ModuleCoordinate.create(group, name, version);
   }
 
   @Override
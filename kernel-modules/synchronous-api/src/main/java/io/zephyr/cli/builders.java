@@ -2,6 +2,7 @@ package io.zephyr.cli;
 
 import io.zephyr.kernel.concurrency.ExecutorWorkerPool;
 import io.zephyr.kernel.concurrency.NamedThreadFactory;
+import io.zephyr.kernel.concurrency.VirtualThreadWorkerPool;
 import io.zephyr.kernel.concurrency.WorkerPool;
 import io.zephyr.kernel.core.DaggerSunshowerKernelConfiguration;
 import io.zephyr.kernel.launch.KernelOptions;
@@ -62,9 +63,10 @@ final class builders {
     @Override
     public Zephyr create(ClassLoader classLoader) {
 
+      val options = options();
       val kernel =
           DaggerSunshowerKernelConfiguration.factory()
-              .create(options(), classLoader, workerPool())
+              .create(options, classLoader, workerPool(options))
               .kernel();
       return new DefaultZephyr(kernel);
     }
@@ -78,7 +80,10 @@ final class builders {
     }
   }
 
-  private static WorkerPool workerPool() {
+  private static WorkerPool workerPool(KernelOptions options) {
+    if (options.isVirtualThreads()) {
+      return new VirtualThreadWorkerPool();
+    }
     val kernelFactory = Executors.newCachedThreadPool(new NamedThreadFactory("kernel"));
     val userFactory = Executors.newCachedThreadPool(new NamedThreadFactory("module"));
     return new ExecutorWorkerPool(userFactory, kernelFactory);
@@ -89,7 +94,7 @@ final class builders {
     options.setHomeDirectory(homeDirectory);
     val kernel =
         DaggerSunshowerKernelConfiguration.factory()
-            .create(options, classLoader, workerPool())
+            .create(options, classLoader, workerPool(options))
             .kernel();
     return new DefaultZephyr(kernel);
   }
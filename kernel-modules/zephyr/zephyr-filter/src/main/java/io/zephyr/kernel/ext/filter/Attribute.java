@@ -0,0 +1,170 @@
+package io.zephyr.kernel.ext.filter;
+
+import io.zephyr.api.ServiceDefinition;
+import io.zephyr.api.ServiceReference;
+import io.zephyr.api.ServiceRegistration;
+import io.zephyr.kernel.Coordinate;
+import io.zephyr.kernel.Lifecycle;
+import io.zephyr.kernel.Module;
+import io.zephyr.kernel.Version;
+import java.util.HashMap;
+import java.util.Locale;
+import java.util.Map;
+import lombok.val;
+
+/**
+ * the attributes a filter may test. Each attribute reads its value from a candidate with a few
+ * virtual calls and instanceof checks; candidates may be modules, coordinates, service
+ * registrations, references or definitions. An attribute a candidate does not have reads as null
+ */
+enum Attribute {
+  ModuleGroup("group", "module.group") {
+    @Override
+    Object get(Object candidate) {
+      val coordinate = coordinate(candidate);
+      return coordinate == null ? null : coordinate.getGroup();
+    }
+  },
+
+  ModuleName("name", "module.name") {
+    @Override
+    Object get(Object candidate) {
+      val coordinate = coordinate(candidate);
+      return coordinate == null ? null : coordinate.getName();
+    }
+  },
+
+  /** compared by its string form, or against a range with ~ */
+  ModuleVersion("version", "module.version") {
+    @Override
+    Object get(Object candidate) {
+      val coordinate = coordinate(candidate);
+      return coordinate == null ? null : coordinate.getVersion();
+    }
+
+    @Override
+    boolean equalTo(Object value, Object constant) {
+      return value != null && constant.equals(value.toString());
+    }
+  },
+
+  ModuleState("state", "module.state") {
+    @Override
+    Object get(Object candidate) {
+      val module = module(candidate);
+      return module == null ? null : module.getLifecycle().getState();
+    }
+
+    @Override
+    Object convert(String literal) {
+      for (val state : Lifecycle.State.values()) {
+        if (state.name().equalsIgnoreCase(literal)) {
+          return state;
+        }
+      }
+      throw new IllegalArgumentException("'" + literal + "' is not a lifecycle state");
+    }
+  },
+
+  ModuleType("module.type") {
+    @Override
+    Object get(Object candidate) {
+      val module = module(candidate);
+      return module == null ? null : module.getType();
+    }
+
+    @Override
+    Object convert(String literal) {
+      return Module.Type.parse(literal);
+    }
+  },
+
+  ServiceName("service.name") {
+    @Override
+    Object get(Object candidate) {
+      val definition = definition(candidate);
+      return definition == null ? null : definition.getName();
+    }
+  },
+
+  ServiceType("service.type") {
+    @Override
+    Object get(Object candidate) {
+      val definition = definition(candidate);
+      return definition == null ? null : definition.getType().getName();
+    }
+  };
+
+  private static final Map<String, Attribute> byName;
+
+  static {
+    byName = new HashMap<>();
+    for (val attribute : values()) {
+      for (val name : attribute.names) {
+        byName.put(name, attribute);
+      }
+    }
+  }
+
+  private final String[] names;
+
+  Attribute(String... names) {
+    this.names = names;
+  }
+
+  /** @return the attribute's value for candidate, or null if candidate does not have it */
+  abstract Object get(Object candidate);
+
+  /** @return the constant a literal compared against this attribute denotes */
+  Object convert(String literal) {
+    return literal;
+  }
+
+  /** @param constant a non-null result of {@link #convert(String)} */
+  boolean equalTo(Object value, Object constant) {
+    return constant.equals(value);
+  }
+
+  /** @return the attribute called name, or null if there is none */
+  static Attribute named(String name) {
+    return byName.get(name.toLowerCase(Locale.ROOT));
+  }
+
+  static Module module(Object candidate) {
+    if (candidate instanceof Module) {
+      return (Module) candidate;
+    }
+    if (candidate instanceof ServiceReference) {
+      return ((ServiceReference<?>) candidate).getModule();
+    }
+    if (candidate instanceof ServiceRegistration) {
+      return ((ServiceRegistration<?>) candidate).getReference().getModule();
+    }
+    return null;
+  }
+
+  static Coordinate coordinate(Object candidate) {
+    if (candidate instanceof Coordinate) {
+      return (Coordinate) candidate;
+    }
+    val module = module(candidate);
+    return module == null ? null : module.getCoordinate();
+  }
+
+  static ServiceDefinition<?> definition(Object candidate) {
+    if (candidate instanceof ServiceDefinition) {
+      return (ServiceDefinition<?>) candidate;
+    }
+    if (candidate instanceof ServiceReference) {
+      return ((ServiceReference<?>) candidate).getDefinition();
+    }
+    if (candidate instanceof ServiceRegistration) {
+      return ((ServiceRegistration<?>) candidate).getReference().getDefinition();
+    }
+    return null;
+  }
+
+  static boolean satisfies(Object version, String range) {
+    return version instanceof Version && ((Version) version).satisfies(range);
+  }
+}
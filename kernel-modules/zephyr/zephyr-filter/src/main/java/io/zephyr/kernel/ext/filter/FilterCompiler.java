@@ -0,0 +1,324 @@
+package io.zephyr.kernel.ext.filter;
+
+import io.zephyr.api.QueryPlan;
+import io.zephyr.kernel.Lifecycle;
+import java.util.HashSet;
+import java.util.Set;
+import java.util.function.Predicate;
+import lombok.val;
+
+/**
+ * compiles a filter into a tree of predicates in a single recursive-descent pass. The grammar:
+ *
+ * <pre>
+ *   filter     := or
+ *   or         := and ('||' and)*
+ *   and        := unary ('&amp;&amp;' unary)*
+ *   unary      := '!' unary | '(' or ')' | comparison
+ *   comparison := attribute ('==' | '!=') literal
+ *               | attribute 'in' '[' literal (',' literal)* ']'
+ *               | attribute ('&lt;' | '&lt;=' | '&gt;' | '&gt;=') literal   (state only)
+ *               | attribute '~' literal                             (version only)
+ *   literal    := 'text' | "text" | null
+ * </pre>
+ *
+ * Literals are converted to the attribute's value type while compiling, so evaluating the result
+ * compares references and never parses, allocates or reflects
+ */
+@SuppressWarnings({"PMD.AvoidLiteralsInIfCondition", "PMD.CyclomaticComplexity"})
+final class FilterCompiler {
+
+  private final String source;
+  private int position;
+
+  private FilterCompiler(String source) {
+    this.source = source;
+  }
+
+  /**
+   * @param source the filter to compile
+   * @return a predicate equivalent to source
+   * @throws IllegalArgumentException if source is not a valid filter
+   */
+  static Predicate<Object> compile(String source) {
+    val compiler = new FilterCompiler(source);
+    val result = compiler.or();
+    compiler.skipWhitespace();
+    if (compiler.position < source.length()) {
+      throw compiler.error("unexpected input");
+    }
+    return result;
+  }
+
+  /**
+   * plan a filter. Its term is the first top-level conjunct that compares the service type for
+   * equality with a non-null literal; everything else is the residual. A filter with a top-level
+   * disjunction has no term
+   *
+   * @param source the filter to plan
+   * @return a plan equivalent to {@link #compile(String)}
+   * @throws IllegalArgumentException if source is not a valid filter
+   */
+  @SuppressWarnings("unchecked")
+  static <T> QueryPlan<T> plan(String source) {
+    val compiler = new FilterCompiler(source);
+    String serviceType = null;
+    Predicate<Object> residual = candidate -> true;
+    do {
+      val term = serviceType == null ? compiler.term() : null;
+      if (term != null) {
+        serviceType = term;
+      } else {
+        residual = residual.and(compiler.unary());
+      }
+    } while (compiler.consume("&&"));
+    compiler.skipWhitespace();
+    if (compiler.position < source.length()) {
+      return QueryPlan.unplanned((Predicate<T>) compile(source));
+    }
+    val predicate =
+        serviceType == null
+            ? residual
+            : residual.and(equalToConstant(Attribute.ServiceType, serviceType));
+    return new QueryPlan<>((Predicate<T>) predicate, (Predicate<T>) residual, serviceType);
+  }
+
+  /** parse a service-type term, or leave the position unchanged and return null if there is none */
+  private String term() {
+    val start = position;
+    skipWhitespace();
+    if (position < source.length() && isIdentifierPart(source.charAt(position))) {
+      val attribute = Attribute.named(identifier());
+      if (attribute == Attribute.ServiceType && consume("==")) {
+        val literal = literal();
+        if (literal != null) {
+          return (String) convert(attribute, literal);
+        }
+      }
+    }
+    position = start;
+    return null;
+  }
+
+  private Predicate<Object> or() {
+    Predicate<Object> result = and();
+    while (consume("||")) {
+      val left = result;
+      val right = and();
+      result = candidate -> left.test(candidate) || right.test(candidate);
+    }
+    return result;
+  }
+
+  private Predicate<Object> and() {
+    Predicate<Object> result = unary();
+    while (consume("&&")) {
+      val left = result;
+      val right = unary();
+      result = candidate -> left.test(candidate) && right.test(candidate);
+    }
+    return result;
+  }
+
+  private Predicate<Object> unary() {
+    if (consume("!")) {
+      return unary().negate();
+    }
+    if (consume("(")) {
+      val result = or();
+      expect(")");
+      return result;
+    }
+    return comparison();
+  }
+
+  private Predicate<Object> comparison() {
+    val start = position;
+    val name = identifier();
+    val attribute = Attribute.named(name);
+    if (attribute == null) {
+      position = start;
+      throw error("unknown attribute '" + name + "'");
+    }
+    if (consume("==")) {
+      return equalTo(attribute, literal());
+    }
+    if (consume("!=")) {
+      return equalTo(attribute, literal()).negate();
+    }
+    if (consume("~")) {
+      return satisfies(attribute);
+    }
+    if (consumeKeyword("in")) {
+      return in(attribute);
+    }
+    return ordered(attribute);
+  }
+
+  private Predicate<Object> equalTo(Attribute attribute, String literal) {
+    if (literal == null) {
+      return candidate -> attribute.get(candidate) == null;
+    }
+    return equalToConstant(attribute, convert(attribute, literal));
+  }
+
+  private static Predicate<Object> equalToConstant(Attribute attribute, Object constant) {
+    return candidate -> attribute.equalTo(attribute.get(candidate), constant);
+  }
+
+  private Predicate<Object> satisfies(Attribute attribute) {
+    if (attribute != Attribute.ModuleVersion) {
+      throw error("'~' applies only to version");
+    }
+    val range = literal();
+    if (range == null) {
+      throw error("expected a version range");
+    }
+    return candidate -> Attribute.satisfies(attribute.get(candidate), range);
+  }
+
+  private Predicate<Object> in(Attribute attribute) {
+    if (attribute == Attribute.ModuleVersion) {
+      throw error("'in' does not apply to version");
+    }
+    expect("[");
+    val constants = new HashSet<Object>();
+    do {
+      val literal = literal();
+      if (literal == null) {
+        throw error("'in' does not accept null");
+      }
+      constants.add(convert(attribute, literal));
+    } while (consume(","));
+    expect("]");
+    final Set<Object> values = Set.copyOf(constants);
+    return candidate -> {
+      val value = attribute.get(candidate);
+      return value != null && values.contains(value);
+    };
+  }
+
+  private Predicate<Object> ordered(Attribute attribute) {
+    final int comparison;
+    if (consume("<=")) {
+      comparison = -1;
+    } else if (consume(">=")) {
+      comparison = 1;
+    } else if (consume("<")) {
+      comparison = -2;
+    } else if (consume(">")) {
+      comparison = 2;
+    } else {
+      throw error("expected an operator");
+    }
+    if (attribute != Attribute.ModuleState) {
+      throw error("ordering applies only to state");
+    }
+    val literal = literal();
+    if (literal == null) {
+      throw error("cannot order against null");
+    }
+    val bound = (Lifecycle.State) convert(attribute, literal);
+    final Predicate<Lifecycle.State> test;
+    switch (comparison) {
+      case 1:
+        test = state -> state.isAtLeast(bound);
+        break;
+      case 2:
+        test = state -> state != bound && state.isAtLeast(bound);
+        break;
+      case -1:
+        test = state -> state == bound || !state.isAtLeast(bound);
+        break;
+      default:
+        test = state -> !state.isAtLeast(bound);
+    }
+    return candidate -> {
+      val state = (Lifecycle.State) attribute.get(candidate);
+      return state != null && test.test(state);
+    };
+  }
+
+  private Object convert(Attribute attribute, String literal) {
+    try {
+      return attribute.convert(literal);
+    } catch (IllegalArgumentException ex) {
+      throw error(ex.getMessage());
+    }
+  }
+
+  /** @return the literal's text, or null for the null literal */
+  private String literal() {
+    skipWhitespace();
+    if (position >= source.length()) {
+      throw error("expected a literal");
+    }
+    val quote = source.charAt(position);
+    if (quote != '\'' && quote != '"') {
+      if (consumeKeyword("null")) {
+        return null;
+      }
+      throw error("expected a quoted literal");
+    }
+    val end = source.indexOf(quote, position + 1);
+    if (end < 0) {
+      throw error("unterminated literal");
+    }
+    val result = source.substring(position + 1, end);
+    position = end + 1;
+    return result;
+  }
+
+  private String identifier() {
+    skipWhitespace();
+    val start = position;
+    while (position < source.length() && isIdentifierPart(source.charAt(position))) {
+      position++;
+    }
+    if (start == position) {
+      throw error("expected an attribute");
+    }
+    return source.substring(start, position);
+  }
+
+  private boolean consumeKeyword(String keyword) {
+    skipWhitespace();
+    val end = position + keyword.length();
+    if (source.startsWith(keyword, position)
+        && (end == source.length() || !isIdentifierPart(source.charAt(end)))) {
+      position = end;
+      return true;
+    }
+    return false;
+  }
+
+  private boolean consume(String token) {
+    skipWhitespace();
+    if (source.startsWith(token, position)) {
+      position += token.length();
+      return true;
+    }
+    return false;
+  }
+
+  private void expect(String token) {
+    if (!consume(token)) {
+      throw error("expected '" + token + "'");
+    }
+  }
+
+  private void skipWhitespace() {
+    while (position < source.length() && Character.isWhitespace(source.charAt(position))) {
+      position++;
+    }
+  }
+
+  private IllegalArgumentException error(String message) {
+    return new IllegalArgumentException(
+        "Invalid filter '" + source + "' at position " + position + ": " + message);
+  }
+
+  private static boolean isIdentifierPart(char c) {
+    return Character.isLetterOrDigit(c) || c == '.' || c == '_' || c == '-';
+  }
+}
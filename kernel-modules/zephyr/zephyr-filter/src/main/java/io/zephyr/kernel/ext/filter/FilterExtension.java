@@ -0,0 +1,37 @@
+package io.zephyr.kernel.ext.filter;
+
+import io.zephyr.api.Query;
+import io.zephyr.api.QueryPlan;
+import io.zephyr.kernel.extensions.ExpressionLanguageExtension;
+import java.util.function.Predicate;
+
+/**
+ * a dependency-free filter language for modules and services, e.g.
+ *
+ * <pre>
+ *   group == 'io.zephyr' &amp;&amp; state &gt;= 'Active' &amp;&amp; service.type in ['a.B', 'a.C']
+ * </pre>
+ *
+ * Queries are compiled once, by {@link FilterCompiler}, into a tree of predicates bound to their
+ * attributes and constants; testing a candidate involves no parsing, reflection or allocation.
+ * A top-level equality conjunct on the service type is planned as a type-index term
+ */
+public class FilterExtension implements ExpressionLanguageExtension {
+  static final String LANGUAGE = "filter";
+
+  @Override
+  public <T> boolean supports(Query<T> query) {
+    return LANGUAGE.equalsIgnoreCase(query.getLanguage().trim());
+  }
+
+  @Override
+  @SuppressWarnings("unchecked")
+  public <T> Predicate<T> createPredicate(Query<T> query) {
+    return (Predicate<T>) FilterCompiler.compile(query.getQuery());
+  }
+
+  @Override
+  public <T> QueryPlan<T> createPlan(Query<T> query) {
+    return FilterCompiler.plan(query.getQuery());
+  }
+}
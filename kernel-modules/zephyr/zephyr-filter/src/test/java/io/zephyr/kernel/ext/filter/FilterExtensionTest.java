@@ -0,0 +1,110 @@
+package io.zephyr.kernel.ext.filter;
+
+import static org.junit.jupiter.api.Assertions.*;
+import static org.mockito.BDDMockito.given;
+
+import io.zephyr.Context;
+import io.zephyr.api.Query;
+import io.zephyr.api.ServiceDefinition;
+import io.zephyr.api.ServiceReference;
+import io.zephyr.kernel.Coordinate;
+import io.zephyr.kernel.Lifecycle;
+import io.zephyr.kernel.Module;
+import io.zephyr.kernel.extensions.ExpressionLanguageExtension;
+import java.util.NoSuchElementException;
+import java.util.ServiceLoader;
+import lombok.val;
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.extension.ExtendWith;
+import org.mockito.Mock;
+import org.mockito.junit.jupiter.MockitoExtension;
+
+@ExtendWith(MockitoExtension.class)
+@SuppressWarnings("PMD.JUnitTestContainsTooManyAsserts")
+class FilterExtensionTest {
+  @Mock private Module module;
+  @Mock private Lifecycle lifecycle;
+  @Mock private Coordinate coordinate;
+  @Mock private ServiceReference<String> reference;
+  @Mock private ServiceDefinition<String> definition;
+
+  @Test
+  void ensureExtensionIsLoadedForFilterQueries() {
+    val el = resolve();
+    assertTrue(el.supports(query("name == 'test'")), "must support filter queries");
+    assertFalse(
+        el.supports(new Query<>("name == 'test'", "mvel", Context.empty())),
+        "must not support other languages");
+  }
+
+  @Test
+  void ensureCoordinateAndStateAreMatched() {
+    given(module.getCoordinate()).willReturn(coordinate);
+    given(module.getLifecycle()).willReturn(lifecycle);
+    given(coordinate.getGroup()).willReturn("io.zephyr");
+    given(coordinate.getName()).willReturn("test");
+    given(lifecycle.getState()).willReturn(Lifecycle.State.Active);
+
+    assertTrue(test("group == 'io.zephyr' && state >= 'Resolved'", module), "must match");
+    assertTrue(test("name in ['a', 'test'] && !(state == 'Failed')", module), "must match");
+    assertFalse(test("name != 'test' || state < 'Active'", module), "must not match");
+  }
+
+  @Test
+  void ensureServiceAttributesAreMatched() {
+    given(reference.getDefinition()).willReturn(definition);
+    given(definition.getType()).willReturn(String.class);
+    given(definition.getName()).willReturn("greeter");
+
+    assertTrue(
+        test("service.type == 'java.lang.String' && service.name == 'greeter'", reference),
+        "must match");
+    assertFalse(test("service.type == 'java.lang.Integer'", definition), "must not match");
+  }
+
+  @Test
+  void ensureInvalidFiltersAreRejected() {
+    assertThrows(IllegalArgumentException.class, () -> FilterCompiler.compile("nope == 'a'"));
+    assertThrows(IllegalArgumentException.class, () -> FilterCompiler.compile("name < 'a'"));
+    assertThrows(IllegalArgumentException.class, () -> FilterCompiler.compile("state == 'x'"));
+    assertThrows(IllegalArgumentException.class, () -> FilterCompiler.compile("(name == 'a'"));
+  }
+
+  @Test
+  void ensurePlanExtractsTopLevelServiceTypeTerm() {
+    given(definition.getName()).willReturn("x");
+    val plan = resolve().createPlan(query("service.name != 'x' && service.type == 'a.B'"));
+    assertEquals("a.B", plan.getServiceType(), "must extract service type");
+    assertFalse(plan.getResidual().test(definition), "residual must keep the inequality");
+  }
+
+  @Test
+  void ensurePlanKeepsOtherEqualitiesInResidual() {
+    given(definition.getName()).willReturn("greeter");
+    given(definition.getType()).willReturn(String.class);
+    val plan = resolve().createPlan(query("service.name == 'greeter' && service.type == 'a.B'"));
+    assertEquals("a.B", plan.getServiceType(), "must extract service type");
+    assertTrue(plan.getResidual().test(definition), "residual must test the name");
+    assertFalse(plan.getPredicate().test(definition), "predicate must test the type");
+  }
+
+  @Test
+  void ensureDisjunctionsAreNotPlanned() {
+    val plan = resolve().createPlan(query("service.type == 'a.B' || service.type == 'a.C'"));
+    assertNull(plan.getServiceType(), "disjunction must not yield a term");
+  }
+
+  private boolean test(String filter, Object candidate) {
+    return resolve().createPredicate(query(filter)).test(candidate);
+  }
+
+  private Query<Object> query(String filter) {
+    return new Query<>(filter, FilterExtension.LANGUAGE, Context.empty());
+  }
+
+  private ExpressionLanguageExtension resolve() {
+    return ServiceLoader.load(ExpressionLanguageExtension.class)
+        .findFirst()
+        .orElseThrow(NoSuchElementException::new);
+  }
+}
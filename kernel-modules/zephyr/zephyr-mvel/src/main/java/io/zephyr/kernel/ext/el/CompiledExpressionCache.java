@@ -0,0 +1,53 @@
+package io.zephyr.kernel.ext.el;
+
+import java.io.Serializable;
+import java.util.LinkedHashMap;
+import java.util.Map;
+import lombok.val;
+import org.mvel2.MVEL;
+
+/**
+ * a bounded, least-recently-used cache of compiled MVEL expressions keyed by their source.
+ * Compilation happens outside of the lock, so two threads compiling the same new expression may
+ * both do so; the first to finish wins and the other's result is discarded
+ */
+final class CompiledExpressionCache {
+
+  private final int capacity;
+  private final Map<String, Serializable> expressions;
+
+  CompiledExpressionCache(int capacity) {
+    if (capacity <= 0) {
+      throw new IllegalArgumentException("Capacity must be positive, not " + capacity);
+    }
+    this.capacity = capacity;
+    this.expressions =
+        new LinkedHashMap<>(16, 0.75f, true) {
+          @Override
+          protected boolean removeEldestEntry(Map.Entry<String, Serializable> eldest) {
+            return size() > CompiledExpressionCache.this.capacity;
+          }
+        };
+  }
+
+  /** @return the compiled form of expression, compiling it if it is not cached */
+  Serializable compile(String expression) {
+    synchronized (expressions) {
+      val existing = expressions.get(expression);
+      if (existing != null) {
+        return existing;
+      }
+    }
+    val compiled = MVEL.compileExpression(expression);
+    synchronized (expressions) {
+      val existing = expressions.putIfAbsent(expression, compiled);
+      return existing == null ? compiled : existing;
+    }
+  }
+
+  int size() {
+    synchronized (expressions) {
+      return expressions.size();
+    }
+  }
+}
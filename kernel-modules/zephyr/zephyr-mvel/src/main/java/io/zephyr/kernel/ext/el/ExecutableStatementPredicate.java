@@ -2,37 +2,38 @@ package io.zephyr.kernel.ext.el;
 
 import io.zephyr.Context;
 import io.zephyr.api.Query;
+import java.io.Serializable;
 import java.util.function.Predicate;
 import lombok.AllArgsConstructor;
+import lombok.NonNull;
 import org.mvel2.MVEL;
 
+/**
+ * evaluates a compiled query against each candidate. Compiled expressions are immutable, so one
+ * predicate may be tested from several threads at once
+ */
 public final class ExecutableStatementPredicate<T> implements Predicate<T> {
 
-  private final Query<T> query;
-  private volatile Boolean cached;
+  private final Context<T> context;
+  private final Serializable statement;
 
   public ExecutableStatementPredicate(Query<T> query) {
-    this.query = query;
+    this(query, MVEL.compileExpression(query.getQuery()));
   }
 
-  @Override
-  public boolean test(T t) {
-
-    Boolean local = cached;
-
-    if (local == null) {
-      synchronized (this) {
-        local = cached;
-        if (local == null) {
-          cached = local = evaluate(t);
-        }
-      }
-    }
-    return local;
+  /**
+   * @param query the query to evaluate
+   * @param statement the result of compiling the query's expression
+   */
+  public ExecutableStatementPredicate(Query<T> query, @NonNull Serializable statement) {
+    this.context = query.getContext();
+    this.statement = statement;
   }
 
-  private Boolean evaluate(T t) {
-    return MVEL.evalToBoolean(query.getQuery(), new PredicateContext<>(t, query.getContext()));
+  @Override
+  public boolean test(T t) {
+    return Boolean.TRUE.equals(
+        MVEL.executeExpression(statement, new PredicateContext<>(t, context), Boolean.class));
   }
 
   @AllArgsConstructor
@@ -7,6 +7,12 @@ import java.util.function.Predicate;
 public class MVELExtension implements ExpressionLanguageExtension {
   static final String LANGUAGE = "mvel";
 
+  /** the maximum number of distinct compiled queries retained */
+  static final int CACHE_CAPACITY = 1024;
+
+  /** shared by every instance, so each distinct query is compiled once for all modules */
+  static final CompiledExpressionCache expressions = new CompiledExpressionCache(CACHE_CAPACITY);
+
   @Override
   public <T> boolean supports(Query<T> query) {
     return LANGUAGE.equalsIgnoreCase(query.getLanguage().trim());
@@ -14,7 +20,6 @@ public class MVELExtension implements ExpressionLanguageExtension {
 
   @Override
   public <T> Predicate<T> createPredicate(Query<T> query) {
-
-    return new ExecutableStatementPredicate(query);
+    return new ExecutableStatementPredicate<>(query, expressions.compile(query.getQuery()));
   }
 }
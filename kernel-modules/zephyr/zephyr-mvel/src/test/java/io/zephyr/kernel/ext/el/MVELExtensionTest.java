@@ -76,6 +76,28 @@ class MVELExtensionTest {
     assertFalse(el.createPredicate(query).test(coordinate), "module name must not be test");
   }
 
+  @Test
+  @SuppressWarnings("PMD.JUnitTestContainsTooManyAsserts")
+  void ensurePredicateEvaluatesEachCandidate() {
+    val el = resolve();
+    val query = new Query<String>("value == 'test'", "mvel", Context.empty());
+    val predicate = el.createPredicate(query);
+    assertTrue(predicate.test("test"), "must match test");
+    assertFalse(predicate.test("frapper"), "must not reuse the first result");
+  }
+
+  @Test
+  @SuppressWarnings("PMD.JUnitTestContainsTooManyAsserts")
+  void ensureDistinctQueriesAreCompiledOnce() {
+    val cache = new CompiledExpressionCache(2);
+    val compiled = cache.compile("value == 'a'");
+    assertSame(compiled, cache.compile("value == 'a'"), "must reuse the compiled expression");
+    cache.compile("value == 'b'");
+    cache.compile("value == 'c'");
+    assertEquals(2, cache.size(), "cache must be bounded");
+    assertNotSame(compiled, cache.compile("value == 'a'"), "eldest entry must be evicted");
+  }
+
   private ExpressionLanguageExtension resolve() {
     return ServiceLoader.load(ExpressionLanguageExtension.class)
         .findFirst()
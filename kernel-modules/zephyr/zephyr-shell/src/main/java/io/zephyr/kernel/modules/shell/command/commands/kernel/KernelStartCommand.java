@@ -5,6 +5,7 @@ import io.sunshower.lang.events.EventListener;
 import io.sunshower.lang.events.EventType;
 import io.zephyr.kernel.concurrency.ExecutorWorkerPool;
 import io.zephyr.kernel.concurrency.NamedThreadFactory;
+import io.zephyr.kernel.concurrency.VirtualThreadWorkerPool;
 import io.zephyr.kernel.concurrency.WorkerPool;
 import io.zephyr.kernel.core.DaggerSunshowerKernelConfiguration;
 import io.zephyr.kernel.core.Kernel;
@@ -116,6 +117,9 @@ public class KernelStartCommand extends DefaultCommand {
   }
 
   private WorkerPool createWorkerPool(KernelOptions kernelOptions, CommandContext context) {
+    if (kernelOptions.isVirtualThreads()) {
+      return new VirtualThreadWorkerPool();
+    }
     val kernelService =
         (ExecutorService)
             context.getLaunchContext().get(EntryPoint.ContextEntries.KERNEL_EXECUTOR_SERVICE);
@@ -3,6 +3,7 @@ package io.zephyr.kernel.launch;
 import io.sunshower.checks.SuppressFBWarnings;
 import io.zephyr.common.Options;
 import io.zephyr.kernel.concurrency.NamedThreadFactory;
+import io.zephyr.kernel.concurrency.VirtualThreadWorkerPool;
 import io.zephyr.kernel.extensions.EntryPoint;
 import io.zephyr.kernel.extensions.EntryPointRegistry;
 import io.zephyr.kernel.extensions.PrioritizedExtension;
@@ -269,7 +270,11 @@ public class KernelLauncher implements EntryPoint, EntryPointRegistry {
   public void start() {
     int concurrency = getOptions().getKernelConcurrency();
     log.log(Level.INFO, "kernel.launcher.kernel.concurrency", concurrency);
-    executorService = Executors.newCachedThreadPool(new NamedThreadFactory("kernel"));
+    if (getOptions().isVirtualThreads()) {
+      executorService = VirtualThreadWorkerPool.newExecutor("kernel");
+    } else {
+      executorService = Executors.newCachedThreadPool(new NamedThreadFactory("kernel"));
+    }
   }
 
   @Override